@@ -0,0 +1,60 @@
+package gateway.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class BulkheadConfig {
+
+    /**
+     * Substitui o gatewayHttpClientFactory padrão (ele é @ConditionalOnMissingBean):
+     * mesmo HttpClient, mais um HttpClient com pool próprio por rota ({@link BulkheadHttpClientFactory}).
+     */
+    @Bean
+    public BulkheadHttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties,
+                                                              ServerProperties serverProperties,
+                                                              HttpClientSslConfigurer sslConfigurer,
+                                                              ObjectProvider<HttpClientCustomizer> customizers,
+                                                              GatewayProperties gatewayProperties,
+                                                              @Value("${gateway.bulkhead.pending-acquire-timeout:PT0.5S}") Duration pendingAcquireTimeout) {
+        return new BulkheadHttpClientFactory(properties, serverProperties, sslConfigurer,
+                customizers.orderedStream().toList(), gatewayProperties.getRoutes(),
+                pendingAcquireTimeout);
+    }
+
+    /**
+     * Encaminha cada rota pelo pool dela. O routingFilter padrão fica desligado no application.properties
+     * (spring.cloud.gateway.global-filter.netty-routing.enabled=false).
+     */
+    @Bean
+    public BulkheadRoutingFilter bulkheadRoutingFilter(HttpClient httpClient,
+                                                       BulkheadHttpClientFactory gatewayHttpClientFactory,
+                                                       ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                       HttpClientProperties properties) {
+        // O HttpClient (produto do factory) já foi criado: os clientes por rota estão prontos
+        return new BulkheadRoutingFilter(httpClient, gatewayHttpClientFactory.getClientesPorRota(),
+                headersFilters, properties);
+    }
+
+    /**
+     * O nettyWriteResponseFilter do gateway só existe junto com o routingFilter padrão; sem ele a
+     * resposta do serviço nunca chega ao cliente (os headers vão, o corpo não).
+     */
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+}
@@ -0,0 +1,134 @@
+package gateway.config;
+
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpClient do gateway com um pool de conexões fixo por rota (bulkhead).
+ * <p>
+ * Com o pool padrão (elástico e único) um inv-service lento acumula conexões e requisições
+ * pendentes sem limite, e o auth-service sente junto. Aqui cada rota com {@code max-connections} no
+ * metadata ganha um HttpClient com pool próprio desse tamanho. O reactor-netty separa pools por
+ * endereço, então rotas para o mesmo serviço (inv-read, inv-write e o stream SSE do inv-service)
+ * dividiriam um pool só: as 1000 conexões longas do stream poderiam tomar o lugar das requisições
+ * comuns. Com um pool por rota, cada uma fica com o seu teto. O {@link BulkheadRoutingFilter}
+ * escolhe o HttpClient pela rota.
+ * <p>
+ * Pool cheio não vira fila longa: quem não consegue conexão em {@code pendingAcquireTimeout} recebe 504
+ * na hora. Quantos esperam já é limitado pelo AdaptiveConcurrencyLimit das rotas; um teto próprio de
+ * pendentes aqui devolveria 500 (a exceção do pool do reactor-netty não é mapeada pelo gateway).
+ * Rotas sem {@code max-connections} usam o HttpClient padrão do gateway.
+ */
+public class BulkheadHttpClientFactory extends HttpClientFactory {
+
+    public static final String MAX_CONNECTIONS_ATTR = "max-connections";
+
+    private static final Logger log = LoggerFactory.getLogger(BulkheadHttpClientFactory.class);
+
+    private final List<RouteDefinition> rotas;
+    private final Duration pendingAcquireTimeout;
+    private final Map<String, HttpClient> clientesPorRota = new LinkedHashMap<>();
+
+    // Rota cujo HttpClient está sendo montado por createInstance() (null = HttpClient padrão)
+    private RouteDefinition rotaEmConstrucao;
+
+    public BulkheadHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                     List<RouteDefinition> rotas, Duration pendingAcquireTimeout) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.rotas = rotas;
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    /**
+     * HttpClient de cada rota com {@code max-connections}, por id da rota.
+     * Preenchido junto com o HttpClient padrão (o bean), então só vale depois dele.
+     */
+    public Map<String, HttpClient> getClientesPorRota() {
+        return Map.copyOf(clientesPorRota);
+    }
+
+    @Override
+    protected HttpClient createInstance() {
+        // Mesma montagem do HttpClient padrão (SSL, proxy, timeouts, customizers), só o pool muda
+        for (RouteDefinition rota : rotas) {
+            if (maxConnections(rota) == null || rota.getUri() == null || rota.getUri().getHost() == null) {
+                continue;
+            }
+            rotaEmConstrucao = rota;
+            try {
+                clientesPorRota.put(rota.getId(), comConnectTimeout(super.createInstance(), rota));
+            } finally {
+                rotaEmConstrucao = null;
+            }
+        }
+        return super.createInstance();
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        ConnectionProvider padrao = super.buildConnectionProvider(properties);
+        if (rotaEmConstrucao == null) {
+            return padrao;
+        }
+        ConnectionProvider.Builder builder = padrao.mutate();
+        if (builder == null) {
+            // Pool desligado (spring.cloud.gateway.httpclient.pool.type=disabled): não há o que limitar
+            return padrao;
+        }
+
+        int maxConnections = maxConnections(rotaEmConstrucao);
+        ConnectionProvider pool = builder
+                .name("bulkhead-" + rotaEmConstrucao.getId())
+                .maxConnections(maxConnections)
+                // Sem teto de pendentes (o padrão é 2x o pool): quem decide é o timeout
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+        // O padrão ainda não abriu conexão nenhuma: só foi usado como base da configuração
+        padrao.dispose();
+        log.info("Bulkhead: pool de {} conexões para a rota {} ({})",
+                maxConnections, rotaEmConstrucao.getId(), rotaEmConstrucao.getUri());
+        return pool;
+    }
+
+    // O NettyRoutingFilter aplica o connect-timeout da rota a cada requisição; aqui já vem aplicado
+    private static HttpClient comConnectTimeout(HttpClient client, RouteDefinition rota) {
+        Object connectTimeout = rota.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout == null) {
+            return client;
+        }
+        return client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, inteiro(connectTimeout));
+    }
+
+    private static Integer maxConnections(RouteDefinition rota) {
+        Object valor = rota.getMetadata().get(MAX_CONNECTIONS_ATTR);
+        if (valor == null) {
+            return null;
+        }
+        int maxConnections = inteiro(valor);
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("max-connections inválido na rota " + rota.getId() + ": " + valor);
+        }
+        return maxConnections;
+    }
+
+    private static int inteiro(Object valor) {
+        return valor instanceof Number numero ? numero.intValue() : Integer.parseInt(valor.toString().trim());
+    }
+}
@@ -0,0 +1,53 @@
+package gateway.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * NettyRoutingFilter que encaminha cada rota pelo HttpClient com o pool dela
+ * ({@link BulkheadHttpClientFactory}). Rotas sem pool próprio seguem pelo HttpClient padrão.
+ * <p>
+ * Substitui o routingFilter do gateway, desligado com
+ * {@code spring.cloud.gateway.global-filter.netty-routing.enabled=false}.
+ */
+public class BulkheadRoutingFilter extends NettyRoutingFilter {
+
+    private final Map<String, HttpClient> clientesPorRota;
+
+    public BulkheadRoutingFilter(HttpClient httpClient, Map<String, HttpClient> clientesPorRota,
+                                 ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                 HttpClientProperties properties) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.clientesPorRota = clientesPorRota;
+    }
+
+    /**
+     * Esgotar o pendingAcquireTimeout do pool é um TimeoutException. O NettyRoutingFilter só o
+     * converte em 504 nas rotas com response-timeout; nas outras (o stream SSE) viraria 500.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return super.filter(exchange, chain)
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e));
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient daRota = clientesPorRota.get(route.getId());
+        return daRota != null ? daRota : super.getHttpClient(route, exchange);
+    }
+}
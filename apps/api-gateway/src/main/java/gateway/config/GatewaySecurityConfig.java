@@ -1,6 +1,8 @@
 package gateway.config;
 
 import common.security.RsaKeyUtils;
+import gateway.security.CachingReactiveJwtDecoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +16,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.util.Arrays;
 
 
@@ -37,7 +40,7 @@ public class GatewaySecurityConfig {
     private Boolean corsAllowCredentials;
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder jwtDecoder) {
         http
                 // CSRF protection is disabled because this API is stateless and uses JWT (Bearer) authentication.
                 // It does not rely on browser session cookies, making it immune to CSRF attacks.
@@ -59,21 +62,33 @@ public class GatewaySecurityConfig {
                 .authorizeExchange(exchanges -> exchanges
 
                         .pathMatchers(HttpMethod.POST, "/usuarios/register").permitAll()
-                        .pathMatchers("/usuarios/**", "/oauth2/**", "/vendas/**", "/produtos/**", "/movimentacoes/**", "/dashboard/**").permitAll()
+                        .pathMatchers("/usuarios/**", "/oauth2/**", "/vendas/**", "/produtos/**", "/reservas/**", "/movimentacoes/**", "/dashboard/**").permitAll()
                         .pathMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/webjars/**").permitAll()
                         .pathMatchers("/actuator/**").permitAll()
 
                         .anyExchange().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtDecoder(jwtDecoder()))
+                        .jwt(jwt -> jwt.jwtDecoder(jwtDecoder))
                 );
 
         return http.build();
     }
 
+    /**
+     * Tokens já validados vêm do cache; só o primeiro uso de cada token verifica a assinatura.
+     */
     @Bean
-    public ReactiveJwtDecoder jwtDecoder() {
+    public ReactiveJwtDecoder jwtDecoder(MeterRegistry meterRegistry,
+                                         @Value("${gateway.jwt-cache.max-size:10000}") long maxSize,
+                                         @Value("${gateway.jwt-cache.max-ttl:PT5M}") Duration maxTtl) {
+        return new CachingReactiveJwtDecoder(signatureVerifyingDecoder(), meterRegistry, maxSize, maxTtl);
+    }
+
+    /**
+     * Verificação completa (assinatura RSA + exp/nbf), usada nas faltas do cache.
+     */
+    public ReactiveJwtDecoder signatureVerifyingDecoder() {
         RSAPublicKey publicKey = RsaKeyUtils.parsePublicKey(publicKeyString);
         return NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
     }
@@ -1,20 +1,63 @@
-package  gateway.config;
+package gateway.config;
 
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
-import java.util.Objects;
+
+import java.net.InetSocketAddress;
+import java.util.List;
 
 @Configuration
 public class RateLimitConfig {
 
+    /**
+     * Chave do rate limit, do mais para o menos específico:
+     * <ol>
+     *     <li>{@code user:<user_id>} - usuário autenticado (terminais atrás do mesmo NAT não dividem cota)</li>
+     *     <li>{@code client:<client_id>} - token sem usuário (ex.: client_credentials)</li>
+     *     <li>{@code ip:<endereço>} - requisição anônima</li>
+     * </ol>
+     * Tudo sai do JWT que o gateway já validou (e cacheou), então a hierarquia não custa
+     * nenhuma ida extra ao Redis: continua sendo um único script do RedisRateLimiter por requisição.
+     * A cota em si é da rota (o RedisRateLimiter inclui o id da rota na chave).
+     */
     @Bean
     public KeyResolver userKeyResolver() {
-        return exchange -> Mono.just(
-                Objects.requireNonNull(exchange.getRequest().getRemoteAddress())
-                        .getAddress()
-                        .getHostAddress()
-        );
+        return exchange -> exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .flatMap(principal -> Mono.justOrEmpty(tokenKey(((JwtAuthenticationToken) principal).getToken())))
+                .switchIfEmpty(Mono.fromSupplier(() -> ipKey(exchange)));
+    }
+
+    private static String tokenKey(Jwt jwt) {
+        Object userId = jwt.getClaims().get("user_id");
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        String clientId = clientId(jwt);
+        return clientId != null ? "client:" + clientId : null;
+    }
+
+    private static String clientId(Jwt jwt) {
+        for (String claim : List.of("azp", "client_id")) {
+            String value = jwt.getClaimAsString(claim);
+            if (value != null) {
+                return value;
+            }
+        }
+        List<String> audience = jwt.getAudience();
+        return audience != null && !audience.isEmpty() ? audience.get(0) : null;
+    }
+
+    private static String ipKey(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return "ip:desconhecido";
+        }
+        return "ip:" + remoteAddress.getAddress().getHostAddress();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.concurrency.AdaptiveConcurrencyLimiter;
+import common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limite adaptativo de requisições simultâneas por rota ({@link AdaptiveConcurrencyLimiter}).
+ * <p>
+ * Cada rota tem o seu limite: uma agregação lenta no inv-read reduz só o limite do inv-read, e o
+ * excedente recebe 503 + Retry-After na hora, sem ocupar conexão do pool do serviço.
+ * Sobrecarga, além do gradiente de latência: erro no encaminhamento (timeout, pool do bulkhead cheio)
+ * ou resposta 502/503/504 do destino. Vai antes do CircuitBreaker da rota, para as recusas daqui não
+ * contarem como chamadas bem-sucedidas no circuito; com o circuito aberto a requisição nem chega a ser
+ * encaminhada, e essa falha imediata não entra nas amostras.
+ * <p>
+ * Uso na rota: {@code name=AdaptiveConcurrencyLimit}, {@code args.initial}, {@code args.min} e
+ * {@code args.max} (o max não deve passar do {@code max-connections} da rota, senão sobra requisição
+ * esperando no pool).
+ */
+@Component
+public class AdaptiveConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private static final List<HttpStatus> STATUS_SOBRECARGA =
+            List.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final double fatorReducao;
+    private final double toleranciaLatencia;
+    private final String retryAfter;
+
+    // Limite atual de cada rota: as métricas continuam válidas quando as rotas são recarregadas
+    private final Map<String, AdaptiveConcurrencyLimiter> limitesPorRota = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry,
+                                                        ObjectMapper objectMapper,
+                                                        @Value("${gateway.concurrency-limit.backoff-ratio:0.9}") double fatorReducao,
+                                                        @Value("${gateway.concurrency-limit.latency-tolerance:2.0}") double toleranciaLatencia,
+                                                        @Value("${gateway.concurrency-limit.retry-after:PT1S}") Duration retryAfter) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.fatorReducao = fatorReducao;
+        this.toleranciaLatencia = toleranciaLatencia;
+        this.retryAfter = ServiceOverloadedException.retryAfterHeader(retryAfter);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String rota = config.getRouteId();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                config.getInitial(), config.getMin(), config.getMax(), fatorReducao, toleranciaLatencia);
+        limitesPorRota.put(rota, limiter);
+
+        Gauge.builder("gateway.route.concurrency.limit", limitesPorRota, m -> m.get(rota).getLimite())
+                .description("Limite adaptativo de requisições simultâneas da rota")
+                .tag("route", rota)
+                .register(meterRegistry);
+        Gauge.builder("gateway.route.concurrency.inflight", limitesPorRota, m -> m.get(rota).getEmAndamento())
+                .description("Requisições da rota em andamento dentro do limite")
+                .tag("route", rota)
+                .register(meterRegistry);
+        Counter recusadas = Counter.builder("gateway.route.concurrency.rejected")
+                .description("Requisições da rota recusadas com 503 por excederem o limite")
+                .tag("route", rota)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            int emAndamento = limiter.tentarAdquirir();
+            if (emAndamento < 0) {
+                recusadas.increment();
+                return recusar(exchange);
+            }
+
+            long inicio = System.nanoTime();
+            return chain.filter(exchange).doFinally(sinal -> {
+                limiter.liberar();
+                // Cliente desistiu ou nada foi encaminhado (circuito aberto): a latência não diz nada sobre o destino
+                if (sinal != SignalType.CANCEL && ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+                    long fim = System.nanoTime();
+                    boolean sobrecarga = sinal == SignalType.ON_ERROR || statusDeSobrecarga(exchange.getResponse());
+                    limiter.registrar(fim - inicio, emAndamento, sobrecarga, fim);
+                }
+            });
+        };
+    }
+
+    private static boolean statusDeSobrecarga(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        return status != null && STATUS_SOBRECARGA.stream().anyMatch(s -> s.value() == status.value());
+    }
+
+    private Mono<Void> recusar(ServerWebExchange exchange) {
+        // Mesmo corpo do ConcurrencyLimitFilter dos serviços
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "Limite de requisições simultâneas atingido");
+        problem.setTitle("Serviço Sobrecarregado");
+        problem.setType(URI.create("https://petshop.com/errors/service-overloaded"));
+        problem.setInstance(URI.create(exchange.getRequest().getPath().value()));
+
+        byte[] corpo;
+        try {
+            corpo = objectMapper.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(corpo)));
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+        private int initial = 20;
+        private int min = 4;
+        private int max = 100;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public int getInitial() {
+            return initial;
+        }
+
+        public void setInitial(int initial) {
+            this.initial = initial;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public void setMin(int min) {
+            this.min = min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public void setMax(int max) {
+            this.max = max;
+        }
+    }
+}
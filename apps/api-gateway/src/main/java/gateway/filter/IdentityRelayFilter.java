@@ -0,0 +1,94 @@
+package gateway.filter;
+
+import common.security.GatewayIdentity;
+import common.security.GatewayIdentityCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Modo "gateway confiável": repassa aos serviços a identidade do JWT já validado
+ * num header assinado ({@link GatewayIdentityCodec}), para que eles não refaçam a verificação RSA.
+ * <p>
+ * O header recebido do cliente é sempre removido, com o modo ligado ou não: só o gateway pode emiti-lo.
+ * O Authorization segue junto, então um serviço com o modo desligado continua validando o JWT.
+ */
+@Component
+public class IdentityRelayFilter implements GlobalFilter, Ordered {
+
+    private final GatewayIdentityCodec codec;
+
+    public IdentityRelayFilter(@Value("${security.gateway-identity.enabled:false}") boolean enabled,
+                               @Value("${security.gateway-identity.secret:}") String secret) {
+        this.codec = enabled ? new GatewayIdentityCodec(secret) : null;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange stripped = exchange.mutate()
+                .request(request -> request.headers(headers -> headers.remove(GatewayIdentityCodec.HEADER)))
+                .build();
+
+        if (codec == null) {
+            return chain.filter(stripped);
+        }
+
+        return stripped.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> withIdentity(stripped, ((JwtAuthenticationToken) principal).getToken()))
+                .defaultIfEmpty(stripped)
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes dos filtros de rota, para o header valer em qualquer destino
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, Jwt jwt) {
+        GatewayIdentity identity = new GatewayIdentity(jwt.getSubject(), userId(jwt), authorities(jwt), jwt.getExpiresAt());
+        String header = codec.encode(identity);
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> headers.set(GatewayIdentityCodec.HEADER, header)))
+                .build();
+    }
+
+    private static Long userId(Jwt jwt) {
+        Object claim = jwt.getClaims().get("user_id");
+        return claim instanceof Number number ? number.longValue() : null;
+    }
+
+    /**
+     * Mesmas authorities que o JwtAuthenticationConverter dos serviços monta:
+     * SCOPE_ + cada escopo e as roles do claim 'roles' como estão.
+     */
+    private static List<String> authorities(Jwt jwt) {
+        List<String> authorities = new ArrayList<>();
+        Object scope = jwt.getClaims().get("scope");
+        if (scope instanceof String scopes) {
+            for (String s : scopes.split(" ")) {
+                if (!s.isBlank()) {
+                    authorities.add("SCOPE_" + s);
+                }
+            }
+        } else if (scope instanceof Collection<?> scopes) {
+            scopes.forEach(s -> authorities.add("SCOPE_" + s));
+        }
+        Object roles = jwt.getClaims().get("roles");
+        if (roles instanceof Collection<?> list) {
+            list.forEach(role -> authorities.add(role.toString()));
+        }
+        return authorities;
+    }
+}
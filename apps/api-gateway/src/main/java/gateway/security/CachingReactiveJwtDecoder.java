@@ -0,0 +1,112 @@
+package gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Cache dos JWTs já validados, na frente do decoder que verifica a assinatura.
+ * <p>
+ * O mesmo access token chega centenas de vezes por minuto (ex.: um PDV); sem cache,
+ * cada requisição refaz a verificação RSA e o parse das claims. Aqui a chave é o SHA-256
+ * do token (o token em si não fica em memória) e cada entrada expira no {@code exp}
+ * do JWT ou em {@code maxTtl}, o que vier primeiro: um token nunca é aceito pelo cache
+ * depois de expirar. Tokens inválidos não são cacheados.
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate,
+                                     MeterRegistry meterRegistry,
+                                     long maxSize,
+                                     Duration maxTtl) {
+        this(delegate, meterRegistry, maxSize, maxTtl, Ticker.systemTicker());
+    }
+
+    // Ticker trocável nos testes, para avançar o relógio do cache sem esperar
+    CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate,
+                              MeterRegistry meterRegistry,
+                              long maxSize,
+                              Duration maxTtl,
+                              Ticker ticker) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpiraNoExp(maxTtl))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+        Gauge.builder("gateway.jwt.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Fração das validações de JWT atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return delegate.decode(token)
+                .doOnNext(jwt -> cache.put(key, jwt));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Tempo de vida de cada entrada: até o exp do token, limitado a maxTtl.
+     * Leituras e atualizações não prolongam a entrada.
+     */
+    private record ExpiraNoExp(Duration maxTtl) implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtl.toNanos();
+            }
+            Duration restante = Duration.between(Instant.now(), expiresAt);
+            if (restante.isNegative()) {
+                return 0;
+            }
+            return Math.min(restante.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
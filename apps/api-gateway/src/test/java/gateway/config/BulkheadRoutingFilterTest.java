@@ -0,0 +1,178 @@
+package gateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pool de conexões por rota: duas rotas para o mesmo serviço, cada uma com uma conexão só.
+ * O serviço é um servidor HTTP local que segura o {@code /lento} até o teste liberar.
+ */
+class BulkheadRoutingFilterTest {
+
+    private static final Duration PENDING_ACQUIRE_TIMEOUT = Duration.ofMillis(300);
+
+    private final Sinks.Empty<Void> liberarLento = Sinks.empty();
+    private final CountDownLatch lentoRecebido = new CountDownLatch(1);
+
+    private DisposableServer servico;
+    private BulkheadHttpClientFactory factory;
+    private BulkheadRoutingFilter routingFilter;
+
+    @BeforeEach
+    void setup() throws Exception {
+        servico = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(rotas -> rotas
+                        .get("/lento", (req, res) -> {
+                            lentoRecebido.countDown();
+                            return liberarLento.asMono().then(res.sendString(Mono.just("ok")).then());
+                        })
+                        .get("/rapido", (req, res) -> res.sendString(Mono.just("ok"))))
+                .bindNow();
+
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        factory = new BulkheadHttpClientFactory(properties, serverProperties,
+                new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry()),
+                List.of(), List.of(rota("inv-read", "1"), rota("inv-write", "1"), rota("inv-docs", null)),
+                PENDING_ACQUIRE_TIMEOUT);
+        factory.afterPropertiesSet();
+        HttpClient padrao = factory.getObject();
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("headersFilters", List.of()));
+        routingFilter = new BulkheadRoutingFilter(padrao, factory.getClientesPorRota(),
+                beans.getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class)),
+                properties);
+    }
+
+    @AfterEach
+    void encerrar() {
+        liberarLento.tryEmitEmpty();
+        factory.getClientesPorRota().values().forEach(c -> c.configuration().connectionProvider().dispose());
+        servico.disposeNow();
+    }
+
+    @Test
+    @DisplayName("DEVE criar um pool para cada rota com max-connections, mesmo com o mesmo destino")
+    void deveCriarPoolPorRota() {
+        // AÇÃO
+        Map<String, HttpClient> clientes = factory.getClientesPorRota();
+
+        // VERIFICAÇÃO: inv-docs não tem max-connections e fica com o HttpClient padrão
+        assertEquals(2, clientes.size());
+        assertNotSame(clientes.get("inv-read").configuration().connectionProvider(),
+                clientes.get("inv-write").configuration().connectionProvider());
+        assertEquals(1, clientes.get("inv-read").configuration().connectionProvider().maxConnections());
+    }
+
+    @Test
+    @DisplayName("DEVE atender a outra rota do mesmo serviço com o pool de uma rota esgotado")
+    void deveIsolarPoolDaRota() throws Exception {
+        // CENÁRIO: a única conexão do inv-read está presa no /lento
+        Disposable lento = routingFilter.filter(exchange("inv-read", "/lento"), e -> Mono.empty()).subscribe();
+        assertTrue(lentoRecebido.await(5, TimeUnit.SECONDS));
+        MockServerWebExchange escrita = exchange("inv-write", "/rapido");
+
+        // AÇÃO
+        routingFilter.filter(escrita, e -> Mono.empty()).block(Duration.ofSeconds(5));
+
+        // VERIFICAÇÃO
+        assertEquals(HttpStatus.OK, escrita.getResponse().getStatusCode());
+        fecharConexao(escrita);
+        lento.dispose();
+    }
+
+    @Test
+    @DisplayName("DEVE responder 504 quando a rota não consegue conexão do pool a tempo")
+    void deveResponder504ComPoolEsgotado() throws Exception {
+        // CENÁRIO
+        Disposable lento = routingFilter.filter(exchange("inv-read", "/lento"), e -> Mono.empty()).subscribe();
+        assertTrue(lentoRecebido.await(5, TimeUnit.SECONDS));
+
+        // AÇÃO
+        ResponseStatusException erro = assertThrows(ResponseStatusException.class, () -> routingFilter
+                .filter(exchange("inv-read", "/rapido"), e -> Mono.empty()).block(Duration.ofSeconds(5)));
+
+        // VERIFICAÇÃO
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, erro.getStatusCode());
+        lento.dispose();
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE aceitar max-connections menor que 1")
+    void naoDeveAceitarMaxConnectionsInvalido() {
+        // CENÁRIO
+        HttpClientProperties properties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        BulkheadHttpClientFactory invalida = new BulkheadHttpClientFactory(properties, serverProperties,
+                new HttpClientSslConfigurer(properties.getSsl(), serverProperties, new DefaultSslBundleRegistry()),
+                List.of(), List.of(rota("inv-read", "0")), PENDING_ACQUIRE_TIMEOUT);
+
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(IllegalArgumentException.class, invalida::afterPropertiesSet);
+    }
+
+    private RouteDefinition rota(String id, String maxConnections) {
+        RouteDefinition rota = new RouteDefinition();
+        rota.setId(id);
+        rota.setUri(URI.create("http://localhost:" + servico.port()));
+        if (maxConnections != null) {
+            rota.setMetadata(Map.of(BulkheadHttpClientFactory.MAX_CONNECTIONS_ATTR, maxConnections));
+        }
+        return rota;
+    }
+
+    private MockServerWebExchange exchange(String rotaId, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        Route rota = Route.async()
+                .id(rotaId)
+                .uri(URI.create("http://localhost:" + servico.port()))
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, rota);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://localhost:" + servico.port() + path));
+        return exchange;
+    }
+
+    // Sem o NettyWriteResponseFilter ninguém lê o corpo nem devolve a conexão ao pool
+    private static void fecharConexao(MockServerWebExchange exchange) {
+        Connection conexao = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (conexao != null) {
+            conexao.dispose();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package gateway.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chave do rate limit: usuário, depois cliente (azp, client_id, aud) e, sem token, o IP.
+ */
+class RateLimitConfigTest {
+
+    private static final InetSocketAddress PDV = new InetSocketAddress("10.0.0.7", 51000);
+
+    private final KeyResolver keyResolver = new RateLimitConfig().userKeyResolver();
+
+    @Test
+    @DisplayName("DEVE usar o user_id quando o token tem usuário, mesmo com o cliente presente")
+    void deveUsarUserId() {
+        // CENÁRIO
+        ServerWebExchange exchange = comToken(Map.of("user_id", 42, "azp", "pdv-loja-1", "client_id", "pdv"));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("user:42", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o azp quando o token não tem usuário")
+    void deveUsarAzp() {
+        // CENÁRIO
+        ServerWebExchange exchange = comToken(Map.of("azp", "pdv-loja-1", "client_id", "pdv", "aud", List.of("api")));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("client:pdv-loja-1", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o client_id quando o token não tem usuário nem azp")
+    void deveUsarClientId() {
+        // CENÁRIO
+        ServerWebExchange exchange = comToken(Map.of("client_id", "pdv", "aud", List.of("api")));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("client:pdv", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar a primeira audiência quando o token não tem usuário, azp nem client_id")
+    void deveUsarAudiencia() {
+        // CENÁRIO
+        ServerWebExchange exchange = comToken(Map.of("aud", List.of("estoque-sync", "api")));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("client:estoque-sync", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o IP quando o token não identifica usuário nem cliente")
+    void deveUsarIpComTokenSemIdentificacao() {
+        // CENÁRIO
+        ServerWebExchange exchange = comToken(Map.of("sub", "anonimo"));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("ip:10.0.0.7", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o IP na requisição anônima")
+    void deveUsarIpSemToken() {
+        // CENÁRIO
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/produtos").remoteAddress(PDV));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("ip:10.0.0.7", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o IP quando o principal não é um JWT")
+    void deveUsarIpComOutroPrincipal() {
+        // CENÁRIO
+        ServerWebExchange exchange = comPrincipal(new UsernamePasswordAuthenticationToken("ana", null, List.of()));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("ip:10.0.0.7", keyResolver.resolve(exchange).block());
+    }
+
+    @Test
+    @DisplayName("DEVE cair numa chave fixa quando a requisição anônima não tem endereço de origem")
+    void deveUsarChaveFixaSemEndereco() {
+        // CENÁRIO
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/produtos"));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("ip:desconhecido", keyResolver.resolve(exchange).block());
+    }
+
+    private static ServerWebExchange comToken(Map<String, Object> claims) {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claims(c -> c.putAll(claims))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+        return comPrincipal(new JwtAuthenticationToken(jwt));
+    }
+
+    private static ServerWebExchange comPrincipal(Principal principal) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/produtos").remoteAddress(PDV))
+                .mutate()
+                .principal(Mono.just(principal))
+                .build();
+    }
+}
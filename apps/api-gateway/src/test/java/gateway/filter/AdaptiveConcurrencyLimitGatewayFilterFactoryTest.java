@@ -0,0 +1,109 @@
+package gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recusa do excedente de uma rota com 503 + ProblemDetail, sem encaminhar a requisição.
+ */
+class AdaptiveConcurrencyLimitGatewayFilterFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Requisições que passaram pelo limite e seguiram para o encaminhamento
+    private final AtomicInteger encaminhadas = new AtomicInteger();
+
+    private GatewayFilter filtro;
+
+    @BeforeEach
+    void setup() {
+        AdaptiveConcurrencyLimitGatewayFilterFactory factory = new AdaptiveConcurrencyLimitGatewayFilterFactory(
+                meterRegistry, objectMapper, 0.9, 2.0, Duration.ofSeconds(1));
+        AdaptiveConcurrencyLimitGatewayFilterFactory.Config config = new AdaptiveConcurrencyLimitGatewayFilterFactory.Config();
+        config.setRouteId("inv-read");
+        config.setInitial(1);
+        config.setMin(1);
+        config.setMax(1);
+        filtro = factory.apply(config);
+    }
+
+    @Test
+    @DisplayName("DEVE recusar com 503 e ProblemDetail a requisição acima do limite da rota")
+    void deveRecusarAcimaDoLimite() throws Exception {
+        // CENÁRIO: a única vaga da rota está ocupada por uma requisição lenta
+        Sinks.Empty<Void> lenta = Sinks.empty();
+        Disposable emAndamento = filtro.filter(exchange(), cadeia(lenta.asMono())).subscribe();
+        MockServerWebExchange excedente = exchange();
+
+        // AÇÃO
+        filtro.filter(excedente, cadeia(Mono.empty())).block();
+
+        // VERIFICAÇÃO
+        assertEquals(1, encaminhadas.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, excedente.getResponse().getStatusCode());
+        HttpHeaders headers = excedente.getResponse().getHeaders();
+        assertEquals("1", headers.getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, headers.getContentType());
+
+        JsonNode problem = objectMapper.readTree(excedente.getResponse().getBodyAsString().block());
+        assertEquals(503, problem.get("status").asInt());
+        assertEquals("Serviço Sobrecarregado", problem.get("title").asText());
+        assertEquals("https://petshop.com/errors/service-overloaded", problem.get("type").asText());
+        assertEquals("Limite de requisições simultâneas atingido", problem.get("detail").asText());
+        assertEquals("/produtos", problem.get("instance").asText());
+        assertEquals(1.0, meterRegistry.get("gateway.route.concurrency.rejected").tag("route", "inv-read")
+                .counter().count());
+
+        emAndamento.dispose();
+    }
+
+    @Test
+    @DisplayName("DEVE liberar a vaga quando a requisição em andamento termina")
+    void deveLiberarVagaAoTerminar() {
+        // CENÁRIO
+        Sinks.Empty<Void> lenta = Sinks.empty();
+        filtro.filter(exchange(), cadeia(lenta.asMono())).subscribe();
+        lenta.tryEmitEmpty();
+        MockServerWebExchange seguinte = exchange();
+
+        // AÇÃO
+        filtro.filter(seguinte, cadeia(Mono.empty())).block();
+
+        // VERIFICAÇÃO
+        assertEquals(2, encaminhadas.get());
+        assertNull(seguinte.getResponse().getStatusCode());
+        assertEquals(0, meterRegistry.get("gateway.route.concurrency.rejected").tag("route", "inv-read")
+                .counter().count());
+    }
+
+    private GatewayFilterChain cadeia(Mono<Void> encaminhamento) {
+        return exchange -> {
+            encaminhadas.incrementAndGet();
+            return encaminhamento;
+        };
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/produtos"));
+    }
+}
@@ -0,0 +1,115 @@
+package gateway.filter;
+
+import common.security.GatewayIdentity;
+import common.security.GatewayIdentityCodec;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * O header de identidade que chega ao serviço só pode ter sido emitido pelo gateway:
+ * o que o cliente manda nunca é repassado, com o modo ligado ou desligado.
+ */
+class IdentityRelayFilterTest {
+
+    private static final String SECRET = "segredo-do-gateway-com-32-bytes-ou-mais";
+
+    private final GatewayIdentityCodec codec = new GatewayIdentityCodec(SECRET);
+
+    // Requisição como o filtro a entregou para o encaminhamento
+    private final AtomicReference<ServerHttpRequest> encaminhada = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        encaminhada.set(exchange.getRequest());
+        return Mono.empty();
+    };
+
+    @Test
+    @DisplayName("NÃO DEVE repassar o header de identidade do cliente com o modo desligado")
+    void naoDeveRepassarHeaderForjadoComModoDesligado() {
+        // CENÁRIO: header com assinatura válida (vazado de outra requisição), nome em minúsculas
+        IdentityRelayFilter filter = new IdentityRelayFilter(false, "");
+        ServerWebExchange exchange = comToken(requisicao("x-gateway-identity", headerForjado()), jwtDaAna());
+
+        // AÇÃO
+        filter.filter(exchange, chain).block();
+
+        // VERIFICAÇÃO
+        assertFalse(encaminhada.get().getHeaders().containsKey(GatewayIdentityCodec.HEADER));
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE repassar o header de identidade do cliente na requisição anônima com o modo ligado")
+    void naoDeveRepassarHeaderForjadoSemToken() {
+        // CENÁRIO
+        IdentityRelayFilter filter = new IdentityRelayFilter(true, SECRET);
+        ServerWebExchange exchange = MockServerWebExchange.from(requisicao(GatewayIdentityCodec.HEADER, headerForjado()));
+
+        // AÇÃO
+        filter.filter(exchange, chain).block();
+
+        // VERIFICAÇÃO
+        assertFalse(encaminhada.get().getHeaders().containsKey(GatewayIdentityCodec.HEADER));
+    }
+
+    @Test
+    @DisplayName("DEVE trocar o header de identidade do cliente pelo do JWT validado com o modo ligado")
+    void deveTrocarHeaderForjadoPeloDoJwt() {
+        // CENÁRIO
+        IdentityRelayFilter filter = new IdentityRelayFilter(true, SECRET);
+        ServerWebExchange exchange = comToken(requisicao(GatewayIdentityCodec.HEADER, headerForjado()), jwtDaAna());
+
+        // AÇÃO
+        filter.filter(exchange, chain).block();
+
+        // VERIFICAÇÃO
+        List<String> headers = encaminhada.get().getHeaders().get(GatewayIdentityCodec.HEADER);
+        assertNotNull(headers);
+        assertEquals(1, headers.size());
+        GatewayIdentity identidade = codec.decode(headers.get(0), Instant.now()).orElseThrow();
+        assertEquals("ana@petshop.com", identidade.subject());
+        assertEquals(7L, identidade.userId());
+        assertEquals(List.of("SCOPE_read", "USER"), identidade.authorities());
+    }
+
+    private String headerForjado() {
+        return codec.encode(new GatewayIdentity("admin@petshop.com", 1L, List.of("ADMIN"),
+                Instant.now().plus(1, ChronoUnit.HOURS)));
+    }
+
+    private static MockServerHttpRequest requisicao(String header, String valor) {
+        return MockServerHttpRequest.get("/produtos").header(header, valor).build();
+    }
+
+    private static Jwt jwtDaAna() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("ana@petshop.com")
+                .claim("user_id", 7)
+                .claim("scope", "read")
+                .claim("roles", List.of("USER"))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(5, ChronoUnit.MINUTES))
+                .build();
+    }
+
+    private static ServerWebExchange comToken(MockServerHttpRequest request, Jwt jwt) {
+        return MockServerWebExchange.from(request)
+                .mutate()
+                .principal(Mono.just(new JwtAuthenticationToken(jwt)))
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package gateway.security;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache dos JWTs validados, com um decoder falso no lugar da verificação RSA e um ticker
+ * controlado pelo teste no lugar do relógio do Caffeine.
+ */
+class CachingReactiveJwtDecoderTest {
+
+    private static final Duration MAX_TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong agoraNanos = new AtomicLong();
+    private final Ticker ticker = agoraNanos::get;
+
+    // Token -> exp do JWT devolvido pelo decoder falso; token ausente = assinatura inválida
+    private final Map<String, Instant> tokensValidos = new HashMap<>();
+    private final AtomicInteger chamadasAoDelegate = new AtomicInteger();
+
+    private CachingReactiveJwtDecoder decoder;
+
+    @BeforeEach
+    void setup() {
+        ReactiveJwtDecoder delegate = token -> {
+            chamadasAoDelegate.incrementAndGet();
+            Instant exp = tokensValidos.get(token);
+            if (exp == null) {
+                return Mono.error(new BadJwtException("Assinatura inválida"));
+            }
+            return Mono.just(Jwt.withTokenValue(token)
+                    .header("alg", "RS256")
+                    .subject("ana@petshop.com")
+                    .issuedAt(exp.minus(Duration.ofHours(2)))
+                    .expiresAt(exp)
+                    .build());
+        };
+        decoder = new CachingReactiveJwtDecoder(delegate, new SimpleMeterRegistry(), 100, MAX_TTL, ticker);
+    }
+
+    @Test
+    @DisplayName("DEVE reaproveitar o JWT validado sem verificar a assinatura de novo")
+    void deveReaproveitarJwtValidado() {
+        // CENÁRIO
+        tokensValidos.put("token-a", Instant.now().plus(Duration.ofMinutes(1)));
+        Jwt primeiro = decoder.decode("token-a").block();
+
+        // AÇÃO
+        Jwt segundo = decoder.decode("token-a").block();
+
+        // VERIFICAÇÃO
+        assertSame(primeiro, segundo);
+        assertEquals(1, chamadasAoDelegate.get());
+    }
+
+    @Test
+    @DisplayName("DEVE expirar a entrada no exp do token quando ele vem antes de maxTtl")
+    void deveExpirarEntradaNoExp() {
+        // CENÁRIO: exp em 30s, maxTtl de 5min
+        tokensValidos.put("token-a", Instant.now().plus(Duration.ofSeconds(30)));
+        decoder.decode("token-a").block();
+
+        // AÇÃO & VERIFICAÇÃO: ainda no cache antes do exp
+        avancar(Duration.ofSeconds(29));
+        decoder.decode("token-a").block();
+        assertEquals(1, chamadasAoDelegate.get());
+
+        // AÇÃO & VERIFICAÇÃO: depois do exp volta ao decoder
+        avancar(Duration.ofSeconds(2));
+        decoder.decode("token-a").block();
+        assertEquals(2, chamadasAoDelegate.get());
+    }
+
+    @Test
+    @DisplayName("DEVE limitar a entrada a maxTtl quando o exp do token é mais distante")
+    void deveLimitarEntradaAMaxTtl() {
+        // CENÁRIO: exp em 1h, maxTtl de 5min
+        tokensValidos.put("token-a", Instant.now().plus(Duration.ofHours(1)));
+        decoder.decode("token-a").block();
+
+        // AÇÃO & VERIFICAÇÃO
+        avancar(MAX_TTL.minusSeconds(1));
+        decoder.decode("token-a").block();
+        assertEquals(1, chamadasAoDelegate.get());
+
+        avancar(Duration.ofSeconds(2));
+        decoder.decode("token-a").block();
+        assertEquals(2, chamadasAoDelegate.get());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE cachear token que falhou na validação")
+    void naoDeveCachearTokenInvalido() {
+        // AÇÃO & VERIFICAÇÃO: cada tentativa passa pelo decoder e falha de novo
+        assertThrows(BadJwtException.class, () -> decoder.decode("token-forjado").block());
+        assertThrows(BadJwtException.class, () -> decoder.decode("token-forjado").block());
+        assertEquals(2, chamadasAoDelegate.get());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE guardar token que já chega expirado")
+    void naoDeveGuardarTokenExpirado() {
+        // CENÁRIO
+        tokensValidos.put("token-a", Instant.now().minusSeconds(1));
+
+        // AÇÃO
+        decoder.decode("token-a").block();
+        decoder.decode("token-a").block();
+
+        // VERIFICAÇÃO
+        assertEquals(2, chamadasAoDelegate.get());
+    }
+
+    private void avancar(Duration tempo) {
+        agoraNanos.addAndGet(tempo.toNanos());
+    }
+}
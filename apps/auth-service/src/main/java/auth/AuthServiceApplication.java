@@ -2,10 +2,10 @@ package auth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
 
-@SpringBootApplication
-@ComponentScan(basePackages = {"auth", "common"})
+// scanBasePackages (e não um @ComponentScan próprio) mantém o filtro que tira as auto-configurações
+// do common-lib (META-INF/spring/...AutoConfiguration.imports) da varredura
+@SpringBootApplication(scanBasePackages = {"auth", "common"})
 public class AuthServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceApplication.class, args);
@@ -0,0 +1,48 @@
+package auth.config;
+
+import auth.security.authorization.AuthorizationCodec;
+import auth.security.authorization.AuthorizationObjectMapper;
+import auth.security.authorization.RedisOAuth2AuthorizationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Autorizações OAuth2 no Redis (auth.authorization.store=redis).
+ * <p>
+ * Opcional: o padrão é a tabela oauth2_authorization. No Redis cada refresh é um GET e um SET
+ * com TTL igual ao do token, mas as autorizações só existem lá: um flush ou uma eviction do Redis
+ * desloga todo mundo. Trocar de armazenamento não migra nada: quem estava logado faz login de novo.
+ */
+@Configuration
+@ConditionalOnProperty(name = "auth.authorization.store", havingValue = "redis")
+public class AuthorizationStoreConfig {
+
+    @Bean
+    public RedisTemplate<String, byte[]> authorizationRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setEnableDefaultSerializer(false);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @Bean
+    public OAuth2AuthorizationService authorizationService(
+            RedisTemplate<String, byte[]> authorizationRedisTemplate,
+            @Value("${auth.authorization.redis.default-ttl:PT10M}") Duration defaultTtl) {
+        return new RedisOAuth2AuthorizationService(authorizationRedisTemplate,
+                new AuthorizationCodec(AuthorizationObjectMapper.create()),
+                defaultTtl, Clock.systemUTC());
+    }
+}
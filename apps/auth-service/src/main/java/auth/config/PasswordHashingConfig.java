@@ -0,0 +1,89 @@
+package auth.config;
+
+import auth.security.password.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hash de senhas.
+ * <p>
+ * Os hashes são gravados com prefixo de algoritmo ({bcrypt}, {argon2}). Hashes antigos sem prefixo
+ * são BCrypt. No login, se o hash guardado não usa o algoritmo/custo configurado,
+ * o Spring Security regrava a senha (UserDetailsPasswordService): trocar
+ * {@code auth.password.algorithm} ou o custo migra os usuários aos poucos, sem reset.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingConfig.class);
+
+    @Value("${auth.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${auth.password.bcrypt.strength:12}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${auth.password.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${auth.password.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${auth.password.pool.threads:0}")
+    private int poolThreads;
+
+    @Value("${auth.password.pool.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${auth.password.pool.max-wait:PT5S}")
+    private Duration maxWait;
+
+    @Value("${auth.password.retry-after:PT2S}")
+    private Duration retryAfter;
+
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations)
+        );
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("auth.password.algorithm inválido: " + algorithm + " (use " + encoders.keySet() + ")");
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        calibrar(delegating);
+
+        // 0 = um hash por núcleo: mais que isso só divide a mesma CPU
+        int threads = poolThreads > 0 ? poolThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, threads, queueCapacity, maxWait, retryAfter, meterRegistry);
+    }
+
+    /**
+     * Mede um hash no hardware atual, para ajustar custo e pool (alvo comum: 100-500ms por hash).
+     */
+    private void calibrar(PasswordEncoder encoder) {
+        long start = System.nanoTime();
+        encoder.encode("calibracao-de-custo");
+        long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("Hash de senha ({}) leva ~{}ms neste host; capacidade estimada ~{} logins/s",
+                algorithm, millis, millis == 0 ? "∞" : Runtime.getRuntime().availableProcessors() * 1000 / millis);
+    }
+}
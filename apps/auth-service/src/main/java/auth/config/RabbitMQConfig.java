@@ -17,6 +17,8 @@ public class RabbitMQConfig {
     public static final String DLQ_QUEUE_NAME = "auth.v1.password-reset.send-email.dlq";
     public static final String DLQ_ROUTING_KEY = "auth.password.reset.dlq";
 
+    public static final String USUARIO_ALTERADO_ROUTING_KEY = "auth.usuario.alterado";
+
     @Bean
     public Queue dlqQueue() {
         return QueueBuilder.durable(DLQ_QUEUE_NAME).build();
@@ -50,6 +52,20 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(passwordResetQueue()).to(authExchange()).with(ROUTING_KEY);
     }
 
+    /**
+     * Fila própria de cada instância (exclusiva, apagada quando ela desconecta) para invalidar o
+     * UsuarioCache local: toda instância recebe todo evento de usuário alterado.
+     */
+    @Bean
+    public Queue usuarioCacheQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("auth.v1.usuario-cache."));
+    }
+
+    @Bean
+    public Binding usuarioCacheBinding() {
+        return BindingBuilder.bind(usuarioCacheQueue()).to(authExchange()).with(USUARIO_ALTERADO_ROUTING_KEY);
+    }
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -1,22 +1,23 @@
 package auth.config;
 
+import auth.security.authorization.AuthorizationObjectMapper;
+import auth.security.client.CachingRegisteredClientRepository;
 import auth.security.filter.CookieRefreshTokenRequestFilter;
-import auth.security.filter.RefreshTokenCookieFilter;
 import auth.security.handler.CookieClearingLogoutHandler;
+import auth.security.handler.RefreshTokenCookieResponseHandler;
 import auth.security.user.UserDetailsImpl;
-import auth.security.user.UserDetailsImplMixin;
-import com.fasterxml.jackson.databind.Module;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import common.security.RsaKeyUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -28,9 +29,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.jackson2.SecurityJackson2Modules;
 import org.springframework.security.oauth2.server.authorization.*;
 import org.springframework.security.oauth2.server.authorization.client.JdbcRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -54,6 +52,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.security.KeyPair;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -83,13 +82,13 @@ public class SecurityConfig {
     private Boolean corsAllowCredentials;
 
     private final CookieRefreshTokenRequestFilter cookieRefreshTokenRequestFilter;
-    private final RefreshTokenCookieFilter refreshTokenCookieFilter;
+    private final RefreshTokenCookieResponseHandler refreshTokenCookieResponseHandler;
     private final CookieClearingLogoutHandler cookieClearingLogoutHandler;
     private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
-    public SecurityConfig(CookieRefreshTokenRequestFilter cookieRefreshTokenRequestFilter, RefreshTokenCookieFilter refreshTokenCookieFilter, CookieClearingLogoutHandler cookieClearingLogoutHandler) {
+    public SecurityConfig(CookieRefreshTokenRequestFilter cookieRefreshTokenRequestFilter, RefreshTokenCookieResponseHandler refreshTokenCookieResponseHandler, CookieClearingLogoutHandler cookieClearingLogoutHandler) {
         this.cookieRefreshTokenRequestFilter = cookieRefreshTokenRequestFilter;
-        this.refreshTokenCookieFilter = refreshTokenCookieFilter;
+        this.refreshTokenCookieResponseHandler = refreshTokenCookieResponseHandler;
         this.cookieClearingLogoutHandler = cookieClearingLogoutHandler;
     }
 
@@ -108,20 +107,17 @@ public class SecurityConfig {
                 .with(authorizationServerConfigurer, authorizationServer ->
                         authorizationServer
                                 .oidc(Customizer.withDefaults())
+                                // OUTPUT: refresh_token da resposta -> Cookie HttpOnly
+                                .tokenEndpoint(tokenEndpoint -> tokenEndpoint
+                                        .accessTokenResponseHandler(refreshTokenCookieResponseHandler))
                 );
 
         // --- FILTROS CORRETAMENTE POSICIONADOS ---
 
-        // 1. INPUT: Converte Cookie -> Parâmetro
+        // INPUT: Converte Cookie -> Parâmetro
         // Roda ANTES do SecurityContextHolderFilter para normalizar a request cedo.
         http.addFilterBefore(cookieRefreshTokenRequestFilter, SecurityContextHolderFilter.class);
 
-        // 2. OUTPUT: Envelopa a Resposta (Wrapper)
-        // Roda DEPOIS do SecurityContextHolderFilter.
-        // Como o SecurityContext já rodou, a ordem fica garantida:
-        // [CookieFilter] -> [ContextFilter] -> [ResponseFilter] -> ... -> [TokenEndpoint]
-        http.addFilterAfter(refreshTokenCookieFilter, SecurityContextHolderFilter.class);
-
         http
                 .exceptionHandling(exceptions -> exceptions
                         .defaultAuthenticationEntryPointFor(
@@ -199,26 +195,30 @@ public class SecurityConfig {
         return AuthorizationServerSettings.builder().build();
     }
 
+    /**
+     * Clientes vêm do banco, mas são lidos do cache em cada /oauth2/token
+     * (ver {@link CachingRegisteredClientRepository}).
+     */
     @Bean
-    public RegisteredClientRepository registeredClientRepository(JdbcTemplate jdbcTemplate) {
-        return new JdbcRegisteredClientRepository(jdbcTemplate);
+    public RegisteredClientRepository registeredClientRepository(JdbcTemplate jdbcTemplate,
+                                                                 MeterRegistry meterRegistry,
+                                                                 @Value("${auth.client-cache.max-size:1000}") long maxSize,
+                                                                 @Value("${auth.client-cache.ttl:PT10M}") Duration ttl) {
+        return new CachingRegisteredClientRepository(new JdbcRegisteredClientRepository(jdbcTemplate),
+                meterRegistry, maxSize, ttl);
     }
 
+    /**
+     * Armazenamento padrão das autorizações (tabela oauth2_authorization).
+     * Com auth.authorization.store=redis, vale o do {@link AuthorizationStoreConfig}.
+     */
     @Bean
+    @ConditionalOnProperty(name = "auth.authorization.store", havingValue = "jdbc", matchIfMissing = true)
     public OAuth2AuthorizationService authorizationService(JdbcTemplate jdbcTemplate, RegisteredClientRepository registeredClientRepository) {
         JdbcOAuth2AuthorizationService service = new JdbcOAuth2AuthorizationService(jdbcTemplate, registeredClientRepository);
         JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper rowMapper =
                 new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(registeredClientRepository);
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ClassLoader classLoader = JdbcOAuth2AuthorizationService.class.getClassLoader();
-        List<Module> modules = SecurityJackson2Modules.getModules(classLoader);
-        objectMapper.registerModules(modules);
-
-        // Mantendo seu Mixin para serialização funcionar
-        objectMapper.addMixIn(UserDetailsImpl.class, UserDetailsImplMixin.class);
-
-        rowMapper.setObjectMapper(objectMapper);
+        rowMapper.setObjectMapper(AuthorizationObjectMapper.create());
         service.setAuthorizationRowMapper(rowMapper);
         return service;
     }
@@ -288,11 +288,6 @@ public class SecurityConfig {
         return new ImmutableJWKSet<>(jwkSet);
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
-    }
-
     @Bean
     public AuthenticationSuccessHandler customAuthenticationSuccessHandler() {
         return (request, response, authentication) -> {
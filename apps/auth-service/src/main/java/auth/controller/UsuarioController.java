@@ -4,11 +4,19 @@ import auth.dto.request.UserSettingsRequest;
 import auth.dto.response.UserResponse;
 import auth.model.Usuario;
 import auth.service.UsuarioService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.TreeSet;
+
 @RestController
 @RequestMapping("/usuarios")
 public class UsuarioController {
@@ -22,6 +30,8 @@ public class UsuarioController {
     /**
      * Retorna os dados do usuário autenticado atual.
      * Endpoint usado pelo Frontend para recuperar sessão após F5.
+     * Os dados vêm do cache de usuários, então o ETag sai sem tocar no banco;
+     * com If-None-Match igual o Spring responde 304 sem corpo.
      */
     @GetMapping("/me")
     public ResponseEntity<UserResponse> me(@AuthenticationPrincipal Jwt jwt) {
@@ -29,7 +39,10 @@ public class UsuarioController {
 
         UserResponse response = usuarioService.obterDadosUsuarioLogado(email);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag(response))
+                .body(response);
     }
 
     /**
@@ -46,4 +59,15 @@ public class UsuarioController {
         return ResponseEntity.noContent().build();
     }
 
-}
\ No newline at end of file
+    // Roles ordenadas: o Set do snapshot não garante ordem entre instâncias
+    private static String etag(UserResponse response) {
+        String base = response.id() + "|" + response.name() + "|" + response.email() + "|"
+                + new TreeSet<>(response.roles()) + "|" + response.theme();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(base.getBytes(StandardCharsets.UTF_8));
+            return "\"usuario-" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package auth.dto.message;
 
+import auth.config.RabbitMQConfig;
+import common.outbox.IntegrationEvent;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,10 +11,31 @@ import java.io.Serializable;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class PasswordResetMessage implements Serializable {
+public class PasswordResetMessage implements Serializable, IntegrationEvent {
     private int version;
     private String eventId;
     private String email;
     private String token;
     private String nomeUsuario;
-}
\ No newline at end of file
+
+    @Override
+    public String exchange() {
+        return RabbitMQConfig.EXCHANGER_NAME;
+    }
+
+    @Override
+    public String routingKey() {
+        return RabbitMQConfig.ROUTING_KEY;
+    }
+
+    @Override
+    public int version() {
+        return version;
+    }
+
+    // Vários pedidos de reset do mesmo usuário: o último email enviado é o do token válido
+    @Override
+    public String aggregateKey() {
+        return email;
+    }
+}
@@ -0,0 +1,40 @@
+package auth.dto.message;
+
+import auth.config.RabbitMQConfig;
+import common.outbox.IntegrationEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Senha, roles ou preferências do usuário mudaram: cada instância do auth-service
+ * descarta o usuário do seu UsuarioCache.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsuarioAlteradoMessage implements IntegrationEvent {
+    private int version;
+    private String eventId;
+    private String email;
+
+    @Override
+    public String exchange() {
+        return RabbitMQConfig.EXCHANGER_NAME;
+    }
+
+    @Override
+    public String routingKey() {
+        return RabbitMQConfig.USUARIO_ALTERADO_ROUTING_KEY;
+    }
+
+    @Override
+    public int version() {
+        return version;
+    }
+
+    @Override
+    public String aggregateKey() {
+        return email;
+    }
+}
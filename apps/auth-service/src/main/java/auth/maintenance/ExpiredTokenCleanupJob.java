@@ -0,0 +1,125 @@
+package auth.maintenance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Coleta de lixo das autorizações OAuth2 e dos tokens de reset de senha expirados.
+ * <p>
+ * Sem ela as duas tabelas só crescem (o resetPassword apaga apenas o token que o usuário
+ * usou) e toda busca por token fica mais lenta. A retenção mantém as linhas por um tempo
+ * depois de expirarem, o que evita corrida com quem acabou de ler o token.
+ * <p>
+ * Cada ciclo apaga no máximo {@code max-batches} lotes por tabela e faz uma pausa
+ * entre eles; o que sobrar fica para o próximo ciclo.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.cleanup.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenCleanupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredTokenCleanupJob.class);
+
+    private final ExpiredTokenStore store;
+    private final Duration authorizationRetention;
+    private final Duration resetTokenRetention;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+
+    private final Table authorizations;
+    private final Table resetTokens;
+
+    public ExpiredTokenCleanupJob(ExpiredTokenStore store,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.cleanup.authorization-retention:PT1H}") Duration authorizationRetention,
+                                  @Value("${auth.cleanup.reset-token-retention:PT1H}") Duration resetTokenRetention,
+                                  @Value("${auth.cleanup.batch-size:500}") int batchSize,
+                                  @Value("${auth.cleanup.max-batches:200}") int maxBatches,
+                                  @Value("${auth.cleanup.pause-between-batches:PT0.1S}") Duration pause) {
+        this.store = store;
+        this.authorizationRetention = authorizationRetention;
+        this.resetTokenRetention = resetTokenRetention;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.pause = pause;
+
+        this.authorizations = new Table("oauth2_authorization", meterRegistry);
+        this.resetTokens = new Table("password_reset_token", meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${auth.cleanup.initial-delay-ms:60000}",
+               fixedDelayString = "${auth.cleanup.fixed-delay-ms:900000}")
+    public void purgeExpired() {
+        Instant authorizationCutoff = Instant.now().minus(authorizationRetention);
+        purge(authorizations, limit -> store.deleteExpiredAuthorizations(authorizationCutoff, limit));
+
+        // password_reset_token guarda LocalDateTime (ver PasswordResetToken#isExpired)
+        LocalDateTime resetTokenCutoff = LocalDateTime.now().minus(resetTokenRetention);
+        purge(resetTokens, limit -> store.deleteExpiredPasswordResetTokens(resetTokenCutoff, limit));
+    }
+
+    private void purge(Table table, IntUnaryOperator deleteBatch) {
+        long start = System.nanoTime();
+        long purged = 0;
+        int batches = 0;
+        try {
+            int deleted;
+            do {
+                if (batches > 0) {
+                    Thread.sleep(pause.toMillis());
+                }
+                deleted = deleteBatch.applyAsInt(batchSize);
+                purged += deleted;
+                table.purged.increment(deleted);
+                batches++;
+            } while (deleted == batchSize && batches < maxBatches);
+            // Lote cheio = provavelmente há mais linhas; lote parcial = tabela limpa.
+
+            if (deleted == batchSize) {
+                log.info("Limpeza de {} atingiu o limite de {} lotes ({} linhas); continua no próximo ciclo",
+                        table.name, maxBatches, purged);
+            } else if (purged > 0) {
+                log.info("Limpeza de {}: {} linhas expiradas removidas em {} lotes", table.name, purged, batches);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Linhas já removidas continuam removidas (cada lote é commitado sozinho)
+            log.warn("Limpeza de {} interrompida após {} linhas, nova tentativa no próximo ciclo: {}",
+                    table.name, purged, e.getMessage());
+        } finally {
+            table.duration.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private static final class Table {
+
+        private final String name;
+        private final Counter purged;
+        private final Timer duration;
+
+        private Table(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.purged = Counter.builder("auth.cleanup.purged")
+                    .description("Linhas expiradas removidas pela limpeza agendada")
+                    .tag("table", name)
+                    .register(meterRegistry);
+            this.duration = Timer.builder("auth.cleanup.duration")
+                    .description("Duração de um ciclo de limpeza (todos os lotes de uma tabela)")
+                    .tag("table", name)
+                    .register(meterRegistry);
+        }
+    }
+}
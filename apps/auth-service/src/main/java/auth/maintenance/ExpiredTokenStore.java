@@ -0,0 +1,58 @@
+package auth.maintenance;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Remoção em lotes das linhas expiradas de 'oauth2_authorization' e 'password_reset_token'.
+ * <p>
+ * Cada chamada é um único DELETE em autocommit: os locks duram só o lote.
+ * O SKIP LOCKED faz duas instâncias dividirem o trabalho em vez de esperarem
+ * uma pela outra, e nunca bloqueia uma linha que o /oauth2/token esteja atualizando.
+ * <p>
+ * {@code id = ANY(ARRAY(...))} em vez de {@code id IN (...)}: o lote selecionado vira um array
+ * e o DELETE vai pela chave primária, sem o planejador optar por varrer a tabela inteira.
+ */
+@Component
+public class ExpiredTokenStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExpiredTokenStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Autorizações cujo último token (code, access, id, refresh, device) expirou antes de {@code cutoff}.
+     * A expressão é a mesma do índice idx_oauth2_authorization_expires_at (V6).
+     * Autorizações sem nenhum token (consentimento abandonado) não têm expiração e ficam de fora.
+     */
+    public int deleteExpiredAuthorizations(Instant cutoff, int limit) {
+        return jdbcTemplate.update("""
+                DELETE FROM oauth2_authorization
+                WHERE id = ANY(ARRAY(
+                    SELECT id FROM oauth2_authorization
+                    WHERE GREATEST(authorization_code_expires_at, access_token_expires_at, oidc_id_token_expires_at,
+                                   refresh_token_expires_at, user_code_expires_at, device_code_expires_at) < ?
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                ))
+                """, Timestamp.from(cutoff), limit);
+    }
+
+    public int deleteExpiredPasswordResetTokens(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.update("""
+                DELETE FROM password_reset_token
+                WHERE id = ANY(ARRAY(
+                    SELECT id FROM password_reset_token
+                    WHERE expiry_date < ?
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                ))
+                """, Timestamp.valueOf(cutoff), limit);
+    }
+}
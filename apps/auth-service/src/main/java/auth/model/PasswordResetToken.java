@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+// Mesmo índice da V8: a limpeza de expirados busca por expiry_date
+@Table(indexes = @Index(name = "idx_password_reset_token_expiry_date", columnList = "expiryDate"))
 @Getter
 @NoArgsConstructor
 @ToString(onlyExplicitlyIncluded = true)
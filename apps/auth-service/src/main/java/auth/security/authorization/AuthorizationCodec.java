@@ -0,0 +1,201 @@
+package auth.security.authorization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Formato de {@link OAuth2Authorization} para o Redis: um JSON com os campos da autorização
+ * escritos um a um, no mesmo desenho das colunas da tabela oauth2_authorization.
+ * <p>
+ * Atributos e metadata dos tokens (mapas com objetos do Spring Security, como o Principal e o
+ * OAuth2AuthorizationRequest) vão como o JDBC os grava: JSON do {@link AuthorizationObjectMapper}.
+ * Nada depende de serialVersionUID, então um upgrade do Spring lê o que a versão anterior gravou,
+ * como acontece com a tabela.
+ */
+public final class AuthorizationCodec {
+
+    // Versão do formato; qualquer outra é recusada
+    private static final int VERSION = 1;
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    // Tipo gravado → classe do token, na ordem em que são escritos
+    private static final Map<String, Class<? extends OAuth2Token>> TOKENS = new LinkedHashMap<>();
+
+    static {
+        TOKENS.put(OAuth2ParameterNames.CODE, OAuth2AuthorizationCode.class);
+        TOKENS.put(OAuth2ParameterNames.ACCESS_TOKEN, OAuth2AccessToken.class);
+        TOKENS.put(OAuth2ParameterNames.REFRESH_TOKEN, OAuth2RefreshToken.class);
+        TOKENS.put(OidcParameterNames.ID_TOKEN, OidcIdToken.class);
+        TOKENS.put(OAuth2ParameterNames.USER_CODE, OAuth2UserCode.class);
+        TOKENS.put(OAuth2ParameterNames.DEVICE_CODE, OAuth2DeviceCode.class);
+    }
+
+    // Envelope sem default typing; os mapas passam pelo objectMapper
+    private final ObjectMapper envelope = new ObjectMapper();
+    private final ObjectMapper objectMapper;
+
+    public AuthorizationCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public byte[] encode(OAuth2Authorization authorization) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+        try (JsonGenerator json = envelope.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("v", VERSION);
+            json.writeStringField("id", authorization.getId());
+            json.writeStringField("registeredClientId", authorization.getRegisteredClientId());
+            json.writeStringField("principalName", authorization.getPrincipalName());
+            json.writeStringField("grantType", authorization.getAuthorizationGrantType().getValue());
+            writeStrings(json, "scopes", authorization.getAuthorizedScopes());
+            json.writeStringField("attributes", objectMapper.writeValueAsString(authorization.getAttributes()));
+
+            json.writeArrayFieldStart("tokens");
+            for (Map.Entry<String, Class<? extends OAuth2Token>> tipo : TOKENS.entrySet()) {
+                OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tipo.getValue());
+                if (token != null) {
+                    writeToken(json, tipo.getKey(), token);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao serializar autorização " + authorization.getId(), e);
+        }
+        return out.toByteArray();
+    }
+
+    public OAuth2Authorization decode(byte[] data) {
+        try {
+            JsonNode json = envelope.readTree(data);
+            if (json == null || json.path("v").asInt() != VERSION) {
+                throw new IllegalStateException("Autorização com formato não aceito: versão "
+                        + (json == null ? null : json.get("v")));
+            }
+            OAuth2Authorization.Builder builder = new ClientIdBuilder(text(json, "registeredClientId"))
+                    .id(text(json, "id"))
+                    .principalName(text(json, "principalName"))
+                    .authorizationGrantType(new AuthorizationGrantType(text(json, "grantType")))
+                    .authorizedScopes(strings(json.path("scopes")));
+            Map<String, Object> attributes = objectMapper.readValue(text(json, "attributes"), MAP);
+            builder.attributes(atributos -> atributos.putAll(attributes));
+
+            for (JsonNode token : json.path("tokens")) {
+                Map<String, Object> metadata = objectMapper.readValue(text(token, "metadata"), MAP);
+                builder.token(token(token, metadata), valores -> valores.putAll(metadata));
+            }
+            return builder.build();
+        } catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+            // Inclui a classe fora da allowlist dos SecurityJackson2Modules
+            throw new IllegalStateException("Autorização com formato não aceito: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeToken(JsonGenerator json, String tipo, OAuth2Authorization.Token<? extends OAuth2Token> token)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", tipo);
+        json.writeStringField("value", token.getToken().getTokenValue());
+        writeInstant(json, "issuedAt", token.getToken().getIssuedAt());
+        writeInstant(json, "expiresAt", token.getToken().getExpiresAt());
+        json.writeStringField("metadata", objectMapper.writeValueAsString(token.getMetadata()));
+        if (token.getToken() instanceof OAuth2AccessToken accessToken) {
+            json.writeStringField("tokenType", accessToken.getTokenType().getValue());
+            writeStrings(json, "scopes", accessToken.getScopes());
+        }
+        json.writeEndObject();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static OAuth2Token token(JsonNode json, Map<String, Object> metadata) {
+        String valor = text(json, "value");
+        Instant issuedAt = instant(json, "issuedAt");
+        Instant expiresAt = instant(json, "expiresAt");
+        String tipo = text(json, "type");
+        return switch (tipo) {
+            case OAuth2ParameterNames.CODE -> new OAuth2AuthorizationCode(valor, issuedAt, expiresAt);
+            case OAuth2ParameterNames.ACCESS_TOKEN -> new OAuth2AccessToken(tokenType(text(json, "tokenType")),
+                    valor, issuedAt, expiresAt, strings(json.path("scopes")));
+            case OAuth2ParameterNames.REFRESH_TOKEN -> new OAuth2RefreshToken(valor, issuedAt, expiresAt);
+            // Como no JDBC: as claims do ID token ficam na metadata
+            case OidcParameterNames.ID_TOKEN -> new OidcIdToken(valor, issuedAt, expiresAt,
+                    (Map<String, Object>) metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME));
+            case OAuth2ParameterNames.USER_CODE -> new OAuth2UserCode(valor, issuedAt, expiresAt);
+            case OAuth2ParameterNames.DEVICE_CODE -> new OAuth2DeviceCode(valor, issuedAt, expiresAt);
+            default -> throw new IllegalStateException("Autorização com formato não aceito: token " + tipo);
+        };
+    }
+
+    private static OAuth2AccessToken.TokenType tokenType(String valor) {
+        if (OAuth2AccessToken.TokenType.BEARER.getValue().equalsIgnoreCase(valor)) {
+            return OAuth2AccessToken.TokenType.BEARER;
+        }
+        throw new IllegalStateException("Autorização com formato não aceito: access token " + valor);
+    }
+
+    private static void writeStrings(JsonGenerator json, String campo, Collection<String> valores) throws IOException {
+        json.writeArrayFieldStart(campo);
+        for (String valor : valores) {
+            json.writeString(valor);
+        }
+        json.writeEndArray();
+    }
+
+    private static void writeInstant(JsonGenerator json, String campo, Instant valor) throws IOException {
+        if (valor != null) {
+            json.writeStringField(campo, valor.toString());
+        }
+    }
+
+    private static String text(JsonNode json, String campo) {
+        JsonNode valor = json.get(campo);
+        if (valor == null || !valor.isTextual()) {
+            throw new IllegalStateException("Autorização com formato não aceito: sem " + campo);
+        }
+        return valor.asText();
+    }
+
+    private static Instant instant(JsonNode json, String campo) {
+        JsonNode valor = json.get(campo);
+        return valor == null ? null : Instant.parse(valor.asText());
+    }
+
+    private static Set<String> strings(JsonNode valores) {
+        Set<String> resultado = new HashSet<>();
+        valores.forEach(valor -> resultado.add(valor.asText()));
+        return resultado;
+    }
+
+    // O Builder só é público a partir de um RegisteredClient; para ler basta o id dele
+    private static final class ClientIdBuilder extends OAuth2Authorization.Builder {
+
+        private ClientIdBuilder(String registeredClientId) {
+            super(registeredClientId);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package auth.security.authorization;
+
+import auth.security.user.UserDetailsImpl;
+import auth.security.user.UserDetailsImplMixin;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+
+/**
+ * ObjectMapper dos atributos e da metadata dos tokens de uma autorização, o mesmo no JDBC
+ * (colunas attributes e *_metadata) e no Redis ({@link AuthorizationCodec}).
+ * <p>
+ * Os SecurityJackson2Modules ligam o default typing com allowlist: a leitura só instancia as
+ * classes que os módulos conhecem, mais o {@link UserDetailsImpl} pelo mixin.
+ */
+public final class AuthorizationObjectMapper {
+
+    private AuthorizationObjectMapper() {}
+
+    public static ObjectMapper create() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(JdbcOAuth2AuthorizationService.class.getClassLoader()));
+        objectMapper.addMixIn(UserDetailsImpl.class, UserDetailsImplMixin.class);
+        return objectMapper;
+    }
+}
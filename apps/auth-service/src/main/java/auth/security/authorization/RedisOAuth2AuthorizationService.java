@@ -0,0 +1,263 @@
+package auth.security.authorization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OAuth2AuthorizationService no Redis, para o caminho quente do /oauth2/token.
+ * <p>
+ * Chaves:
+ * <ul>
+ *     <li>{@code oauth2:authorization:<id>}: a autorização serializada ({@link AuthorizationCodec})</li>
+ *     <li>{@code oauth2:token:<tipo>:<sha256(token)>}: índice token → id da autorização</li>
+ * </ul>
+ * Cada índice expira junto com o seu token e a autorização com o token que vive mais
+ * (normalmente o refresh token): não há limpeza periódica, o próprio Redis descarta.
+ * O valor do token nunca aparece em nome de chave, só o hash. O save grava autorização e índices
+ * numa transação (WATCH/MULTI/EXEC), refeita se outro save da mesma autorização passar na frente.
+ */
+public class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisOAuth2AuthorizationService.class);
+
+    private static final String AUTHORIZATION_KEY = "oauth2:authorization:";
+    private static final String TOKEN_KEY = "oauth2:token:";
+
+    private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+    private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+    private static final OAuth2TokenType ID_TOKEN = new OAuth2TokenType(OidcParameterNames.ID_TOKEN);
+
+    private static final List<OAuth2TokenType> TOKEN_TYPES = List.of(
+            OAuth2TokenType.REFRESH_TOKEN, OAuth2TokenType.ACCESS_TOKEN, CODE, STATE, ID_TOKEN);
+
+    // Saves concorrentes da mesma autorização (WATCH) antes de desistir
+    private static final int MAX_ATTEMPTS = 5;
+
+    // Mínimo para não gravar chave já expirada (Redis rejeita TTL <= 0)
+    private static final Duration MIN_TTL = Duration.ofSeconds(1);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final AuthorizationCodec codec;
+    private final Duration defaultTtl;
+    private final Clock clock;
+
+    /**
+     * @param defaultTtl validade do que não tem expiração própria
+     *                   (autorização ainda no "state", antes de emitir o code)
+     */
+    public RedisOAuth2AuthorizationService(RedisTemplate<String, byte[]> redisTemplate, AuthorizationCodec codec,
+                                           Duration defaultTtl, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+        this.defaultTtl = defaultTtl;
+        this.clock = clock;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+
+        String key = AUTHORIZATION_KEY + authorization.getId();
+        byte[] payload = codec.encode(authorization);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (tryWrite(key, authorization, payload)) {
+                return;
+            }
+            log.debug("Autorização {} regravada por outra requisição durante o save, tentativa {}", authorization.getId(), attempt);
+        }
+        throw new IllegalStateException("Conflito ao gravar a autorização " + authorization.getId());
+    }
+
+    /**
+     * Um save em WATCH/MULTI/EXEC: lê a versão anterior (para apagar o índice dos tokens rotacionados,
+     * ex.: refresh com reuseRefreshTokens=false) e grava autorização e índices de uma vez. Se outro save
+     * da mesma autorização entrou entre a leitura e o EXEC, nada é gravado e retorna false: sem isso os
+     * dois apagariam o índice calculado da mesma versão antiga e um token rotacionado ficaria indexado.
+     */
+    private boolean tryWrite(String key, OAuth2Authorization authorization, byte[] payload) {
+        Instant now = clock.instant();
+        Map<String, Duration> index = indexKeys(authorization, now);
+        Duration ttl = authorizationTtl(authorization, now);
+        byte[] id = authorization.getId().getBytes(StandardCharsets.UTF_8);
+
+        List<Object> result = redisTemplate.execute(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                ops.watch(key);
+                OAuth2Authorization previous = decodeOrNull(ops.opsForValue().get(key));
+                List<String> stale = previous == null ? List.of() : indexKeys(previous, now).keySet().stream()
+                        .filter(k -> !index.containsKey(k))
+                        .toList();
+
+                ops.multi();
+                ops.opsForValue().set(key, payload, ttl);
+                index.forEach((k, keyTtl) -> ops.opsForValue().set(k, id, keyTtl));
+                if (!stale.isEmpty()) {
+                    ops.delete(stale);
+                }
+                return ops.exec();
+            }
+        });
+        // EXEC abortado pelo WATCH não devolve resposta nenhuma; o gravado sempre devolve a do SET
+        return result != null && !result.isEmpty();
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+
+        List<String> keys = new ArrayList<>(indexKeys(authorization, clock.instant()).keySet());
+        keys.add(AUTHORIZATION_KEY + authorization.getId());
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+
+        byte[] payload = redisTemplate.opsForValue().get(AUTHORIZATION_KEY + id);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return codec.decode(payload);
+        } catch (IllegalStateException e) {
+            // Formato incompatível: a autorização é descartada e o usuário refaz o login
+            log.warn("Descartando autorização {} ilegível no Redis: {}", id, e.getMessage());
+            redisTemplate.delete(AUTHORIZATION_KEY + id);
+            return null;
+        }
+    }
+
+    // No save a versão anterior ilegível só não tem índice a limpar: o SET por cima a substitui
+    private OAuth2Authorization decodeOrNull(byte[] payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return codec.decode(payload);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+
+        String hash = hash(token);
+        for (OAuth2TokenType type : tokenType == null ? TOKEN_TYPES : List.of(tokenType)) {
+            byte[] id = redisTemplate.opsForValue().get(TOKEN_KEY + type.getValue() + ":" + hash);
+            if (id == null) {
+                continue;
+            }
+            OAuth2Authorization authorization = findById(new String(id, StandardCharsets.UTF_8));
+            // O índice é só um atalho: confirma que o token ainda é o atual da autorização
+            if (authorization != null && hasToken(authorization, token, type)) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Duration> indexKeys(OAuth2Authorization authorization, Instant now) {
+        Map<String, Duration> keys = new HashMap<>();
+
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            keys.put(TOKEN_KEY + STATE.getValue() + ":" + hash(state), defaultTtl);
+        }
+        addTokenKey(keys, CODE, authorization.getToken(OAuth2AuthorizationCode.class), now);
+        addTokenKey(keys, OAuth2TokenType.ACCESS_TOKEN, authorization.getToken(OAuth2AccessToken.class), now);
+        addTokenKey(keys, OAuth2TokenType.REFRESH_TOKEN, authorization.getToken(OAuth2RefreshToken.class), now);
+        addTokenKey(keys, ID_TOKEN, authorization.getToken(OidcIdToken.class), now);
+        return keys;
+    }
+
+    private void addTokenKey(Map<String, Duration> keys, OAuth2TokenType type,
+                             OAuth2Authorization.Token<? extends OAuth2Token> token, Instant now) {
+        if (token != null) {
+            keys.put(TOKEN_KEY + type.getValue() + ":" + hash(token.getToken().getTokenValue()),
+                    ttlUntil(token.getToken().getExpiresAt(), now));
+        }
+    }
+
+    /**
+     * A autorização vive enquanto o token mais longo dela viver.
+     */
+    private Duration authorizationTtl(OAuth2Authorization authorization, Instant now) {
+        Instant latest = null;
+        for (Class<? extends OAuth2Token> tokenClass : List.of(OAuth2AuthorizationCode.class,
+                OAuth2AccessToken.class, OAuth2RefreshToken.class, OidcIdToken.class)) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+            Instant expiresAt = token != null ? token.getToken().getExpiresAt() : null;
+            if (expiresAt != null && (latest == null || expiresAt.isAfter(latest))) {
+                latest = expiresAt;
+            }
+        }
+        return ttlUntil(latest, now);
+    }
+
+    private Duration ttlUntil(Instant expiresAt, Instant now) {
+        if (expiresAt == null) {
+            return defaultTtl;
+        }
+        Duration ttl = Duration.between(now, expiresAt);
+        return ttl.compareTo(MIN_TTL) < 0 ? MIN_TTL : ttl;
+    }
+
+    private static boolean hasToken(OAuth2Authorization authorization, String token, OAuth2TokenType type) {
+        if (STATE.equals(type)) {
+            return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+        }
+        OAuth2Authorization.Token<?> found = authorization.getToken(token);
+        if (found == null) {
+            return false;
+        }
+        Class<?> tokenClass = found.getToken().getClass();
+        return switch (type.getValue()) {
+            case OAuth2ParameterNames.CODE -> OAuth2AuthorizationCode.class.isAssignableFrom(tokenClass);
+            case OAuth2ParameterNames.ACCESS_TOKEN -> OAuth2AccessToken.class.isAssignableFrom(tokenClass);
+            case OAuth2ParameterNames.REFRESH_TOKEN -> OAuth2RefreshToken.class.isAssignableFrom(tokenClass);
+            case OidcParameterNames.ID_TOKEN -> OidcIdToken.class.isAssignableFrom(tokenClass);
+            default -> false;
+        };
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
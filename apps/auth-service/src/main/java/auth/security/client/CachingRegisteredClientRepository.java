@@ -0,0 +1,89 @@
+package auth.security.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Cache local (Caffeine) na frente de outro {@link RegisteredClientRepository}.
+ * <p>
+ * Todo /oauth2/token resolve o cliente por id ou client_id; no JDBC isso é uma query
+ * mais o parse do JSON de client_settings e token_settings. Clientes quase nunca mudam
+ * e {@link RegisteredClient} é imutável, então a mesma instância pode ser compartilhada.
+ * Clientes inexistentes não são cacheados.
+ * <p>
+ * {@link #save} limpa o cache inteiro (são poucos clientes e o client_id pode ter mudado).
+ * Alterações feitas direto no banco ou por outra instância valem quando o TTL vencer,
+ * ou na hora com {@link #evictAll()}.
+ */
+public class CachingRegisteredClientRepository implements RegisteredClientRepository {
+
+    private final RegisteredClientRepository delegate;
+    private final Cache<String, RegisteredClient> byId;
+    private final Cache<String, RegisteredClient> byClientId;
+
+    public CachingRegisteredClientRepository(RegisteredClientRepository delegate,
+                                             MeterRegistry meterRegistry,
+                                             long maxSize,
+                                             Duration ttl) {
+        this.delegate = delegate;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byClientId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "oauth2_clients_by_id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byClientId, "oauth2_clients_by_client_id");
+    }
+
+    @Override
+    public void save(RegisteredClient registeredClient) {
+        delegate.save(registeredClient);
+        evictAll();
+    }
+
+    @Override
+    public RegisteredClient findById(String id) {
+        // Loader retornando null não grava nada no cache
+        return byId.get(id, delegate::findById);
+    }
+
+    @Override
+    public RegisteredClient findByClientId(String clientId) {
+        return byClientId.get(clientId, delegate::findByClientId);
+    }
+
+    /**
+     * Esvazia o cache agora e, se houver transação, de novo depois do commit
+     * (descarta o que uma leitura concorrente tenha recarregado com os dados antigos).
+     */
+    public void evictAll() {
+        invalidate();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate();
+                }
+            });
+        }
+    }
+
+    private void invalidate() {
+        byId.invalidateAll();
+        byClientId.invalidateAll();
+    }
+}
@@ -0,0 +1,73 @@
+package auth.security.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.exception.ServiceOverloadedException;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Converte {@link ServiceOverloadedException} em 503 + Retry-After fora dos controllers.
+ * <p>
+ * O POST /login é tratado pelos filtros do Spring Security, antes de qualquer controller,
+ * então o GlobalExceptionHandler nunca vê a recusa do pool de hash. Sem este filtro ela
+ * chegaria ao container como 500.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceOverloadedFilter implements Filter {
+
+    private final ObjectMapper objectMapper;
+
+    public ServiceOverloadedFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        try {
+            chain.doFilter(request, response);
+        } catch (RuntimeException | ServletException e) {
+            ServiceOverloadedException overloaded = findOverload(e);
+            if (overloaded == null || response.isCommitted()) {
+                throw e;
+            }
+
+            // Mesmo title/type do GlobalExceptionHandler para ServiceOverloadedException
+            ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                    overloaded.getMessage());
+            problem.setTitle("Serviço Sobrecarregado");
+            problem.setType(URI.create("https://petshop.com/errors/service-overloaded"));
+            problem.setInstance(URI.create(((HttpServletRequest) request).getRequestURI()));
+
+            HttpServletResponse res = (HttpServletResponse) response;
+            res.resetBuffer();
+            res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            res.setHeader(HttpHeaders.RETRY_AFTER, overloaded.retryAfterHeader());
+            res.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            res.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(res.getOutputStream(), problem);
+        }
+    }
+
+    // O Spring Security pode embrulhar a exceção (ex.: InternalAuthenticationServiceException)
+    private static ServiceOverloadedException findOverload(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ServiceOverloadedException overloaded) {
+                return overloaded;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package auth.security.handler;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.web.authentication.OAuth2AccessTokenResponseAuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Resposta de sucesso do /oauth2/token: o refresh_token vai num cookie HttpOnly e sai do JSON.
+ * <p>
+ * Registrado como accessTokenResponseHandler do token endpoint. O token é lido direto da
+ * autenticação e o corpo é escrito uma única vez pelo handler padrão do Authorization Server
+ * (conversor compartilhado), sem bufferizar, reler e reserializar a resposta.
+ */
+@Component
+public class RefreshTokenCookieResponseHandler implements AuthenticationSuccessHandler {
+
+    // Fallback caso o refresh token não traga expiração (o cliente padrão usa 1 dia)
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofDays(1);
+
+    private final OAuth2AccessTokenResponseAuthenticationSuccessHandler delegate =
+            new OAuth2AccessTokenResponseAuthenticationSuccessHandler();
+
+    @Value("${auth.cookie.secure}")
+    private boolean isCookieSecure;
+
+    @Value("${auth.cookie.same-site}")
+    private String cookieSameSite;
+
+    public RefreshTokenCookieResponseHandler() {
+        // refreshToken(null) = o campo não é escrito no JSON
+        delegate.setAccessTokenResponseCustomizer(context -> context.getAccessTokenResponse().refreshToken(null));
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException, ServletException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, max-age=0");
+        response.setHeader(HttpHeaders.PRAGMA, "no-cache");
+
+        OAuth2RefreshToken refreshToken = ((OAuth2AccessTokenAuthenticationToken) authentication).getRefreshToken();
+        if (refreshToken != null) {
+            ResponseCookie cookie = ResponseCookie.from("refresh_token", refreshToken.getTokenValue())
+                    .httpOnly(true)
+                    .secure(isCookieSecure)
+                    .sameSite(cookieSameSite)
+                    .path("/oauth2/token")
+                    .maxAge(maxAge(refreshToken))
+                    .build();
+
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+
+        delegate.onAuthenticationSuccess(request, response, authentication);
+    }
+
+    private static Duration maxAge(OAuth2RefreshToken refreshToken) {
+        Instant expiresAt = refreshToken.getExpiresAt();
+        if (expiresAt == null) {
+            return DEFAULT_MAX_AGE;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
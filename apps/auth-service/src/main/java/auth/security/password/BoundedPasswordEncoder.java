@@ -0,0 +1,162 @@
+package auth.security.password;
+
+import common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder que executa o hash num pool dedicado e limitado.
+ * <p>
+ * Hash de senha é CPU pura (~250ms no BCrypt 12). Com virtual threads, uma rajada de logins
+ * colocaria centenas de hashes disputando todos os núcleos ao mesmo tempo e o serviço inteiro
+ * (inclusive /oauth2/token e health check) ficaria lento. Aqui no máximo {@code threads} hashes rodam
+ * em paralelo, até {@code queueCapacity} esperam na fila e o resto é recusado na hora com
+ * {@link ServiceOverloadedException} (503 + Retry-After), em vez de derreter o serviço.
+ * <p>
+ * Quem chama só espera o resultado (barato numa virtual thread); o trabalho pesado fica no pool.
+ * <p>
+ * A vaga ({@code threads + queueCapacity} no total) só é devolvida quando o hash termina de fato.
+ * BCrypt e Argon2 ignoram interrupção: cancelar a tarefa quando quem chamou desiste não para a CPU,
+ * então um hash abandonado continua contando até acabar. Se ainda estava na fila, ele nem é calculado.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final Duration maxWait;
+    private final Duration retryAfter;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  Duration maxWait, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.retryAfter = retryAfter;
+
+        // O limite é o semáforo; a fila em si não precisa de capacidade própria
+        this.permits = new Semaphore(threads + queueCapacity);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .description("Tempo de CPU de cada hash de senha")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .description("Tempo de CPU de cada hash de senha")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Tempo na fila do pool de hash até começar a executar")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Hashes recusados por pool cheio ou espera excessiva (503)")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hashes aguardando na fila do pool")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes executando agora")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Só inspeciona o prefixo/custo do hash, não precisa do pool
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> hash, Timer timer) {
+        if (!permits.tryAcquire()) {
+            throw overloaded("Fila de verificação de senha cheia");
+        }
+        long enqueuedAt = System.nanoTime();
+        AtomicBoolean abandoned = new AtomicBoolean();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    if (abandoned.get()) {
+                        // Quem pediu já recebeu 503: não gasta CPU com um hash que ninguém vai ler
+                        return null;
+                    }
+                    queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                    return timer.recordCallable(hash);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Só acontece depois do destroy(): a tarefa não vai rodar para devolver a vaga
+            permits.release();
+            throw overloaded("Pool de hash de senha encerrado");
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Sem cancel: a vaga volta no finally da tarefa, quando o hash realmente terminar
+            abandoned.set(true);
+            throw overloaded("Verificação de senha excedeu " + maxWait.toMillis() + "ms");
+        } catch (InterruptedException e) {
+            abandoned.set(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando hash de senha", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Erro ao calcular hash de senha", e.getCause());
+        }
+    }
+
+    private ServiceOverloadedException overloaded(String message) {
+        rejected.increment();
+        return new ServiceOverloadedException(message, retryAfter);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
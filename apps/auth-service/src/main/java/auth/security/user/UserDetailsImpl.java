@@ -41,6 +41,14 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    public UserDetailsImpl(UsuarioSnapshot usuario, Collection<? extends GrantedAuthority> authorities) {
+        this.id = usuario.id();
+        this.nome = usuario.nome();
+        this.email = usuario.email();
+        this.senha = usuario.senha();
+        this.authorities = authorities;
+    }
+
     @Override
     public String getPassword() {
         return senha;
@@ -1,33 +1,33 @@
 package auth.security.user;
 
-import auth.model.Usuario;
 import auth.repository.UsuarioRepository;
 import org.jspecify.annotations.NonNull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * Implementação do UserDetailsService para carregar os detalhes do usuário durante a autenticação.
  * Carrega o usuário pelo e-mail e atribui as autoridades (roles) correspondentes.
+ * A leitura passa pelo {@link UsuarioCache}: em regime, o login não consulta o banco.
+ * Também regrava a senha no login quando o hash guardado está desatualizado (algoritmo ou custo).
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UsuarioCache usuarioCache;
     private final UsuarioRepository usuarioRepository;
 
-    private final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
-
-    public UserDetailsServiceImpl(UsuarioRepository usuarioRepository) {
+    public UserDetailsServiceImpl(UsuarioCache usuarioCache, UsuarioRepository usuarioRepository) {
+        this.usuarioCache = usuarioCache;
         this.usuarioRepository = usuarioRepository;
     }
 
@@ -40,16 +40,10 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public @NonNull UserDetails loadUserByUsername(@NonNull String login) throws UsernameNotFoundException {
-        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(login);
-
-        if (usuarioOpt.isEmpty()) {
-            throw new UsernameNotFoundException("Usuário não encontrado com o login: " + login);
-        }
+        UsuarioSnapshot usuario = usuarioCache.findByEmail(login)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com o login: " + login));
 
-        Usuario usuario = usuarioOpt.get();
-        var authorities = getAuthorities(usuario);
-
-        return new UserDetailsImpl(usuario, authorities);
+        return new UserDetailsImpl(usuario, getAuthorities(usuario));
     }
 
     /**
@@ -58,16 +52,31 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @param usuario O usuário cujas autoridades serão atribuídas
      * @return As autoridades atribuídas ao usuário
      */
-    private Collection<? extends GrantedAuthority> getAuthorities(Usuario usuario) {
-        var authorities = usuario.getRoles().stream()
-                .map(role -> {
-                    logger.info("Atribuindo papel: {}", role.getNome());
-                    return new SimpleGrantedAuthority("ROLE_" + role.getNome());
-                })
+    private Collection<? extends GrantedAuthority> getAuthorities(UsuarioSnapshot usuario) {
+        return usuario.roles().stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                 .collect(Collectors.toList());
-
-        logger.debug("Authorities finais: {}", authorities);
-        return authorities;
     }
 
-}
\ No newline at end of file
+    /**
+     * Chamado pelo Spring Security após um login bem-sucedido cujo hash precisa de upgrade.
+     *
+     * @param user        O usuário autenticado
+     * @param newPassword A senha já codificada com o algoritmo/custo atual
+     * @return Os detalhes do usuário com o novo hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioRepository.findByEmail(user.getUsername()).ifPresent(usuario -> {
+            usuario.alterarSenha(newPassword);
+            usuarioCache.evict(usuario.getEmail());
+        });
+
+        if (user instanceof UserDetailsImpl details) {
+            details.setPassword(newPassword);
+            return details;
+        }
+        return loadUserByUsername(user.getUsername());
+    }
+}
@@ -0,0 +1,100 @@
+package auth.security.user;
+
+import auth.dto.message.UsuarioAlteradoMessage;
+import auth.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import common.outbox.OutboxPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache local (Caffeine) dos usuários por e-mail.
+ * <p>
+ * Login e /usuarios/me consultam o mesmo usuário o tempo todo; com o cache quente
+ * nenhum dos dois vai ao banco. Na falta, o carregamento é uma única query
+ * (usuário + roles via EntityGraph). E-mails inexistentes não são cacheados.
+ * <p>
+ * Cada instância do auth-service tem o seu cache. Quem altera senha, roles ou preferências chama
+ * {@link #evict(String)} na transação da alteração: a instância local descarta o usuário na hora e o
+ * evento {@link UsuarioAlteradoMessage}, gravado no outbox junto com a alteração, faz as outras
+ * descartarem assim que o relay o publica ({@link UsuarioCacheListener}). Sem isso uma senha trocada
+ * ou uma role removida continuaria valendo nas outras réplicas até o TTL.
+ */
+@Component
+public class UsuarioCache {
+
+    private final UsuarioRepository usuarioRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final Cache<String, UsuarioSnapshot> cache;
+
+    public UsuarioCache(UsuarioRepository usuarioRepository,
+                        OutboxPublisher outboxPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                        @Value("${auth.user-cache.ttl:PT10M}") Duration ttl) {
+        this.usuarioRepository = usuarioRepository;
+        this.outboxPublisher = outboxPublisher;
+        // O TTL é só uma rede de segurança (ex.: alteração feita direto no banco); a invalidação normal é explícita
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "usuarios");
+    }
+
+    public Optional<UsuarioSnapshot> findByEmail(String email) {
+        UsuarioSnapshot cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return usuarioRepository.findByEmail(email)
+                .map(UsuarioSnapshot::from)
+                .map(snapshot -> {
+                    cache.put(email, snapshot);
+                    return snapshot;
+                });
+    }
+
+    /**
+     * Remove o usuário do cache desta instância agora e de novo depois do commit, e avisa as outras
+     * pelo outbox. A segunda remoção descarta o que uma leitura concorrente possa ter recarregado
+     * do banco antes do commit (ainda com os dados antigos).
+     * <p>
+     * Exige transação (o outbox grava junto com a alteração): rollback não avisa ninguém.
+     */
+    public void evict(String email) {
+        cache.invalidate(email);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(email);
+            }
+        });
+        outboxPublisher.publish(new UsuarioAlteradoMessage(1, UUID.randomUUID().toString(), email));
+    }
+
+    /**
+     * Remove o usuário só deste cache: evento de outra instância (ou o próprio, de volta do broker).
+     */
+    public void invalidarLocal(String email) {
+        cache.invalidate(email);
+    }
+
+    /**
+     * Esvazia este cache: eventos publicados enquanto a fila da instância não existia se perderam.
+     */
+    public void invalidarTudo() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,45 @@
+package auth.security.user;
+
+import auth.dto.message.UsuarioAlteradoMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida o {@link UsuarioCache} desta instância com os eventos de usuário alterado de todas.
+ * <p>
+ * A fila é exclusiva da instância e some quando a conexão cai: o que foi publicado nesse meio-tempo
+ * não chega. Por isso, a cada (re)início do consumidor, o cache inteiro é descartado.
+ */
+@Component
+public class UsuarioCacheListener {
+
+    static final String LISTENER_ID = "usuarioCache";
+
+    private static final Logger log = LoggerFactory.getLogger(UsuarioCacheListener.class);
+
+    private final UsuarioCache usuarioCache;
+    private final RabbitListenerEndpointRegistry registry;
+
+    public UsuarioCacheListener(UsuarioCache usuarioCache, RabbitListenerEndpointRegistry registry) {
+        this.usuarioCache = usuarioCache;
+        this.registry = registry;
+    }
+
+    @RabbitListener(id = LISTENER_ID, queues = "#{usuarioCacheQueue.name}")
+    public void usuarioAlterado(UsuarioAlteradoMessage message) {
+        usuarioCache.invalidarLocal(message.getEmail());
+    }
+
+    @EventListener
+    public void consumidorIniciado(AsyncConsumerStartedEvent event) {
+        if (event.getSource() == registry.getListenerContainer(LISTENER_ID)) {
+            log.info("Consumidor de usuários alterados (re)iniciado: descartando o cache de usuários");
+            usuarioCache.invalidarTudo();
+        }
+    }
+}
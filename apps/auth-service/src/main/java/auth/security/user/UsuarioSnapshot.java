@@ -0,0 +1,33 @@
+package auth.security.user;
+
+import auth.model.Role;
+import auth.model.Theme;
+import auth.model.Usuario;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cópia imutável do que a autenticação e o /usuarios/me precisam do usuário.
+ * É o que fica no cache: nunca a entidade, que é presa a uma sessão do Hibernate.
+ */
+public record UsuarioSnapshot(
+        Long id,
+        String nome,
+        String email,
+        String senha,
+        Theme theme,
+        Set<String> roles
+) {
+
+    public static UsuarioSnapshot from(Usuario usuario) {
+        return new UsuarioSnapshot(
+                usuario.getId(),
+                usuario.getNome(),
+                usuario.getEmail(),
+                usuario.getSenha(),
+                usuario.getTheme(),
+                usuario.getRoles().stream().map(Role::getNome).collect(Collectors.toUnmodifiableSet())
+        );
+    }
+}
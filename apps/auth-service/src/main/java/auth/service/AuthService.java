@@ -2,15 +2,15 @@ package auth.service;
 
 import auth.dto.request.*;
 import auth.dto.message.PasswordResetMessage;
-import auth.config.RabbitMQConfig;
 import auth.model.Usuario;
 import auth.model.PasswordResetToken;
 import auth.repository.UsuarioRepository;
+import auth.security.user.UsuarioCache;
 import common.exception.BusinessException;
 import common.exception.ResourceNotFoundException;
+import common.outbox.OutboxPublisher;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -24,19 +24,22 @@ public class AuthService {
 
     private final UsuarioRepository usuarioRepository;
     private final auth.repository.PasswordResetTokenRepository tokenRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxPublisher outboxPublisher;
     private final auth.repository.RoleRepository roleRepository;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final UsuarioCache usuarioCache;
 
     public AuthService(UsuarioRepository usuarioRepository, auth.repository.PasswordResetTokenRepository tokenRepository,
-                       RabbitTemplate rabbitTemplate,
+                       OutboxPublisher outboxPublisher,
                        auth.repository.RoleRepository roleRepository,
-                       org.springframework.security.crypto.password.PasswordEncoder passwordEncoder) {
+                       org.springframework.security.crypto.password.PasswordEncoder passwordEncoder,
+                       UsuarioCache usuarioCache) {
         this.usuarioRepository = usuarioRepository;
         this.tokenRepository = tokenRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxPublisher = outboxPublisher;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.usuarioCache = usuarioCache;
     }
 
     /**
@@ -73,7 +76,8 @@ public class AuthService {
      *<p>
      * - Recebe um ForgotPasswordRequest contendo o email do usuário.
      * - Gera um token único e persiste como PasswordResetToken associado ao usuário.
-     * - Envia uma mensagem para RabbitMQ com os detalhes para envio de email.
+     * - Registra a mensagem de envio de email no outbox, na mesma transação do token.
+     *   A publicação no RabbitMQ é feita depois pelo relay, fora do caminho da requisição.
      *
      * @param request dados contendo o email do usuário
      */
@@ -101,13 +105,9 @@ public class AuthService {
                 usuario.getNome()
         );
 
-        rabbitTemplate.convertAndSend(
-                RabbitMQConfig.EXCHANGER_NAME,
-                RabbitMQConfig.ROUTING_KEY,
-                message
-        );
+        outboxPublisher.publish(message);
 
-        logger.info("🐇 Mensagem enviada para RabbitMQ: " + usuario.getEmail());
+        logger.info("📦 Reset de senha registrado no outbox: " + usuario.getEmail());
     }
 
     /**
@@ -138,6 +138,7 @@ public class AuthService {
 
         usuario.alterarSenha(passwordEncoder.encode(request.getNewPassword()));
         usuarioRepository.save(usuario);
+        usuarioCache.evict(usuario.getEmail());
 
         tokenRepository.delete(resetToken);
     }
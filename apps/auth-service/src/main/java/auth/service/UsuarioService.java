@@ -2,39 +2,35 @@ package auth.service;
 
 import auth.dto.request.UserSettingsRequest;
 import auth.dto.response.UserResponse;
-import auth.model.Role;
 import auth.model.Usuario;
 import auth.repository.UsuarioRepository;
+import auth.security.user.UsuarioCache;
+import auth.security.user.UsuarioSnapshot;
 import common.exception.ResourceNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.stream.Collectors;
-
 @Service
 public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
+    private final UsuarioCache usuarioCache;
 
-    public UsuarioService(UsuarioRepository usuarioRepository) {
+    public UsuarioService(UsuarioRepository usuarioRepository, UsuarioCache usuarioCache) {
         this.usuarioRepository = usuarioRepository;
+        this.usuarioCache = usuarioCache;
     }
 
-    @Transactional(readOnly = true)
     public UserResponse obterDadosUsuarioLogado(String email) {
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        UsuarioSnapshot usuario = usuarioCache.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuário não encontrado"));
 
-        var roles = usuario.getRoles().stream()
-                .map(Role::getNome)
-                .collect(Collectors.toSet());
-
         return new UserResponse(
-                usuario.getId(),
-                usuario.getNome(),
-                usuario.getEmail(),
-                roles,
-                usuario.getTheme().name()
+                usuario.id(),
+                usuario.nome(),
+                usuario.email(),
+                usuario.roles(),
+                usuario.theme().name()
         );
     }
 
@@ -50,6 +46,8 @@ public class UsuarioService {
                 throw new IllegalArgumentException("Tema não suportado: " + request.theme());
             }
         }
+
+        usuarioCache.evict(usuario.getEmail());
     }
 
 }
\ No newline at end of file
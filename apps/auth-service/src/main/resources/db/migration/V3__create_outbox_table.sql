@@ -0,0 +1,12 @@
+-- Outbox transacional (mesmo layout do inv-service, consumido pelo common.outbox)
+CREATE TABLE outbox (
+                        id BIGSERIAL PRIMARY KEY,
+                        exchange VARCHAR(255) NOT NULL,
+                        routing_key VARCHAR(255) NOT NULL,
+                        payload TEXT NOT NULL,
+                        event_type VARCHAR(255) NOT NULL,
+                        version INTEGER NOT NULL DEFAULT 1,
+                        created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_created_at ON outbox (created_at);
@@ -0,0 +1,6 @@
+-- Limpeza de autorizações expiradas (auth.maintenance.ExpiredTokenCleanupJob).
+-- Uma autorização só pode sair quando o último dos seus tokens expirou; GREATEST ignora NULLs.
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_expires_at ON oauth2_authorization ((
+    GREATEST(authorization_code_expires_at, access_token_expires_at, oidc_id_token_expires_at,
+             refresh_token_expires_at, user_code_expires_at, device_code_expires_at)
+));
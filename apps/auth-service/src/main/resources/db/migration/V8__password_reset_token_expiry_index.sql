@@ -0,0 +1,10 @@
+-- Limpeza de tokens de redefinição expirados (auth.maintenance.ExpiredTokenCleanupJob).
+-- A tabela é criada pelo Hibernate (ddl-auto=update), depois do Flyway: num banco novo ela ainda não
+-- existe aqui, e o índice sai junto com a tabela (@Index em PasswordResetToken, mesmo nome).
+DO $$
+BEGIN
+    IF to_regclass('password_reset_token') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_password_reset_token_expiry_date ON password_reset_token (expiry_date);
+    END IF;
+END
+$$;
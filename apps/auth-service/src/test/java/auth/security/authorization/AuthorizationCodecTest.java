@@ -0,0 +1,142 @@
+package auth.security.authorization;
+
+import auth.security.user.UserDetailsImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorizationCodecTest {
+
+    private final AuthorizationCodec codec = new AuthorizationCodec(AuthorizationObjectMapper.create());
+
+    @Test
+    @DisplayName("DEVE recuperar a autorização com todos os tipos de token e o usuário autenticado")
+    void deveRecuperarAutorizacaoComTodosOsTokens() {
+        // CENÁRIO
+        OAuth2Authorization original = autorizacaoCompleta().build();
+
+        // AÇÃO
+        OAuth2Authorization decodificada = codec.decode(codec.encode(original));
+
+        // VERIFICAÇÃO
+        assertEquals(original.getId(), decodificada.getId());
+        assertEquals(original.getRegisteredClientId(), decodificada.getRegisteredClientId());
+        assertEquals(original.getPrincipalName(), decodificada.getPrincipalName());
+        assertEquals(original.getAuthorizationGrantType(), decodificada.getAuthorizationGrantType());
+        assertEquals(original.getAuthorizedScopes(), decodificada.getAuthorizedScopes());
+        for (Class<? extends OAuth2Token> tipo : List.of(OAuth2AuthorizationCode.class, OAuth2AccessToken.class,
+                OAuth2RefreshToken.class, OidcIdToken.class)) {
+            assertEquals(original.getToken(tipo), decodificada.getToken(tipo), tipo.getSimpleName());
+        }
+        assertEquals(Set.of("produtos.read"), decodificada.getAccessToken().getToken().getScopes());
+        assertEquals("ana@petshop.com", decodificada.getToken(OidcIdToken.class).getToken().getSubject());
+        assertEquals("xyz", decodificada.getAttribute(OAuth2ParameterNames.STATE));
+
+        Authentication usuario = decodificada.getAttribute(Principal.class.getName());
+        assertInstanceOf(UserDetailsImpl.class, usuario.getPrincipal());
+        assertEquals("ana@petshop.com", usuario.getName());
+        assertEquals(List.of("ROLE_CLIENTE"), usuario.getAuthorities().stream().map(Object::toString).toList());
+    }
+
+    @Test
+    @DisplayName("DEVE gravar os campos da autorização em JSON, sem serialização Java")
+    void deveGravarCamposEmJson() {
+        // AÇÃO
+        String json = new String(codec.encode(autorizacaoCompleta().build()), StandardCharsets.UTF_8);
+
+        // VERIFICAÇÃO
+        assertTrue(json.startsWith("{\"v\":1,\"id\":\"autorizacao-1\",\"registeredClientId\":\"cliente-1\""), json);
+        assertTrue(json.contains("\"type\":\"refresh_token\",\"value\":\"refresh\""), json);
+    }
+
+    @Test
+    @DisplayName("DEVE recusar autorização de outra versão do formato")
+    void deveRecusarOutraVersao() {
+        // CENÁRIO
+        String json = new String(codec.encode(autorizacaoCompleta().build()), StandardCharsets.UTF_8)
+                .replace("{\"v\":1,", "{\"v\":2,");
+
+        // AÇÃO & VERIFICAÇÃO
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> codec.decode(json.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(ex.getMessage().startsWith("Autorização com formato não aceito"), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("DEVE recusar autorização com classe fora da allowlist")
+    void deveRecusarClasseForaDaAllowlist() {
+        // CENÁRIO: gravável pelo Jackson, mas não é do Spring Security nem do auth-service
+        byte[] payload = codec.encode(autorizacaoCompleta().attribute("extra", new Intruso("rm -rf")).build());
+
+        // AÇÃO & VERIFICAÇÃO
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> codec.decode(payload));
+        assertTrue(ex.getMessage().startsWith("Autorização com formato não aceito"), ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("DEVE recusar autorização truncada")
+    void deveRecusarPayloadTruncado() {
+        // CENÁRIO
+        byte[] payload = codec.encode(autorizacaoCompleta().build());
+        byte[] truncado = Arrays.copyOf(payload, payload.length / 2);
+
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(IllegalStateException.class, () -> codec.decode(truncado));
+    }
+
+    private static OAuth2Authorization.Builder autorizacaoCompleta() {
+        Instant agora = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        RegisteredClient cliente = RegisteredClient.withId("cliente-1")
+                .clientId("petshop-web")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("http://localhost:3000/callback")
+                .build();
+        // ArrayList, como o UserDetailsServiceImpl monta: é o que a allowlist do Jackson aceita
+        UserDetailsImpl ana = new UserDetailsImpl(1L, "Ana", "ana@petshop.com", "{bcrypt}x",
+                new ArrayList<>(List.of(new SimpleGrantedAuthority("ROLE_CLIENTE"))));
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+                .issuedAt(agora)
+                .expiresAt(agora.plusSeconds(300))
+                .subject("ana@petshop.com")
+                .build();
+
+        return OAuth2Authorization.withRegisteredClient(cliente)
+                .id("autorizacao-1")
+                .principalName("ana@petshop.com")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(Set.of("produtos.read", "openid"))
+                .attribute(OAuth2ParameterNames.STATE, "xyz")
+                .attribute(Principal.class.getName(),
+                        UsernamePasswordAuthenticationToken.authenticated(ana, null, ana.getAuthorities()))
+                .token(new OAuth2AuthorizationCode("code", agora, agora.plusSeconds(60)))
+                .accessToken(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access",
+                        agora, agora.plusSeconds(300), Set.of("produtos.read")))
+                .refreshToken(new OAuth2RefreshToken("refresh", agora, agora.plus(30, ChronoUnit.DAYS)))
+                .token(idToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()));
+    }
+
+    private record Intruso(String comando) {
+    }
+}
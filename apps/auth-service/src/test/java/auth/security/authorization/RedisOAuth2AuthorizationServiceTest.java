@@ -0,0 +1,184 @@
+package auth.security.authorization;
+
+import auth.config.AuthorizationStoreConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Autorizações num Redis real: índice por token, limpeza do índice na rotação e TTLs.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisOAuth2AuthorizationServiceTest {
+
+    private static final Instant AGORA = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, byte[]> redisTemplate;
+
+    private RedisOAuth2AuthorizationService service;
+
+    @BeforeAll
+    static void conectar() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new AuthorizationStoreConfig().authorizationRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void desconectar() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setup() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+        service = new RedisOAuth2AuthorizationService(redisTemplate, new AuthorizationCodec(AuthorizationObjectMapper.create()),
+                Duration.ofMinutes(10), Clock.fixed(AGORA, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("DEVE achar a autorização pelo token com e sem o tipo informado")
+    void deveAcharPeloTokenComESemTipo() {
+        // CENÁRIO
+        service.save(autorizacao("access-1", "refresh-1"));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("autorizacao-1", service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN).getId());
+        assertEquals("autorizacao-1", service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN).getId());
+        assertEquals("autorizacao-1", service.findByToken("access-1", null).getId());
+        assertEquals("autorizacao-1", service.findByToken("refresh-1", null).getId());
+        // Tipo errado não acha, nem token desconhecido
+        assertNull(service.findByToken("access-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertNull(service.findByToken("outro", null));
+    }
+
+    @Test
+    @DisplayName("DEVE apagar o índice do refresh token antigo ao rotacionar")
+    void deveApagarIndiceDoRefreshTokenRotacionado() {
+        // CENÁRIO
+        service.save(autorizacao("access-1", "refresh-1"));
+
+        // AÇÃO: refresh com reuseRefreshTokens=false
+        service.save(autorizacao("access-2", "refresh-2"));
+
+        // VERIFICAÇÃO
+        assertFalse(redisTemplate.hasKey(chaveDoToken(OAuth2TokenType.REFRESH_TOKEN, "refresh-1")));
+        assertFalse(redisTemplate.hasKey(chaveDoToken(OAuth2TokenType.ACCESS_TOKEN, "access-1")));
+        assertNull(service.findByToken("refresh-1", null));
+        assertEquals("autorizacao-1", service.findByToken("refresh-2", OAuth2TokenType.REFRESH_TOKEN).getId());
+    }
+
+    @Test
+    @DisplayName("DEVE expirar a autorização junto com o token que vive mais")
+    void deveExpirarComOTokenMaisLongo() {
+        // CENÁRIO: access token de 5 minutos e refresh token de 30 dias
+        service.save(autorizacao("access-1", "refresh-1"));
+
+        // AÇÃO
+        long autorizacao = redisTemplate.getExpire("oauth2:authorization:autorizacao-1");
+        long access = redisTemplate.getExpire(chaveDoToken(OAuth2TokenType.ACCESS_TOKEN, "access-1"));
+        long refresh = redisTemplate.getExpire(chaveDoToken(OAuth2TokenType.REFRESH_TOKEN, "refresh-1"));
+
+        // VERIFICAÇÃO (folga para o relógio real do Redis)
+        long trintaDias = Duration.ofDays(30).toSeconds();
+        assertTrue(autorizacao > trintaDias - 60 && autorizacao <= trintaDias, "TTL da autorização: " + autorizacao);
+        assertTrue(refresh > trintaDias - 60 && refresh <= trintaDias, "TTL do refresh token: " + refresh);
+        assertTrue(access > 240 && access <= 300, "TTL do access token: " + access);
+    }
+
+    @Test
+    @DisplayName("DEVE deixar só o índice do último refresh token com rotações concorrentes")
+    void deveManterSoOIndiceAtualComRotacoesConcorrentes() throws Exception {
+        service.save(autorizacao("access-0", "refresh-0"));
+
+        for (int rodada = 1; rodada <= 20; rodada++) {
+            // CENÁRIO: duas rotações da mesma autorização ao mesmo tempo
+            CountDownLatch largada = new CountDownLatch(1);
+            int r = rodada;
+            CompletableFuture<?> a = CompletableFuture.runAsync(() -> rotacionar(largada, "a" + r));
+            CompletableFuture<?> b = CompletableFuture.runAsync(() -> rotacionar(largada, "b" + r));
+
+            // AÇÃO
+            largada.countDown();
+            CompletableFuture.allOf(a, b).join();
+
+            // VERIFICAÇÃO: o índice que sobra é o do refresh token gravado por último
+            String atual = service.findById("autorizacao-1").getRefreshToken().getToken().getTokenValue();
+            assertEquals(Set.of(chaveDoToken(OAuth2TokenType.REFRESH_TOKEN, atual)),
+                    redisTemplate.keys("oauth2:token:refresh_token:*"), "rodada " + rodada);
+        }
+    }
+
+    private void rotacionar(CountDownLatch largada, String sufixo) {
+        try {
+            largada.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        service.save(autorizacao("access-" + sufixo, "refresh-" + sufixo));
+    }
+
+    private static OAuth2Authorization autorizacao(String accessToken, String refreshToken) {
+        RegisteredClient cliente = RegisteredClient.withId("cliente-1")
+                .clientId("petshop-web")
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .build();
+        return OAuth2Authorization.withRegisteredClient(cliente)
+                .id("autorizacao-1")
+                .principalName("ana@petshop.com")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .accessToken(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, accessToken,
+                        AGORA, AGORA.plusSeconds(300)))
+                .refreshToken(new OAuth2RefreshToken(refreshToken, AGORA, AGORA.plus(30, ChronoUnit.DAYS)))
+                .build();
+    }
+
+    // Mesmo formato de chave do serviço: tipo + sha256 do token em base64url
+    private static String chaveDoToken(OAuth2TokenType tipo, String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "oauth2:token:" + tipo.getValue() + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package auth.security.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.exception.ServiceOverloadedException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceOverloadedFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ServiceOverloadedFilter filter = new ServiceOverloadedFilter(objectMapper);
+
+    @Test
+    @DisplayName("DEVE responder 503 com Retry-After quando o login é recusado pelo pool de hash")
+    void deveResponder503QuandoLoginRecusado() throws Exception {
+        // CENÁRIO: o Spring Security embrulha a exceção do UserDetailsService/PasswordEncoder
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            throw new InternalAuthenticationServiceException("falha",
+                    new ServiceOverloadedException("Fila de verificação de senha cheia", Duration.ofMillis(1500)));
+        };
+
+        // AÇÃO
+        filter.doFilter(new MockHttpServletRequest("POST", "/login"), response, chain);
+
+        // VERIFICAÇÃO
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, response.getContentType().split(";")[0]);
+        JsonNode corpo = objectMapper.readTree(response.getContentAsByteArray());
+        assertEquals("Serviço Sobrecarregado", corpo.get("title").asText());
+        assertEquals(503, corpo.get("status").asInt());
+        assertEquals("Fila de verificação de senha cheia", corpo.get("detail").asText());
+        assertEquals("https://petshop.com/errors/service-overloaded", corpo.get("type").asText());
+        assertEquals("/login", corpo.get("instance").asText());
+    }
+
+    @Test
+    @DisplayName("DEVE propagar as outras exceções")
+    void devePropagarOutrasExcecoes() {
+        // CENÁRIO
+        FilterChain chain = (req, res) -> {
+            throw new IllegalStateException("outro erro");
+        };
+
+        // AÇÃO & VERIFICAÇÃO
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain));
+        assertEquals("outro erro", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("DEVE propagar a recusa quando a resposta já foi enviada")
+    void devePropagarComRespostaJaEnviada() {
+        // CENÁRIO
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.flushBuffer();
+            throw new ServiceOverloadedException("Fila de verificação de senha cheia", Duration.ofSeconds(2));
+        };
+
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(ServiceOverloadedException.class,
+                () -> filter.doFilter(new MockHttpServletRequest(), response, chain));
+        assertEquals(200, response.getStatus());
+    }
+}
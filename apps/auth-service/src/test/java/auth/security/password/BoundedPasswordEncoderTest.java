@@ -0,0 +1,179 @@
+package auth.security.password;
+
+import common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HashLento delegate = new HashLento();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void encerrar() {
+        delegate.liberar.countDown();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("DEVE devolver o resultado do encoder delegado")
+    void deveDevolverResultadoDoDelegado() {
+        // CENÁRIO
+        delegate.liberar.countDown();
+        encoder = encoder(1, 1, Duration.ofSeconds(5));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals("{teste}segredo", encoder.encode("segredo"));
+        assertTrue(encoder.matches("segredo", "{teste}segredo"));
+        assertFalse(encoder.matches("outra", "{teste}segredo"));
+        assertTrue(encoder.upgradeEncoding("{antigo}segredo"));
+    }
+
+    @Test
+    @DisplayName("DEVE recusar na hora com 503 quando pool e fila estão ocupados")
+    void deveRecusarComPoolEFilaOcupados() throws Exception {
+        // CENÁRIO: um hash rodando e um na fila
+        encoder = encoder(1, 1, Duration.ofSeconds(5));
+        CompletableFuture<Boolean> rodando = CompletableFuture.supplyAsync(() -> encoder.matches("a", "{teste}a"));
+        CompletableFuture<Boolean> naFila = CompletableFuture.supplyAsync(() -> encoder.matches("b", "{teste}b"));
+        assertTrue(delegate.iniciou.await(5, TimeUnit.SECONDS));
+        aguardarFila(1);
+
+        // AÇÃO
+        long inicio = System.nanoTime();
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> encoder.matches("c", "{teste}c"));
+
+        // VERIFICAÇÃO: sem esperar o max-wait, com Retry-After
+        assertTrue(Duration.ofNanos(System.nanoTime() - inicio).toMillis() < 1000);
+        assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+        assertTrue(meterRegistry.get("auth.password.rejected").counter().count() >= 1);
+
+        delegate.liberar.countDown();
+        assertTrue(rodando.get(5, TimeUnit.SECONDS));
+        assertTrue(naFila.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("DEVE manter a vaga ocupada até o hash abandonado terminar de fato")
+    void deveManterVagaAteHashAbandonadoTerminar() throws Exception {
+        // CENÁRIO: uma vaga só; o hash ignora interrupção, como o BCrypt
+        encoder = encoder(1, 0, Duration.ofMillis(100));
+
+        // AÇÃO: quem chamou desiste por tempo
+        assertThrows(ServiceOverloadedException.class, () -> encoder.matches("a", "{teste}a"));
+
+        // VERIFICAÇÃO: o hash ainda roda, então a próxima chamada é recusada sem chegar ao delegado
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> encoder.matches("b", "{teste}b"));
+        assertEquals("Fila de verificação de senha cheia", ex.getMessage());
+        assertEquals(1, delegate.chamadas.get());
+
+        // Quando o hash termina, a vaga volta
+        delegate.liberar.countDown();
+        aguardar(() -> encoder.matches("c", "{teste}c"));
+        assertTrue(encoder.matches("c", "{teste}c"));
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE calcular o hash que ficou na fila depois que quem pediu desistiu")
+    void naoDeveCalcularHashAbandonadoNaFila() throws Exception {
+        // CENÁRIO: um hash rodando, outro na fila
+        encoder = encoder(1, 1, Duration.ofMillis(200));
+        CompletableFuture.runAsync(() -> assertThrows(ServiceOverloadedException.class,
+                () -> encoder.matches("a", "{teste}a")));
+        assertTrue(delegate.iniciou.await(5, TimeUnit.SECONDS));
+
+        // AÇÃO: os dois estouram o max-wait, o da fila ainda sem ter começado
+        assertThrows(ServiceOverloadedException.class, () -> encoder.matches("b", "{teste}b"));
+        delegate.liberar.countDown();
+
+        // VERIFICAÇÃO: as vagas voltam e o delegado não foi chamado para o hash da fila
+        aguardar(() -> encoder.matches("c", "{teste}c"));
+        assertEquals(2, delegate.chamadas.get(), "primeiro hash + o da verificação final");
+    }
+
+    private BoundedPasswordEncoder encoder(int threads, int queueCapacity, Duration maxWait) {
+        return new BoundedPasswordEncoder(delegate, threads, queueCapacity, maxWait, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    // Repete até a chamada passar (a vaga volta assim que a tarefa anterior termina)
+    private static void aguardar(Runnable chamada) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            try {
+                chamada.run();
+                return;
+            } catch (ServiceOverloadedException e) {
+                Thread.sleep(10);
+            }
+        }
+        fail("vaga não foi devolvida");
+    }
+
+    private void aguardarFila(int tamanho) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < tamanho) {
+            assertTrue(System.nanoTime() < limite, "hash não entrou na fila");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Encoder que só termina quando o teste libera e não para com interrupção (como o BCrypt).
+     */
+    private static class HashLento implements PasswordEncoder {
+
+        final CountDownLatch iniciou = new CountDownLatch(1);
+        final CountDownLatch liberar = new CountDownLatch(1);
+        final AtomicInteger chamadas = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            esperar();
+            return "{teste}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            esperar();
+            return encodedPassword.equals("{teste}" + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return !encodedPassword.startsWith("{teste}");
+        }
+
+        private void esperar() {
+            chamadas.incrementAndGet();
+            iniciou.countDown();
+            boolean interrompido = false;
+            while (true) {
+                try {
+                    liberar.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrompido = true;
+                }
+            }
+            if (interrompido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
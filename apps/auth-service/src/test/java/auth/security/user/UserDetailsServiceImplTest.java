@@ -0,0 +1,112 @@
+package auth.security.user;
+
+import auth.model.Theme;
+import auth.model.Usuario;
+import auth.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Upgrade do hash no login: o DaoAuthenticationProvider chama o updatePassword quando o hash
+ * guardado não usa o algoritmo/custo atual (mesma montagem do PasswordHashingConfig, com custo baixo).
+ */
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    private static final String EMAIL = "ana@petshop.com";
+
+    @Mock
+    private UsuarioCache usuarioCache;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private PasswordEncoder passwordEncoder;
+    private DaoAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(5);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        passwordEncoder = delegating;
+
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(usuarioCache, usuarioRepository);
+        provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(service);
+        provider.setUserDetailsPasswordService(service);
+    }
+
+    @Test
+    @DisplayName("DEVE regravar com prefixo e custo atual o hash antigo sem prefixo")
+    void deveRegravarHashAntigoSemPrefixo() {
+        // CENÁRIO: hash BCrypt legado, sem {bcrypt} e com custo menor
+        String legado = new BCryptPasswordEncoder(4).encode("senha123");
+        Usuario usuario = cadastrar(legado);
+
+        // AÇÃO
+        Authentication autenticado = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, "senha123"));
+
+        // VERIFICAÇÃO
+        assertTrue(autenticado.isAuthenticated());
+        assertTrue(usuario.getSenha().startsWith("{bcrypt}$2a$05$"), usuario.getSenha());
+        assertTrue(passwordEncoder.matches("senha123", usuario.getSenha()));
+        assertEquals(usuario.getSenha(), ((UserDetailsImpl) autenticado.getPrincipal()).getPassword());
+        verify(usuarioCache).evict(EMAIL);
+    }
+
+    @Test
+    @DisplayName("DEVE regravar o hash com custo abaixo do configurado")
+    void deveRegravarHashComCustoMenor() {
+        // CENÁRIO
+        Usuario usuario = cadastrar("{bcrypt}" + new BCryptPasswordEncoder(4).encode("senha123"));
+
+        // AÇÃO
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, "senha123"));
+
+        // VERIFICAÇÃO
+        assertTrue(usuario.getSenha().startsWith("{bcrypt}$2a$05$"), usuario.getSenha());
+        verify(usuarioCache).evict(EMAIL);
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE regravar o hash que já está no algoritmo e custo atuais")
+    void naoDeveRegravarHashAtual() {
+        // CENÁRIO
+        String atual = passwordEncoder.encode("senha123");
+        Usuario usuario = cadastrar(atual);
+
+        // AÇÃO
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, "senha123"));
+
+        // VERIFICAÇÃO
+        assertEquals(atual, usuario.getSenha());
+        verifyNoInteractions(usuarioRepository);
+        verify(usuarioCache, never()).evict(any());
+    }
+
+    private Usuario cadastrar(String senha) {
+        Usuario usuario = new Usuario("Ana", EMAIL, senha);
+        when(usuarioCache.findByEmail(EMAIL)).thenReturn(Optional.of(
+                new UsuarioSnapshot(1L, "Ana", EMAIL, senha, Theme.LIGHT, Set.of("CLIENTE"))));
+        lenient().when(usuarioRepository.findByEmail(EMAIL)).thenReturn(Optional.of(usuario));
+        return usuario;
+    }
+}
@@ -0,0 +1,125 @@
+package auth.security.user;
+
+import auth.dto.message.UsuarioAlteradoMessage;
+import auth.model.Role;
+import auth.model.Usuario;
+import auth.repository.UsuarioRepository;
+import common.outbox.OutboxPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Invalidação do cache de usuários entre instâncias: cada instância tem o seu UsuarioCache,
+ * e o evento do outbox é o que chega às outras.
+ */
+@ExtendWith(MockitoExtension.class)
+class UsuarioCacheTest {
+
+    private static final String EMAIL = "ana@petshop.com";
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    private UsuarioCache usuarioCache;
+
+    @BeforeEach
+    void setup() {
+        usuarioCache = new UsuarioCache(usuarioRepository, outboxPublisher, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void limparTransacao() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("DEVE avisar as outras instâncias pelo outbox ao invalidar um usuário")
+    void deveAvisarOutrasInstancias() {
+        // CENÁRIO
+        TransactionSynchronizationManager.initSynchronization();
+
+        // AÇÃO
+        usuarioCache.evict(EMAIL);
+
+        // VERIFICAÇÃO
+        ArgumentCaptor<UsuarioAlteradoMessage> evento = ArgumentCaptor.forClass(UsuarioAlteradoMessage.class);
+        verify(outboxPublisher).publish(evento.capture());
+        assertEquals(EMAIL, evento.getValue().getEmail());
+        assertEquals(EMAIL, evento.getValue().aggregateKey());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE invalidar fora de transação, quando o aviso às outras instâncias se perderia")
+    void naoDeveInvalidarForaDeTransacao() {
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(IllegalStateException.class, () -> usuarioCache.evict(EMAIL));
+        verifyNoInteractions(outboxPublisher);
+    }
+
+    @Test
+    @DisplayName("DEVE recarregar do banco o usuário alterado em outra instância")
+    void deveRecarregarUsuarioAlteradoEmOutraInstancia() {
+        // CENÁRIO: usuário em cache com a role ADMIN
+        when(usuarioRepository.findByEmail(EMAIL))
+                .thenReturn(Optional.of(usuario("ADMIN")))
+                .thenReturn(Optional.of(usuario("USER")));
+        usuarioCache.findByEmail(EMAIL);
+        UsuarioCacheListener listener = new UsuarioCacheListener(usuarioCache, mock(RabbitListenerEndpointRegistry.class));
+
+        // AÇÃO: outra instância removeu a role
+        listener.usuarioAlterado(new UsuarioAlteradoMessage(1, "evento-1", EMAIL));
+
+        // VERIFICAÇÃO
+        assertEquals(Set.of("USER"), usuarioCache.findByEmail(EMAIL).orElseThrow().roles());
+        verify(usuarioRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("DEVE esvaziar o cache quando o consumidor de eventos reinicia")
+    void deveEsvaziarCacheQuandoConsumidorReinicia() {
+        // CENÁRIO: eventos publicados enquanto a fila da instância não existia se perderam
+        when(usuarioRepository.findByEmail(EMAIL)).thenReturn(Optional.of(usuario("USER")));
+        usuarioCache.findByEmail(EMAIL);
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+        RabbitListenerEndpointRegistry registry = mock(RabbitListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(UsuarioCacheListener.LISTENER_ID)).thenReturn(container);
+        UsuarioCacheListener listener = new UsuarioCacheListener(usuarioCache, registry);
+
+        // AÇÃO
+        listener.consumidorIniciado(new AsyncConsumerStartedEvent(container, null));
+        usuarioCache.findByEmail(EMAIL);
+
+        // VERIFICAÇÃO
+        verify(usuarioRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    private static Usuario usuario(String role) {
+        Usuario usuario = new Usuario("Ana", EMAIL, "{bcrypt}hash");
+        usuario.adicionarRole(new Role(role));
+        return usuario;
+    }
+}
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Roda os benchmarks JMH e compara com o baseline versionado.
+#
+# Uso:
+#   ./run.sh                 -> roda tudo e compara com baselines/baseline.json
+#   ./run.sh Jwt             -> roda só os benchmarks cujo nome casa com o regex
+#   UPDATE_BASELINE=true ./run.sh   -> sobrescreve o baseline com o resultado atual
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT="$(cd "${DIR}/../.." && pwd)"
+FILTER="${1:-}"
+TOLERANCE="${TOLERANCE:-10}"
+RESULT="${DIR}/target/jmh-result.json"
+
+(cd "${ROOT}" && mvn -B -q -pl apps/benchmarks -am package -DskipTests)
+
+# -prof gc: registra bytes alocados por operação, comparados com o baseline junto com o tempo
+java -jar "${DIR}/target/benchmarks.jar" ${FILTER:+"$FILTER"} -prof gc -rf json -rff "${RESULT}"
+
+if [[ "${UPDATE_BASELINE:-false}" == "true" ]]; then
+  cp "${RESULT}" "${DIR}/baselines/baseline.json"
+  echo "Baseline atualizado em baselines/baseline.json"
+else
+  java -cp "${DIR}/target/benchmarks.jar" benchmarks.BaselineComparator \
+    "${DIR}/baselines/baseline.json" "${RESULT}" "${TOLERANCE}" ${FILTER:+"$FILTER"}
+fi
@@ -0,0 +1,138 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compara um resultado do JMH (-rf json) com o baseline versionado em baselines/.
+ * <p>
+ * Todos os benchmarks usam Mode.AverageTime, então maior = pior. Um benchmark é
+ * considerado regressão quando fica acima da tolerância E a diferença é maior que
+ * a soma das margens de erro dos dois resultados (evita falso positivo por ruído).
+ * <p>
+ * Quando os dois resultados foram gerados com -prof gc, os bytes alocados por operação
+ * (gc.alloc.rate.norm) passam pela mesma regra: alocação é determinística e pega regressões
+ * que o tempo, ruidoso, esconde.
+ * <p>
+ * Benchmark do baseline que sumiu do resultado atual (renomeado, removido, quebrou na execução)
+ * também reprova: senão ele deixaria de ser vigiado sem ninguém perceber. Com o filtro (o mesmo
+ * regex passado ao JMH), só os benchmarks do baseline que casam com ele são cobrados.
+ * <p>
+ * Uso: BaselineComparator baseline.json atual.json [tolerancia-percentual] [filtro-regex]
+ */
+public final class BaselineComparator {
+
+    // Bytes alocados por operação, publicado pelo profiler gc do JMH
+    private static final String ALOCACAO = "gc.alloc.rate.norm";
+
+    private BaselineComparator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: BaselineComparator <baseline.json> <atual.json> [tolerancia-%] [filtro-regex]");
+            System.exit(2);
+        }
+
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        // Mesma regra do JMH: o regex casa com qualquer trecho do nome completo do benchmark
+        Pattern filtro = args.length > 3 ? Pattern.compile(args[3]) : null;
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = indexar(mapper.readTree(new File(args[0])));
+        Map<String, JsonNode> atual = indexar(mapper.readTree(new File(args[1])));
+
+        int regressoes = 0;
+        for (Map.Entry<String, JsonNode> entry : atual.entrySet()) {
+            JsonNode antes = baseline.get(entry.getKey());
+            JsonNode depois = entry.getValue();
+            if (antes == null) {
+                System.out.printf("NOVO       %-90s %12.3f %s%n", entry.getKey(),
+                        depois.get("primaryMetric").get("score").asDouble(), unidade(depois.get("primaryMetric")));
+                continue;
+            }
+
+            if (comparar(entry.getKey(), antes.get("primaryMetric"), depois.get("primaryMetric"), tolerancia)) {
+                regressoes++;
+            }
+
+            JsonNode alocAntes = antes.path("secondaryMetrics").get(ALOCACAO);
+            JsonNode alocDepois = depois.path("secondaryMetrics").get(ALOCACAO);
+            if (alocAntes != null && alocDepois != null
+                    && comparar(entry.getKey() + " [alloc]", alocAntes, alocDepois, tolerancia)) {
+                regressoes++;
+            }
+        }
+
+        int ausentes = 0;
+        for (Map.Entry<String, JsonNode> entry : baseline.entrySet()) {
+            JsonNode antes = entry.getValue();
+            if (atual.containsKey(entry.getKey())
+                    || (filtro != null && !filtro.matcher(antes.get("benchmark").asText()).find())) {
+                continue;
+            }
+            System.out.printf("AUSENTE    %-90s %12.3f %s%n", entry.getKey(),
+                    antes.get("primaryMetric").get("score").asDouble(), unidade(antes.get("primaryMetric")));
+            ausentes++;
+        }
+
+        if (regressoes > 0) {
+            System.out.printf("%d benchmark(s) acima da tolerância de %.0f%%%n", regressoes, tolerancia * 100);
+        }
+        if (ausentes > 0) {
+            System.out.printf("%d benchmark(s) do baseline ausentes no resultado atual%n", ausentes);
+        }
+        if (regressoes > 0 || ausentes > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, JsonNode> indexar(JsonNode resultados) {
+        Map<String, JsonNode> porChave = new LinkedHashMap<>();
+        for (JsonNode resultado : resultados) {
+            StringBuilder chave = new StringBuilder(resultado.get("benchmark").asText());
+            JsonNode params = resultado.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> campos = params.fields();
+                while (campos.hasNext()) {
+                    Map.Entry<String, JsonNode> campo = campos.next();
+                    chave.append(' ').append(campo.getKey()).append('=').append(campo.getValue().asText());
+                }
+            }
+            porChave.put(chave.toString(), resultado);
+        }
+        return porChave;
+    }
+
+    /**
+     * Compara uma métrica (primária ou secundária) e imprime a linha; true = regressão.
+     */
+    private static boolean comparar(String chave, JsonNode antes, JsonNode depois, double tolerancia) {
+        double scoreAntes = antes.get("score").asDouble();
+        double scoreAtual = depois.get("score").asDouble();
+        double variacao = (scoreAtual - scoreAntes) / scoreAntes;
+        double ruido = erro(antes) + erro(depois);
+
+        boolean regrediu = variacao > tolerancia && (scoreAtual - scoreAntes) > ruido;
+
+        System.out.printf("%-10s %-90s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                regrediu ? "REGRESSAO" : "ok", chave, scoreAntes, scoreAtual,
+                unidade(depois), variacao * 100);
+        return regrediu;
+    }
+
+    private static double erro(JsonNode metrica) {
+        double erro = metrica.get("scoreError").asDouble();
+        return Double.isNaN(erro) ? 0 : erro;
+    }
+
+    private static String unidade(JsonNode metrica) {
+        return metrica.get("scoreUnit").asText();
+    }
+}
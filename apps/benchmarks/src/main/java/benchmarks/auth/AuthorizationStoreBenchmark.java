@@ -0,0 +1,197 @@
+package benchmarks.auth;
+
+import auth.security.authorization.AuthorizationCodec;
+import auth.security.authorization.AuthorizationObjectMapper;
+import auth.security.user.UserDetailsImpl;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ciclo de refresh token no formato de cada armazenamento de autorizações: ler a autorização gravada,
+ * trocar access + refresh (reuseRefreshTokens=false) e montar o que volta a ser gravado.
+ * <p>
+ * {@code jdbcMappers} passa pelos mappers do JdbcOAuth2AuthorizationService, configurados como no
+ * SecurityConfig: o RowMapper lê uma linha já em memória e o ParametersMapper monta os valores do UPDATE.
+ * {@code redisCodec} faz o mesmo com o {@link AuthorizationCodec} do RedisOAuth2AuthorizationService.
+ * Nenhum dos dois inclui I/O (a ida ao Postgres, o GET/SET no Redis): a comparação é só do custo de
+ * formato, não dos armazenamentos. Ponta a ponta, use o apps/load-tests (endpoint token-refresh)
+ * com -Dloadtest.auth.authorization-store=jdbc|redis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationStoreBenchmark {
+
+    private RegisteredClient client;
+    private JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper rowMapper;
+    private JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper parametersMapper;
+    private AuthorizationCodec codec;
+
+    // Colunas da oauth2_authorization, na ordem dos valores do ParametersMapper
+    private List<String> columns;
+    private List<SqlParameterValue> jdbcRow;
+    private byte[] redisValue;
+
+    @Setup
+    public void setup() {
+        client = RegisteredClient.withId(UUID.randomUUID().toString())
+                .clientId("petshop-client")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.NONE)
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .redirectUri("http://localhost:5173/authorized")
+                .scope("openid")
+                .scope("profile")
+                .build();
+
+        // O H2 só fornece o schema oficial (colunas e tipos que o service lê na construção);
+        // as medições não tocam nele
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:authorization;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource(
+                "org/springframework/security/oauth2/server/authorization/oauth2-authorization-schema.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        InMemoryRegisteredClientRepository clients = new InMemoryRegisteredClientRepository(client);
+        new JdbcOAuth2AuthorizationService(jdbcTemplate, clients);
+        columns = jdbcTemplate.query("SELECT * FROM oauth2_authorization WHERE 1 = 0", rs -> {
+            List<String> names = new ArrayList<>();
+            for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                names.add(rs.getMetaData().getColumnName(i).toLowerCase());
+            }
+            return names;
+        });
+
+        // Como no SecurityConfig: o ObjectMapper próprio só no RowMapper
+        rowMapper = new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(clients);
+        rowMapper.setObjectMapper(AuthorizationObjectMapper.create());
+        parametersMapper = new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
+        codec = new AuthorizationCodec(AuthorizationObjectMapper.create());
+
+        OAuth2Authorization authorization = authorization();
+        jdbcRow = parametersMapper.apply(authorization);
+        redisValue = codec.encode(authorization);
+
+        System.err.printf("Tamanho da autorização: colunas (JDBC) %d bytes, JSON (Redis) %d bytes%n",
+                size(jdbcRow), redisValue.length);
+    }
+
+    @Benchmark
+    public OAuth2Authorization jdbcMappers() throws SQLException {
+        OAuth2Authorization rotated = rotate(rowMapper.mapRow(row(jdbcRow), 1));
+        jdbcRow = parametersMapper.apply(rotated);
+        return rotated;
+    }
+
+    @Benchmark
+    public OAuth2Authorization redisCodec() {
+        OAuth2Authorization rotated = rotate(codec.decode(redisValue));
+        redisValue = codec.encode(rotated);
+        return rotated;
+    }
+
+    // A linha como o driver a entregaria, já posicionada
+    private ResultSet row(List<SqlParameterValue> values) throws SQLException {
+        SimpleResultSet row = new SimpleResultSet();
+        for (int i = 0; i < columns.size(); i++) {
+            row.addColumn(columns.get(i), values.get(i).getSqlType(), 0, 0);
+        }
+        row.addRow(values.stream().map(SqlParameterValue::getValue).toArray());
+        row.next();
+        return row;
+    }
+
+    private OAuth2Authorization authorization() {
+        UserDetailsImpl user = new UserDetailsImpl(1L, "Administrador", "admin@petshop.com", "{bcrypt}hash",
+                new ArrayList<>(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        UsernamePasswordAuthenticationToken principal =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+
+        OAuth2AuthorizationRequest request = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("http://localhost:8081/oauth2/authorize")
+                .clientId(client.getClientId())
+                .redirectUri("http://localhost:5173/authorized")
+                .scopes(Set.of("openid", "profile"))
+                .state(UUID.randomUUID().toString())
+                .additionalParameters(Map.of("code_challenge", "x".repeat(43), "code_challenge_method", "S256"))
+                .build();
+
+        Instant now = Instant.now();
+        OAuth2AuthorizationCode code = new OAuth2AuthorizationCode(token(), now, now.plus(5, ChronoUnit.MINUTES));
+        OidcIdToken idToken = new OidcIdToken(token(), now, now.plus(30, ChronoUnit.MINUTES), Map.of(
+                "sub", user.getUsername(), "aud", new ArrayList<>(List.of(client.getClientId())), "azp", client.getClientId(),
+                "iss", "http://localhost:8081", "sid", token()));
+
+        return OAuth2Authorization.withRegisteredClient(client)
+                .principalName(user.getUsername())
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(Set.of("openid", "profile"))
+                .attribute(Principal.class.getName(), principal)
+                .attribute(OAuth2AuthorizationRequest.class.getName(), request)
+                .token(code, metadata -> metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+                .token(idToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()))
+                .accessToken(accessToken(user, now))
+                .refreshToken(new OAuth2RefreshToken(token(), now, now.plus(1, ChronoUnit.DAYS)))
+                .build();
+    }
+
+    private OAuth2Authorization rotate(OAuth2Authorization current) {
+        UsernamePasswordAuthenticationToken principal = current.getAttribute(Principal.class.getName());
+        Instant now = Instant.now();
+        return OAuth2Authorization.from(current)
+                .accessToken(accessToken((UserDetailsImpl) principal.getPrincipal(), now))
+                .refreshToken(new OAuth2RefreshToken(token(), now, now.plus(1, ChronoUnit.DAYS)))
+                .build();
+    }
+
+    private OAuth2AccessToken accessToken(UserDetailsImpl user, Instant now) {
+        return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "a".repeat(700) + token(),
+                now, now.plus(30, ChronoUnit.MINUTES), Set.of("openid", "profile"));
+    }
+
+    private static String token() {
+        return UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    private static int size(List<SqlParameterValue> parameters) {
+        return parameters.stream()
+                .map(SqlParameterValue::getValue)
+                .mapToInt(value -> value instanceof byte[] bytes ? bytes.length
+                        : value != null ? value.toString().getBytes(StandardCharsets.UTF_8).length : 0)
+                .sum();
+    }
+}
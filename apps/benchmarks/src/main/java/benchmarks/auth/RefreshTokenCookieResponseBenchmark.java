@@ -0,0 +1,139 @@
+package benchmarks.auth;
+
+import auth.security.handler.RefreshTokenCookieResponseHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AccessTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.authentication.OAuth2ClientAuthenticationToken;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.web.authentication.OAuth2AccessTokenResponseAuthenticationSuccessHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resposta de sucesso de /oauth2/token: move o refresh_token do JSON para um cookie HttpOnly.
+ * Rode com -prof gc (o run.sh já faz isso) para ver os bytes alocados por chamada.
+ * <p>
+ * {@code filterRewrite} é o caminho anterior, para comparação: o handler padrão do Authorization Server
+ * escreve o JSON completo e o antigo RefreshTokenCookieFilter (reproduzido abaixo) bufferiza, relê e
+ * reserializa a resposta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshTokenCookieResponseBenchmark {
+
+    private RefreshTokenCookieResponseHandler handler;
+    private OAuth2AccessTokenResponseAuthenticationSuccessHandler defaultHandler;
+    private OAuth2AccessTokenAuthenticationToken authentication;
+
+    @Setup
+    public void setup() {
+        handler = new RefreshTokenCookieResponseHandler();
+        ReflectionTestUtils.setField(handler, "isCookieSecure", true);
+        ReflectionTestUtils.setField(handler, "cookieSameSite", "Strict");
+        defaultHandler = new OAuth2AccessTokenResponseAuthenticationSuccessHandler();
+
+        RegisteredClient client = RegisteredClient.withId("benchmark-client")
+                .clientId("petshop-client")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.NONE)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .redirectUri("http://localhost:5173/authorized")
+                .scope(OidcScopes.OPENID)
+                .scope(OidcScopes.PROFILE)
+                .build();
+        OAuth2ClientAuthenticationToken clientPrincipal =
+                new OAuth2ClientAuthenticationToken(client, ClientAuthenticationMethod.NONE, null);
+
+        // Tamanho e formato próximos de uma resposta real do Authorization Server
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
+                "a".repeat(800), now, now.plus(Duration.ofMinutes(5)), Set.of(OidcScopes.OPENID, OidcScopes.PROFILE));
+        OAuth2RefreshToken refreshToken = new OAuth2RefreshToken("r".repeat(128), now, now.plus(Duration.ofDays(1)));
+
+        authentication = new OAuth2AccessTokenAuthenticationToken(client, clientPrincipal, accessToken, refreshToken,
+                Map.of(OidcParameterNames.ID_TOKEN, "i".repeat(900)));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse writeTokenResponse() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        handler.onAuthenticationSuccess(request, response, authentication);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterRewrite() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/oauth2/token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        defaultHandler.onAuthenticationSuccess(request, responseWrapper, authentication);
+        rewriteAsFilter(response, responseWrapper);
+        return response;
+    }
+
+    // Corpo do RefreshTokenCookieFilter removido, depois do filterChain.doFilter
+    private static void rewriteAsFilter(HttpServletResponse response, ContentCachingResponseWrapper responseWrapper)
+            throws IOException {
+        response.setHeader("Cache-Control", "no-store, no-cache, must-revalidate, max-age=0");
+        response.setHeader("Pragma", "no-cache");
+
+        if (response.getStatus() == 200) {
+            String body = new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
+
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode json = mapper.readTree(body);
+
+            if (json.has("refresh_token")) {
+                String refreshToken = json.get("refresh_token").asText();
+
+                ResponseCookie cookie = ResponseCookie.from("refresh_token", refreshToken)
+                        .httpOnly(true)
+                        .secure(true)
+                        .sameSite("Strict")
+                        .path("/oauth2/token")
+                        .maxAge(Duration.ofDays(1))
+                        .build();
+
+                response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+
+                ((ObjectNode) json).remove("refresh_token");
+
+                byte[] newBody = mapper.writeValueAsBytes(json);
+
+                responseWrapper.resetBuffer();
+                response.setCharacterEncoding("UTF-8");
+                response.setContentType("application/json");
+                responseWrapper.getOutputStream().write(newBody);
+            }
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+}
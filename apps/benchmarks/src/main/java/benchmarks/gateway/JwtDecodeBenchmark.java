@@ -0,0 +1,81 @@
+package benchmarks.gateway;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import common.security.RsaKeyUtils;
+import gateway.config.GatewaySecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação do access token feita pelo gateway em toda requisição autenticada
+ * (decoders configurados exatamente como em GatewaySecurityConfig).
+ * <p>
+ * {@code decode} é a verificação completa (falta no cache); {@code decodeCached} é o caminho
+ * de um token repetido. CPU por requisição = score; a 2k rps, 2000 x score µs por segundo de CPU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecodeBenchmark {
+
+    private ReactiveJwtDecoder decoder;
+    private ReactiveJwtDecoder cachingDecoder;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+        KeyPair keyPair = RsaKeyUtils.generateKeyPair();
+
+        GatewaySecurityConfig config = new GatewaySecurityConfig();
+        ReflectionTestUtils.setField(config, "publicKeyString",
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        decoder = config.signatureVerifyingDecoder();
+        cachingDecoder = config.jwtDecoder(new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5));
+
+        Instant agora = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer("http://auth-service:8081")
+                .subject("cliente@petshop.com")
+                .audience("petshop-client")
+                .issueTime(Date.from(agora))
+                .expirationTime(Date.from(agora.plusSeconds(3600)))
+                .claim("roles", List.of("ROLE_USER"))
+                .claim("user_id", 42)
+                .build();
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+        jwt.sign(new RSASSASigner(keyPair.getPrivate()));
+        token = jwt.serialize();
+
+        // Aquece o cache: decodeCached mede só acertos
+        cachingDecoder.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return decoder.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return cachingDecoder.decode(token).block();
+    }
+}
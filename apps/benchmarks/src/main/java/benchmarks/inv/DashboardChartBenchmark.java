@@ -0,0 +1,53 @@
+package benchmarks.inv;
+
+import inv.dto.DashboardStats.ChartDataDTO;
+import inv.model.Venda;
+import inv.service.DashboardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agregação por dia do gráfico do dashboard (DashboardService.agregarPorDia),
+ * com as vendas já carregadas em memória.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardChartBenchmark {
+
+    @Param({"100", "10000"})
+    private int vendas;
+
+    private List<Venda> ultimasVendas;
+    private LocalDate hoje;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        hoje = LocalDate.of(2025, 1, 15);
+        LocalDateTime inicio = hoje.minusDays(6).atStartOfDay();
+
+        ultimasVendas = new ArrayList<>(vendas);
+        for (int i = 0; i < vendas; i++) {
+            Venda venda = new Venda();
+            venda.setDataHora(inicio.plusMinutes(random.nextInt(7 * 24 * 60)));
+            venda.setValorTotal(BigDecimal.valueOf(random.nextInt(1, 50_000), 2));
+            ultimasVendas.add(venda);
+        }
+    }
+
+    @Benchmark
+    public List<ChartDataDTO> agregarPorDia() {
+        return DashboardService.agregarPorDia(ultimasVendas, hoje, 7);
+    }
+}
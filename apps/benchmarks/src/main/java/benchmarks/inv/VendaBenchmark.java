@@ -0,0 +1,43 @@
+package benchmarks.inv;
+
+import inv.model.Produto;
+import inv.model.Venda;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do @PrePersist Venda.calcularTotal (soma de preço x quantidade dos itens).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VendaBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int itens;
+
+    private Venda venda;
+
+    @Setup
+    public void setup() {
+        venda = new Venda();
+        for (int i = 0; i < itens; i++) {
+            Produto produto = new Produto();
+            produto.setId((long) i);
+            produto.setNome("Produto " + i);
+            produto.setPrecoVenda(new BigDecimal("19.90").add(BigDecimal.valueOf(i)));
+            venda.adicionarItem(produto, new BigDecimal("1.500"));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calcularTotal() {
+        venda.calcularTotal();
+        return venda.getValorTotal();
+    }
+}
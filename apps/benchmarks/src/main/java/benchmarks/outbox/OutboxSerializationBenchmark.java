@@ -0,0 +1,47 @@
+package benchmarks.outbox;
+
+import auth.dto.message.PasswordResetMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.outbox.JacksonOutboxSerializer;
+import common.outbox.OutboxSerializer;
+import inv.dto.EstoqueBaixoMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização do payload gravado no outbox (feita dentro da transação de negócio).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxSerializationBenchmark {
+
+    private OutboxSerializer serializer;
+    private EstoqueBaixoMessage estoqueBaixo;
+    private PasswordResetMessage passwordReset;
+
+    @Setup
+    public void setup() {
+        serializer = new JacksonOutboxSerializer(new ObjectMapper());
+        estoqueBaixo = new EstoqueBaixoMessage(
+                1, UUID.randomUUID().toString(), "Ração Premium 15kg", new BigDecimal("9.000"), new BigDecimal("10.000"));
+        passwordReset = new PasswordResetMessage(
+                1, UUID.randomUUID().toString(), "cliente@petshop.com", UUID.randomUUID().toString(), "Cliente");
+    }
+
+    @Benchmark
+    public String estoqueBaixo() {
+        return serializer.serialize(estoqueBaixo);
+    }
+
+    @Benchmark
+    public String passwordReset() {
+        return serializer.serialize(passwordReset);
+    }
+}
@@ -0,0 +1,109 @@
+package common.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas que se ajusta sozinho (AIMD guiado por gradiente de latência).
+ * <p>
+ * Cada requisição concluída é uma amostra. Há congestionamento quando o chamador sinaliza sobrecarga
+ * (alguém esperando conexão no pool, o destino respondendo 503/timeout) ou quando a latência recente
+ * passa de {@code toleranciaLatencia} vezes a latência de referência (média longa).
+ * Congestionado: o limite cai multiplicativamente, no máximo uma vez por latência recente (senão as
+ * centenas de requisições que terminam juntas derrubariam o limite ao mínimo).
+ * Livre e com o limite de fato em uso: sobe uma unidade.
+ * <p>
+ * Sem Spring: quem usa informa latência e sobrecarga ({@link ConcurrencyLimitFilter} nos serviços,
+ * o filtro AdaptiveConcurrencyLimit por rota no gateway).
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // ~5 amostras na média curta e ~600 na longa (mesma ordem do Gradient2 do concurrency-limits da Netflix)
+    private static final double PESO_CURTA = 0.2;
+    private static final double PESO_LONGA = 2.0 / 601;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final double fatorReducao;
+    private final double toleranciaLatencia;
+
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private volatile double limite;
+
+    // Protegidos por 'this'
+    private double latenciaCurta = Double.NaN;
+    private double latenciaReferencia = Double.NaN;
+    private long ultimaReducao;
+
+    public AdaptiveConcurrencyLimiter(int limiteInicial, int limiteMinimo, int limiteMaximo,
+                                      double fatorReducao, double toleranciaLatencia) {
+        if (limiteMinimo < 1 || limiteMaximo < limiteMinimo) {
+            throw new IllegalArgumentException("Limites inválidos: mínimo " + limiteMinimo + ", máximo " + limiteMaximo);
+        }
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.fatorReducao = fatorReducao;
+        this.toleranciaLatencia = toleranciaLatencia;
+        this.limite = Math.clamp(limiteInicial, limiteMinimo, limiteMaximo);
+    }
+
+    /**
+     * Reserva uma vaga. Devolve quantas requisições já estavam em andamento (usar em {@link #registrar}),
+     * ou -1 se o limite foi atingido e a requisição deve ser recusada.
+     */
+    public int tentarAdquirir() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= (int) limite) {
+                return -1;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return atual;
+            }
+        }
+    }
+
+    public void liberar() {
+        emAndamento.decrementAndGet();
+    }
+
+    /**
+     * Ajusta o limite com a amostra de uma requisição concluída.
+     *
+     * @param latenciaNanos       duração da requisição
+     * @param emAndamentoNoInicio valor devolvido por {@link #tentarAdquirir()}
+     * @param sobrecarga          sinal externo de sobrecarga (ex.: threads esperando conexão no pool)
+     * @param agoraNanos          {@link System#nanoTime()} ao final da requisição
+     */
+    public synchronized void registrar(long latenciaNanos, int emAndamentoNoInicio, boolean sobrecarga, long agoraNanos) {
+        if (Double.isNaN(latenciaCurta)) {
+            latenciaCurta = latenciaNanos;
+            latenciaReferencia = latenciaNanos;
+            ultimaReducao = agoraNanos;
+        } else {
+            latenciaCurta += PESO_CURTA * (latenciaNanos - latenciaCurta);
+            latenciaReferencia += PESO_LONGA * (latenciaNanos - latenciaReferencia);
+            // Depois de uma sobrecarga a referência ficou inflada: volta mais rápido para o normal
+            if (latenciaReferencia > 2 * latenciaCurta) {
+                latenciaReferencia *= 0.95;
+            }
+        }
+
+        boolean congestionado = sobrecarga || latenciaCurta > toleranciaLatencia * latenciaReferencia;
+        if (congestionado) {
+            if (agoraNanos - ultimaReducao >= latenciaCurta) {
+                limite = Math.max(limiteMinimo, limite * fatorReducao);
+                ultimaReducao = agoraNanos;
+            }
+        } else if (emAndamentoNoInicio * 2 >= (int) limite) {
+            limite = Math.min(limiteMaximo, limite + 1);
+        }
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEmAndamento() {
+        return emAndamento.get();
+    }
+}
@@ -0,0 +1,144 @@
+package common.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Limita as requisições simultâneas do serviço com um {@link AdaptiveConcurrencyLimiter}.
+ * <p>
+ * Com virtual threads o Tomcat aceita tudo: numa rajada, milhares de threads ficam paradas esperando
+ * conexão do Hikari e a latência explode para todos. Aqui o excedente é recusado na entrada com
+ * 503 + Retry-After, barato e antes do Spring Security. A saturação vem do
+ * {@code hikaricp.connections.pending} de cada pool, lido do próprio MeterRegistry.
+ * <p>
+ * Fica depois do filtro de observação (a recusa aparece no http.server.requests) e ignora
+ * {@code concurrency.limit.excluded-paths} (actuator: health e métricas precisam responder na sobrecarga).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "concurrency.limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final long REBUSCA_POOLS_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final List<String> caminhosIgnorados;
+    private final String retryAfter;
+    private final Counter recusadasCounter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // Os pools registram o gauge só quando iniciam: a lista é refeita de tempos em tempos
+    private volatile Collection<Gauge> conexoesPendentes = List.of();
+    private volatile long proximaBusca = System.nanoTime();
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${concurrency.limit.initial:20}") int limiteInicial,
+                                  @Value("${concurrency.limit.min:4}") int limiteMinimo,
+                                  @Value("${concurrency.limit.max:200}") int limiteMaximo,
+                                  @Value("${concurrency.limit.backoff-ratio:0.9}") double fatorReducao,
+                                  @Value("${concurrency.limit.latency-tolerance:2.0}") double toleranciaLatencia,
+                                  @Value("${concurrency.limit.retry-after:PT1S}") Duration retryAfter,
+                                  @Value("${concurrency.limit.excluded-paths:/actuator/**}") List<String> caminhosIgnorados) {
+        this.limiter = new AdaptiveConcurrencyLimiter(
+                limiteInicial, limiteMinimo, limiteMaximo, fatorReducao, toleranciaLatencia);
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.caminhosIgnorados = caminhosIgnorados;
+        this.retryAfter = ServiceOverloadedException.retryAfterHeader(retryAfter);
+
+        Gauge.builder("http.server.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimite)
+                .description("Limite adaptativo de requisições simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("http.server.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getEmAndamento)
+                .description("Requisições em andamento dentro do limite")
+                .register(meterRegistry);
+        this.recusadasCounter = Counter.builder("http.server.concurrency.rejected")
+                .description("Requisições recusadas com 503 por excederem o limite")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String caminho = request.getRequestURI();
+        return caminhosIgnorados.stream().anyMatch(padrao -> pathMatcher.match(padrao, caminho));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int emAndamento = limiter.tentarAdquirir();
+        if (emAndamento < 0) {
+            recusar(request, response);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.liberar();
+            // Stream (SSE) só abriu a conexão aqui: não é uma latência comparável às demais
+            if (!request.isAsyncStarted()) {
+                long fim = System.nanoTime();
+                limiter.registrar(fim - inicio, emAndamento, poolSaturado(fim), fim);
+            }
+        }
+    }
+
+    private void recusar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        recusadasCounter.increment();
+
+        // Mesmo title/type do GlobalExceptionHandler para ServiceOverloadedException
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "Limite de requisições simultâneas atingido");
+        problem.setTitle("Serviço Sobrecarregado");
+        problem.setType(URI.create("https://petshop.com/errors/service-overloaded"));
+        problem.setInstance(URI.create(request.getRequestURI()));
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), problem);
+    }
+
+    private boolean poolSaturado(long agoraNanos) {
+        if (agoraNanos - proximaBusca >= 0) {
+            conexoesPendentes = meterRegistry.find("hikaricp.connections.pending").gauges();
+            proximaBusca = agoraNanos + REBUSCA_POOLS_NANOS;
+        }
+        for (Gauge pendentes : conexoesPendentes) {
+            if (pendentes.value() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -69,7 +69,23 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problem);
     }
 
-    // 4. Validação de Campos (400) - Bean Validation
+    // 4. Sobrecarga (503) - O serviço recusou o trabalho para se proteger
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleOverloaded(ServiceOverloadedException ex) {
+        log.warn("Requisição recusada por sobrecarga: {}", ex.getMessage());
+
+        ProblemDetail problem = buildProblemDetail(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                "Serviço Sobrecarregado",
+                "service-overloaded"
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ex.retryAfterHeader())
+                .body(problem);
+    }
+
+    // 5. Validação de Campos (400) - Bean Validation
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, @NonNull HttpHeaders headers, @NonNull HttpStatusCode status, @NonNull WebRequest request) {
         ProblemDetail problem = buildProblemDetail(
@@ -89,7 +105,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(problem);
     }
 
-    // 5. Autenticação (401) - Login/Senha errados
+    // 6. Autenticação (401) - Login/Senha errados
     @ExceptionHandler({BadCredentialsException.class, InternalAuthenticationServiceException.class})
     ProblemDetail handleBadCredentialsException() {
         return buildProblemDetail(
@@ -100,7 +116,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
-    // 6. Autorização (403) - Sem permissão de acesso
+    // 7. Autorização (403) - Sem permissão de acesso
     @ExceptionHandler(AccessDeniedException.class)
     ProblemDetail handleAccessDeniedException(AccessDeniedException ex) {
         log.warn("Tentativa de acesso negado bloqueada: {}", ex.getMessage());
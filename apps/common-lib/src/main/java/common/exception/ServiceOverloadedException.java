@@ -0,0 +1,36 @@
+package common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+
+/**
+ * O serviço recusou o trabalho para se proteger (fila cheia, limite de concorrência).
+ * Vira 503 com Retry-After: o cliente deve tentar de novo, não é erro da requisição.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Valor do header Retry-After (segundos inteiros, mínimo 1).
+     */
+    public String retryAfterHeader() {
+        return retryAfterHeader(retryAfter);
+    }
+
+    public static String retryAfterHeader(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
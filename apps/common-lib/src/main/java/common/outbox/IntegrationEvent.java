@@ -0,0 +1,29 @@
+package common.outbox;
+
+/**
+ * Contrato dos eventos publicados via outbox.
+ * <p>
+ * O próprio evento informa para onde vai (exchange/routing key), a versão do schema
+ * e a chave de agregado usada para garantir ordem: eventos com a mesma chave caem
+ * na mesma partição do outbox e são publicados na ordem em que foram gravados.
+ * <p>
+ * Os métodos não seguem o padrão "getX", então não entram no JSON do payload.
+ */
+public interface IntegrationEvent {
+
+    String exchange();
+
+    String routingKey();
+
+    default int version() {
+        return 1;
+    }
+
+    /**
+     * Chave de ordenação (ex.: id do produto, email do usuário).
+     * Null = sem exigência de ordem; o evento vai para qualquer partição.
+     */
+    default String aggregateKey() {
+        return null;
+    }
+}
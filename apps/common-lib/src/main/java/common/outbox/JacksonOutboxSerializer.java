@@ -0,0 +1,33 @@
+package common.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.exception.BusinessException;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Serializador padrão: JSON via o ObjectMapper da aplicação, compatível com o
+ * Jackson2JsonMessageConverter usado pelos consumidores.
+ */
+public class JacksonOutboxSerializer implements OutboxSerializer {
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonOutboxSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String contentType() {
+        return MessageProperties.CONTENT_TYPE_JSON;
+    }
+
+    @Override
+    public String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Falha interna ao serializar evento " + event.getClass().getSimpleName());
+        }
+    }
+}
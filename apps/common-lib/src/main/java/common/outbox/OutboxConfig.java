@@ -0,0 +1,28 @@
+package common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Auto-configuração do outbox nos serviços que escaneiam o pacote 'common' (só eles têm o {@link OutboxStore}).
+ * Habilita o agendamento: sem o @EnableScheduling o {@link OutboxScheduler} nunca seria disparado.
+ * <p>
+ * O serializador padrão é JSON; um serviço pode trocar o formato declarando
+ * o próprio bean {@link OutboxSerializer}. Por ser auto-configuração (registrada em
+ * META-INF/spring/...AutoConfiguration.imports), a condição é avaliada depois dos beans do serviço.
+ */
+@AutoConfiguration
+@ConditionalOnBean(OutboxStore.class)
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSerializer.class)
+    public OutboxSerializer outboxSerializer(ObjectMapper objectMapper) {
+        return new JacksonOutboxSerializer(objectMapper);
+    }
+}
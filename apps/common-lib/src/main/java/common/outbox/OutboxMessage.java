@@ -0,0 +1,21 @@
+package common.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * Linha da tabela 'outbox': evento de integração aguardando publicação no broker.
+ * 'partitionKey' é o hash da chave de agregado; a partição é partitionKey % outbox.partitions.
+ */
+public record OutboxMessage(
+        Long id,
+        String exchange,
+        String routingKey,
+        String payload,
+        String contentType,
+        String eventType,
+        int version,
+        String aggregateKey,
+        int partitionKey,
+        int attempts,
+        LocalDateTime createdAt
+) {}
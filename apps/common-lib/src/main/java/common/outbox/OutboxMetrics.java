@@ -0,0 +1,116 @@
+package common.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Métricas do outbox, expostas em /actuator/prometheus.
+ * <p>
+ * Profundidade e idade da linha mais antiga vêm de uma consulta agendada
+ * (e não de cada scrape), para que o Prometheus não gere carga extra no banco.
+ */
+@Component
+public class OutboxMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxMetrics.class);
+
+    private final OutboxStore outboxStore;
+
+    private final Timer lagTimer;
+    private final Timer publishTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+
+    private final AtomicLong depth = new AtomicLong();
+    // Epoch millis da linha mais antiga; 0 = outbox vazio
+    private final AtomicLong oldestCreatedAtMillis = new AtomicLong();
+
+    public OutboxMetrics(OutboxStore outboxStore, MeterRegistry meterRegistry) {
+        this.outboxStore = outboxStore;
+
+        this.lagTimer = Timer.builder("outbox.relay.lag")
+                .description("Tempo entre a gravação do evento e a publicação no broker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("outbox.relay.publish.latency")
+                .description("Duração do envio de um lote ao broker (incluindo confirms)")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Mensagens publicadas por lote")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Mensagens entregues ao broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Mensagens cuja tentativa de envio falhou")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("outbox.relay.retried")
+                .description("Mensagens entregues após uma ou mais falhas anteriores")
+                .register(meterRegistry);
+
+        Gauge.builder("outbox.depth", depth, AtomicLong::get)
+                .description("Linhas pendentes no outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.oldest.age", oldestCreatedAtMillis, OutboxMetrics::ageSeconds)
+                .description("Idade da linha pendente mais antiga")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.metrics.refresh-ms:10000}")
+    public void refreshBacklog() {
+        try {
+            OutboxStore.OutboxBacklog backlog = outboxStore.backlog();
+            depth.set(backlog.depth());
+            oldestCreatedAtMillis.set(backlog.oldestCreatedAt() != null
+                    ? Timestamp.valueOf(backlog.oldestCreatedAt()).getTime()
+                    : 0L);
+        } catch (Exception e) {
+            log.warn("Falha ao consultar backlog do outbox: {}", e.getMessage());
+        }
+    }
+
+    <T> T recordPublish(Supplier<T> action) {
+        return publishTimer.record(action);
+    }
+
+    void recordPublished(List<OutboxMessage> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        long retried = 0;
+        for (OutboxMessage message : batch) {
+            lagTimer.record(Duration.between(message.createdAt(), now));
+            if (message.attempts() > 0) {
+                retried++;
+            }
+        }
+        batchSizeSummary.record(batch.size());
+        publishedCounter.increment(batch.size());
+        retriedCounter.increment(retried);
+    }
+
+    void recordFailed(List<OutboxMessage> batch) {
+        failedCounter.increment(batch.size());
+    }
+
+    private static double ageSeconds(AtomicLong oldestMillis) {
+        long oldest = oldestMillis.get();
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
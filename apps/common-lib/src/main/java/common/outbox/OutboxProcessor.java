@@ -0,0 +1,121 @@
+package common.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@Component
+public class OutboxProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxProcessor.class);
+
+    // Header lido pelo Jackson2JsonMessageConverter dos consumidores para escolher a classe
+    static final String TYPE_ID_HEADER = "__TypeId__";
+
+    private final OutboxStore outboxStore;
+    private final RabbitTemplate rabbitTemplate;
+    private final OutboxMetrics metrics;
+    private final int batchSize;
+    private final boolean publisherConfirms;
+    private final long confirmTimeoutMs;
+
+    public OutboxProcessor(OutboxStore outboxStore,
+                           RabbitTemplate rabbitTemplate,
+                           OutboxMetrics metrics,
+                           @Value("${outbox.relay.batch-size:100}") int batchSize,
+                           @Value("${outbox.relay.publisher-confirms:false}") boolean publisherConfirms,
+                           @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxStore = outboxStore;
+        this.rabbitTemplate = rabbitTemplate;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.publisherConfirms = publisherConfirms;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Publica o próximo lote de uma partição.
+     * <p>
+     * Retorna quantas mensagens foram publicadas (0 se a partição estava vazia
+     * ou já está sendo processada por outro relay).
+     * Se o broker falhar no meio do lote, nada é deletado: só o contador 'attempts'
+     * das linhas é incrementado (comitado, ver noRollbackFor) e o lote inteiro é
+     * reenviado no próximo ciclo (entrega at-least-once).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, noRollbackFor = OutboxPublishException.class)
+    public int processPartition(int partition) {
+        // 1. Lock exclusivo da partição (advisory lock liberado no commit/rollback)
+        // Garante que eventos da mesma chave saiam na ordem, mesmo com várias instâncias.
+        if (!outboxStore.tryLockPartition(partition)) {
+            return 0;
+        }
+
+        List<OutboxMessage> batch = outboxStore.findBatch(partition, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = batch.stream().map(OutboxMessage::id).toList();
+
+        try {
+            // 2. Envia o lote sem desserializar: o payload já está no formato final
+            metrics.recordPublish(() -> send(batch));
+
+        } catch (Exception e) {
+            log.error("Erro ao publicar lote da partição {} ({} mensagens): {}", partition, batch.size(), e.getMessage());
+            outboxStore.incrementAttempts(ids);
+            metrics.recordFailed(batch);
+            throw new OutboxPublishException("Falha ao publicar lote do outbox na partição " + partition, e);
+        }
+
+        // 3. Confirmação: remove o lote inteiro num único DELETE
+        outboxStore.deleteAll(ids);
+        metrics.recordPublished(batch);
+
+        return batch.size();
+    }
+
+    private Void send(List<OutboxMessage> batch) {
+        if (!publisherConfirms) {
+            batch.forEach(this::sendOne);
+            return null;
+        }
+
+        // Um único canal para o lote todo: envia tudo e espera os confirms de uma vez,
+        // em vez de um round-trip por mensagem.
+        rabbitTemplate.invoke(operations -> {
+            batch.forEach(message -> operations.send(message.exchange(), message.routingKey(), toAmqp(message)));
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+        return null;
+    }
+
+    private void sendOne(OutboxMessage message) {
+        rabbitTemplate.send(message.exchange(), message.routingKey(), toAmqp(message));
+    }
+
+    private Message toAmqp(OutboxMessage message) {
+        return MessageBuilder.withBody(message.payload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(message.contentType())
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setMessageId(String.valueOf(message.id()))
+                .setHeader(TYPE_ID_HEADER, message.eventType())
+                .build();
+    }
+}
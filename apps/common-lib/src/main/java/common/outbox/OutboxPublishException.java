@@ -0,0 +1,14 @@
+package common.outbox;
+
+/**
+ * Falha ao entregar um lote do outbox ao broker.
+ * <p>
+ * Não provoca rollback da transação do relay: as linhas continuam no outbox
+ * (nada foi deletado), mas o incremento de 'attempts' precisa ser comitado.
+ */
+public class OutboxPublishException extends RuntimeException {
+
+    public OutboxPublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,56 @@
+package common.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Porta de entrada do outbox transacional.
+ * <p>
+ * O evento é gravado NA MESMA TRANSAÇÃO da regra de negócio (propagation = MANDATORY),
+ * então o commit do negócio e do evento é atômico. O envio para o broker fica
+ * a cargo do {@link OutboxScheduler}, fora do caminho da requisição.
+ */
+@Component
+public class OutboxPublisher {
+
+    private final OutboxStore outboxStore;
+    private final OutboxSerializer serializer;
+
+    public OutboxPublisher(OutboxStore outboxStore, OutboxSerializer serializer) {
+        this.outboxStore = outboxStore;
+        this.serializer = serializer;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(IntegrationEvent event) {
+        // Falha de serialização lança BusinessException e derruba a transação do negócio junto
+        String payload = serializer.serialize(event);
+
+        outboxStore.insert(new OutboxMessage(
+                null,
+                event.exchange(),
+                event.routingKey(),
+                payload,
+                serializer.contentType(),
+                event.getClass().getName(),
+                event.version(),
+                event.aggregateKey(),
+                partitionKeyOf(event.aggregateKey()),
+                0,
+                LocalDateTime.now()
+        ));
+    }
+
+    // Hash não negativo da chave; o relay calcula a partição (hash % outbox.partitions) na hora de buscar
+    static int partitionKeyOf(String aggregateKey) {
+        if (aggregateKey == null) {
+            // Sem exigência de ordem: espalha a carga entre as partições
+            return ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE);
+        }
+        return aggregateKey.hashCode() & Integer.MAX_VALUE;
+    }
+}
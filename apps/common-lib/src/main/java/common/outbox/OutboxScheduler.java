@@ -0,0 +1,73 @@
+package common.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Component
+public class OutboxScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxScheduler.class);
+
+    private final OutboxProcessor outboxProcessor;
+    private final int partitions;
+    private final int workers;
+
+    public OutboxScheduler(OutboxProcessor outboxProcessor,
+                           @Value("${outbox.partitions:16}") int partitions,
+                           @Value("${outbox.relay.workers:4}") int workers) {
+        this.outboxProcessor = outboxProcessor;
+        this.partitions = partitions;
+        this.workers = Math.max(1, Math.min(workers, partitions));
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.fixed-delay-ms:2000}")
+    public void processOutbox() {
+        // Cada worker cuida de um subconjunto fixo de partições (p % workers),
+        // então partições diferentes são drenadas em paralelo sem disputa.
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                futures.add(executor.submit(() -> drainPartitions(worker)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    log.warn("Worker do relay do outbox terminou com erro: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void drainPartitions(int worker) {
+        for (int partition = worker; partition < partitions; partition += workers) {
+            drainPartition(partition);
+        }
+    }
+
+    private void drainPartition(int partition) {
+        int published;
+        do {
+            try {
+                published = outboxProcessor.processPartition(partition);
+            } catch (Exception e) {
+                // Se o lote falhar, paramos essa partição até o próximo ciclo
+                // para não ficar "marretando" o banco em loop infinito se o Rabbit cair
+                log.warn("Relay do outbox interrompido na partição {}, nova tentativa no próximo ciclo: {}",
+                        partition, e.getMessage());
+                return;
+            }
+        } while (published == outboxProcessor.getBatchSize());
+        // Lote cheio = provavelmente há mais mensagens; lote parcial = partição drenada.
+    }
+}
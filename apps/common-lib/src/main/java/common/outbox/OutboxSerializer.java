@@ -0,0 +1,14 @@
+package common.outbox;
+
+/**
+ * Serialização do payload gravado no outbox.
+ * <p>
+ * O relay envia o texto gravado como corpo da mensagem AMQP, sem desserializar,
+ * então o formato precisa ser o mesmo que os consumidores esperam (content type).
+ */
+public interface OutboxSerializer {
+
+    String contentType();
+
+    String serialize(Object event);
+}
@@ -0,0 +1,120 @@
+package common.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Acesso JDBC à tabela 'outbox'.
+ * Usa JdbcTemplate (e não JPA) para que qualquer serviço possa usar o outbox
+ * sem precisar registrar a entidade no seu EntityScan.
+ */
+@Component
+public class OutboxStore {
+
+    // Namespace dos advisory locks do relay (evita colisão com outros usos de pg_advisory_lock)
+    private static final int LOCK_NAMESPACE = 0x0B0C;
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("exchange"),
+            rs.getString("routing_key"),
+            rs.getString("payload"),
+            rs.getString("content_type"),
+            rs.getString("event_type"),
+            rs.getInt("version"),
+            rs.getString("aggregate_key"),
+            rs.getInt("partition_key"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("created_at").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // SELECT do lote de cada partição, indexado pelo número da partição
+    private final String[] findBatchSql;
+
+    public OutboxStore(JdbcTemplate jdbcTemplate,
+                       @Value("${outbox.partitions:16}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.findBatchSql = new String[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            findBatchSql[partition] = """
+                    SELECT * FROM outbox
+                    WHERE mod(partition_key, %d) = %d
+                    ORDER BY id ASC
+                    LIMIT ?
+                    """.formatted(partitions, partition);
+        }
+    }
+
+    public void insert(OutboxMessage message) {
+        jdbcTemplate.update("""
+                INSERT INTO outbox (exchange, routing_key, payload, content_type, event_type,
+                                    version, aggregate_key, partition_key, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """,
+                message.exchange(),
+                message.routingKey(),
+                message.payload(),
+                message.contentType(),
+                message.eventType(),
+                message.version(),
+                message.aggregateKey(),
+                message.partitionKey(),
+                Timestamp.valueOf(message.createdAt())
+        );
+    }
+
+    /**
+     * Tenta assumir a partição até o fim da transação atual.
+     * Só um relay (de qualquer instância) processa uma partição por vez,
+     * o que garante a ordem de publicação por chave de agregado.
+     */
+    public boolean tryLockPartition(int partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?, ?)", Boolean.class, LOCK_NAMESPACE, partition));
+    }
+
+    /**
+     * Próximo lote da partição, em ordem de inserção. A partição é calculada aqui, a partir do hash
+     * gravado em 'partition_key': mudar outbox.partitions não deixa linha órfã numa partição que não
+     * existe mais, e as linhas de uma mesma chave continuam juntas numa partição só.
+     * <p>
+     * Divisor e partição vão como literais (um texto de SQL fixo por partição) para o Postgres usar o
+     * índice idx_outbox_particao, (mod(partition_key, 16), id), e as estatísticas dele. Com os dois como
+     * parâmetros, o plano genérico do prepared statement supõe as partições do mesmo tamanho e percorre
+     * a PK filtrando: numa partição já drenada, com backlog nas outras, isso lê a tabela inteira.
+     */
+    public List<OutboxMessage> findBatch(int partition, int limit) {
+        return jdbcTemplate.query(findBatchSql[partition], ROW_MAPPER, limit);
+    }
+
+    public void deleteAll(List<Long> ids) {
+        jdbcTemplate.update("DELETE FROM outbox WHERE id = ANY(?)", ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    public void incrementAttempts(List<Long> ids) {
+        jdbcTemplate.update("UPDATE outbox SET attempts = attempts + 1 WHERE id = ANY(?)", ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Fotografia do backlog: total de linhas pendentes e a data da mais antiga (null se vazio).
+     */
+    public OutboxBacklog backlog() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) AS depth, MIN(created_at) AS oldest FROM outbox",
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp("oldest");
+                    return new OutboxBacklog(rs.getLong("depth"), oldest != null ? oldest.toLocalDateTime() : null);
+                });
+    }
+
+    public record OutboxBacklog(long depth, LocalDateTime oldestCreatedAt) {}
+}
@@ -0,0 +1,27 @@
+package common.security;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Identidade já verificada pelo gateway e repassada aos serviços no header
+ * {@link GatewayIdentityCodec#HEADER} (ver {@link GatewayIdentityCodec}).
+ *
+ * @param subject     'sub' do JWT (e-mail do usuário)
+ * @param userId      claim 'user_id' (null para tokens sem usuário)
+ * @param authorities authorities já no formato do Spring Security (ex.: ROLE_ADMIN, SCOPE_openid)
+ * @param expiresAt   'exp' do JWT; depois disso o header deixa de valer
+ */
+public record GatewayIdentity(String subject, Long userId, List<String> authorities, Instant expiresAt)
+        implements Principal {
+
+    public GatewayIdentity {
+        authorities = List.copyOf(authorities);
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
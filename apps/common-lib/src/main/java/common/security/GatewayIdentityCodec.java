@@ -0,0 +1,113 @@
+package common.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Header compacto e assinado (HMAC-SHA256) com a identidade que o gateway extraiu do JWT.
+ * <p>
+ * Com o modo "gateway confiável" ligado, o gateway valida o JWT uma vez e repassa
+ * {@code v1.<sub>.<user_id>.<authorities>.<exp>.<hmac>} (texto em base64url); o serviço
+ * confere só o HMAC e o exp, sem verificação RSA nem parse de JSON. Gateway e serviços
+ * compartilham o mesmo segredo, que nunca sai da rede interna.
+ * <p>
+ * Thread-safe: cada operação usa o seu próprio {@link Mac}.
+ */
+public final class GatewayIdentityCodec {
+
+    public static final String HEADER = "X-Gateway-Identity";
+
+    private static final String VERSAO = "v1";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+
+    public GatewayIdentityCodec(String secret) {
+        byte[] key = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("Segredo do header de identidade deve ter ao menos "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            this.prototype.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+
+    public String encode(GatewayIdentity identity) {
+        String payload = VERSAO
+                + '.' + B64.encodeToString(identity.subject().getBytes(StandardCharsets.UTF_8))
+                + '.' + (identity.userId() != null ? identity.userId().toString() : "")
+                + '.' + B64.encodeToString(String.join(",", identity.authorities()).getBytes(StandardCharsets.UTF_8))
+                + '.' + identity.expiresAt().getEpochSecond();
+        return payload + '.' + B64.encodeToString(sign(payload));
+    }
+
+    /**
+     * Identidade do header, ou vazio se o formato, a assinatura ou o exp não conferirem.
+     */
+    public Optional<GatewayIdentity> decode(String header, Instant now) {
+        if (header == null) {
+            return Optional.empty();
+        }
+        int ultimoPonto = header.lastIndexOf('.');
+        if (ultimoPonto < 0) {
+            return Optional.empty();
+        }
+        try {
+            String payload = header.substring(0, ultimoPonto);
+            byte[] assinatura = B64_DECODER.decode(header.substring(ultimoPonto + 1));
+            // Comparação em tempo constante
+            if (!MessageDigest.isEqual(sign(payload), assinatura)) {
+                return Optional.empty();
+            }
+
+            String[] campos = payload.split("\\.", -1);
+            if (campos.length != 5 || !VERSAO.equals(campos[0])) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(campos[4]));
+            if (!now.isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+
+            String subject = new String(B64_DECODER.decode(campos[1]), StandardCharsets.UTF_8);
+            Long userId = campos[2].isEmpty() ? null : Long.valueOf(campos[2]);
+            String authorities = new String(B64_DECODER.decode(campos[3]), StandardCharsets.UTF_8);
+            return Optional.of(new GatewayIdentity(subject, userId, split(authorities), expiresAt));
+        } catch (IllegalArgumentException e) {
+            // Base64 ou número inválido
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return mac().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Provider do HmacSHA256 não suporta clone", e);
+        }
+    }
+
+    private static List<String> split(String authorities) {
+        if (authorities.isEmpty()) {
+            return List.of();
+        }
+        return List.of(authorities.split(","));
+    }
+}
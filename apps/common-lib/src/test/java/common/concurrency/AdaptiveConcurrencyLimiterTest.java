@@ -0,0 +1,158 @@
+package common.concurrency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("DEVE subir uma unidade por amostra com latência estável e o limite em uso")
+    void deveSubirComLatenciaEstavel() {
+        // CENÁRIO
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, 2.0);
+        long agora = 0;
+
+        // AÇÃO: 5 amostras de 1ms com o limite inteiro ocupado
+        for (int i = 0; i < 5; i++) {
+            agora += MS;
+            limiter.registrar(MS, limiter.getLimite(), false, agora);
+        }
+
+        // VERIFICAÇÃO
+        assertEquals(15, limiter.getLimite());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE subir quando menos da metade do limite está em uso")
+    void naoDeveSubirComLimiteOcioso() {
+        // CENÁRIO
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 0.5, 2.0);
+
+        // AÇÃO
+        for (int i = 1; i <= 5; i++) {
+            limiter.registrar(MS, 4, false, i * MS);
+        }
+
+        // VERIFICAÇÃO
+        assertEquals(10, limiter.getLimite());
+    }
+
+    @Test
+    @DisplayName("DEVE reduzir multiplicativamente com sobrecarga, no máximo uma vez por latência recente")
+    void deveReduzirComSobrecarga() {
+        // CENÁRIO: primeira amostra define a latência de referência (1ms)
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 1, 100, 0.5, 2.0);
+        limiter.registrar(MS, 0, false, 0);
+
+        // AÇÃO & VERIFICAÇÃO
+        limiter.registrar(MS, 40, true, 2 * MS);
+        assertEquals(20, limiter.getLimite());
+
+        // Várias requisições terminando juntas contam como uma redução só
+        limiter.registrar(MS, 40, true, 2 * MS + 1);
+        limiter.registrar(MS, 40, true, 2 * MS + 2);
+        assertEquals(20, limiter.getLimite());
+
+        limiter.registrar(MS, 40, true, 4 * MS);
+        assertEquals(10, limiter.getLimite());
+    }
+
+    @Test
+    @DisplayName("DEVE reduzir quando a latência recente passa da tolerância sobre a referência")
+    void deveReduzirComLatenciaAlta() {
+        // CENÁRIO: referência em 1ms
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 1, 100, 0.5, 2.0);
+        long agora = 0;
+        for (int i = 0; i < 20; i++) {
+            agora += MS;
+            limiter.registrar(MS, 0, false, agora);
+        }
+
+        // AÇÃO: latência sobe para 10ms, sem sinal externo
+        agora += 20 * MS;
+        limiter.registrar(10 * MS, 0, false, agora);
+
+        // VERIFICAÇÃO
+        assertEquals(20, limiter.getLimite());
+    }
+
+    @Test
+    @DisplayName("DEVE manter o limite entre o mínimo e o máximo")
+    void deveManterLimiteEntreMinimoEMaximo() {
+        // CENÁRIO: limite inicial fora da faixa
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(500, 4, 12, 0.5, 2.0);
+        assertEquals(12, limiter.getLimite());
+
+        // AÇÃO & VERIFICAÇÃO: não passa do máximo
+        long agora = 0;
+        for (int i = 0; i < 10; i++) {
+            agora += MS;
+            limiter.registrar(MS, limiter.getLimite(), false, agora);
+        }
+        assertEquals(12, limiter.getLimite());
+
+        // Nem cai abaixo do mínimo
+        for (int i = 0; i < 10; i++) {
+            agora += 10 * MS;
+            limiter.registrar(MS, 0, true, agora);
+        }
+        assertEquals(4, limiter.getLimite());
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 0, 10, 0.5, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(10, 8, 4, 0.5, 2.0));
+    }
+
+    @Test
+    @DisplayName("DEVE recusar acima do limite e liberar a vaga devolvida")
+    void deveRecusarAcimaDoLimite() {
+        // CENÁRIO
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0);
+
+        // AÇÃO & VERIFICAÇÃO
+        assertEquals(0, limiter.tentarAdquirir());
+        assertEquals(1, limiter.tentarAdquirir());
+        assertEquals(-1, limiter.tentarAdquirir());
+        assertEquals(2, limiter.getEmAndamento());
+
+        limiter.liberar();
+        assertEquals(1, limiter.tentarAdquirir());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE passar do limite nem perder vagas com muitas threads")
+    void naoDevePassarDoLimiteComConcorrencia() {
+        // CENÁRIO
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8, 8, 0.5, 2.0);
+        AtomicInteger maximoVisto = new AtomicInteger();
+
+        // AÇÃO: 16 threads adquirindo e liberando
+        CompletableFuture.allOf(IntStream.range(0, 16).mapToObj(t -> CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                if (limiter.tentarAdquirir() >= 0) {
+                    try {
+                        maximoVisto.accumulateAndGet(limiter.getEmAndamento(), Math::max);
+                        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                            Thread.yield();
+                        }
+                    } finally {
+                        limiter.liberar();
+                    }
+                }
+            }
+        })).toArray(CompletableFuture[]::new)).join();
+
+        // VERIFICAÇÃO
+        assertTrue(maximoVisto.get() <= 8, "em andamento chegou a " + maximoVisto.get());
+        assertEquals(0, limiter.getEmAndamento());
+    }
+}
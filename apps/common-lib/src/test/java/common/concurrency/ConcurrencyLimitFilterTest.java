@@ -0,0 +1,87 @@
+package common.concurrency;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Limite fixo em 1: uma requisição em andamento já ocupa tudo
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, objectMapper,
+            1, 1, 1, 0.9, 2.0, Duration.ofSeconds(1), List.of("/actuator/**"));
+
+    @Test
+    @DisplayName("DEVE recusar com 503 e problem+json quando o limite está ocupado")
+    void deveRecusarComProblemDetail() throws Exception {
+        // CENÁRIO: a segunda requisição chega enquanto a primeira está em andamento
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        FilterChain primeira = (req, res) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/produtos/1"), recusada, new MockFilterChain());
+
+        // AÇÃO
+        filter.doFilter(new MockHttpServletRequest("GET", "/produtos"), new MockHttpServletResponse(), primeira);
+
+        // VERIFICAÇÃO
+        assertEquals(503, recusada.getStatus());
+        assertEquals("1", recusada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON_VALUE, recusada.getContentType().split(";")[0]);
+        JsonNode corpo = objectMapper.readTree(recusada.getContentAsByteArray());
+        assertEquals("Serviço Sobrecarregado", corpo.get("title").asText());
+        assertEquals(503, corpo.get("status").asInt());
+        assertEquals("Limite de requisições simultâneas atingido", corpo.get("detail").asText());
+        assertEquals("https://petshop.com/errors/service-overloaded", corpo.get("type").asText());
+        assertEquals("/produtos/1", corpo.get("instance").asText());
+        assertEquals(1.0, meterRegistry.get("http.server.concurrency.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("DEVE devolver a vaga quando a requisição termina com exceção")
+    void deveDevolverVagaComExcecao() throws Exception {
+        // CENÁRIO
+        FilterChain falha = (req, res) -> {
+            throw new ServletException("falha no controller");
+        };
+
+        // AÇÃO
+        assertThrows(ServletException.class,
+                () -> filter.doFilter(new MockHttpServletRequest("GET", "/produtos"), new MockHttpServletResponse(), falha));
+
+        // VERIFICAÇÃO: a próxima requisição passa
+        assertEquals(0.0, meterRegistry.get("http.server.concurrency.inflight").gauge().value());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/produtos"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE limitar os caminhos ignorados")
+    void naoDeveLimitarCaminhosIgnorados() throws Exception {
+        // CENÁRIO: limite ocupado por uma requisição comum
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        FilterChain ocupando = (req, res) ->
+                filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), health, new MockFilterChain());
+
+        // AÇÃO
+        filter.doFilter(new MockHttpServletRequest("GET", "/produtos"), new MockHttpServletResponse(), ocupando);
+
+        // VERIFICAÇÃO
+        assertEquals(200, health.getStatus());
+    }
+}
@@ -0,0 +1,49 @@
+package common.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class OutboxConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(OutboxConfig.class))
+            .withBean(ObjectMapper.class, ObjectMapper::new);
+
+    @Test
+    @DisplayName("DEVE estar registrada como auto-configuração")
+    void deveEstarRegistradaComoAutoConfiguracao() {
+        assertThat(ImportCandidates.load(AutoConfiguration.class, getClass().getClassLoader()))
+                .contains(OutboxConfig.class.getName());
+    }
+
+    @Test
+    @DisplayName("DEVE usar o serializador JSON quando o serviço não declara outro")
+    void deveUsarSerializadorJsonPorPadrao() {
+        runner.withBean(OutboxStore.class, () -> mock(OutboxStore.class))
+                .run(context -> assertThat(context).getBean(OutboxSerializer.class)
+                        .isInstanceOf(JacksonOutboxSerializer.class));
+    }
+
+    @Test
+    @DisplayName("DEVE manter o serializador declarado pelo serviço")
+    void deveManterSerializadorDoServico() {
+        OutboxSerializer proprio = mock(OutboxSerializer.class);
+        runner.withBean(OutboxStore.class, () -> mock(OutboxStore.class))
+                .withBean(OutboxSerializer.class, () -> proprio)
+                .run(context -> assertThat(context).getBean(OutboxSerializer.class).isSameAs(proprio));
+    }
+
+    @Test
+    @DisplayName("NÃO DEVE configurar nada no serviço que não usa o outbox")
+    void naoDeveConfigurarSemOutbox() {
+        runner.run(context -> assertThat(context).doesNotHaveBean(OutboxSerializer.class));
+    }
+}
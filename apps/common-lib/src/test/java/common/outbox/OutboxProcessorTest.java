@@ -0,0 +1,262 @@
+package common.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Relay do outbox num Postgres real: o advisory lock por partição é o que impede dois relays
+ * (threads ou instâncias) de publicarem a mesma linha.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxProcessorTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private static DataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void criarTabela() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Mesmo formato das migrações dos serviços (V1 a V3 do inv-service)
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS outbox (
+                    id            BIGSERIAL PRIMARY KEY,
+                    exchange      VARCHAR(255) NOT NULL,
+                    routing_key   VARCHAR(255) NOT NULL,
+                    payload       TEXT         NOT NULL,
+                    event_type    VARCHAR(255) NOT NULL,
+                    version       INTEGER      NOT NULL DEFAULT 1,
+                    created_at    TIMESTAMP    NOT NULL,
+                    aggregate_key VARCHAR(255),
+                    partition_key INTEGER      NOT NULL DEFAULT 0,
+                    content_type  VARCHAR(100) NOT NULL DEFAULT 'application/json',
+                    attempts      INTEGER      NOT NULL DEFAULT 0
+                )
+                """);
+    }
+
+    @BeforeEach
+    void limpar() {
+        jdbcTemplate.execute("TRUNCATE outbox");
+    }
+
+    @Test
+    @DisplayName("DEVE publicar cada linha uma vez só, na ordem de cada chave, com dois relays ao mesmo tempo")
+    void devePublicarCadaLinhaUmaVezComDoisRelays() throws Exception {
+        // CENÁRIO: 300 eventos de 30 agregados
+        Map<Long, String> chaves = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            String chave = "produto-" + (i % 30);
+            chaves.put(inserir(chave), chave);
+        }
+        List<Long> publicadas = Collections.synchronizedList(new ArrayList<>());
+        RabbitTemplate rabbitTemplate = rabbitRegistrando(publicadas);
+
+        try (AnnotationConfigApplicationContext relayA = relay(rabbitTemplate, 4, 10);
+             AnnotationConfigApplicationContext relayB = relay(rabbitTemplate, 4, 10)) {
+            // AÇÃO
+            CompletableFuture<Void> a = CompletableFuture.runAsync(() -> drenar(relayA.getBean(OutboxProcessor.class), 4));
+            CompletableFuture<Void> b = CompletableFuture.runAsync(() -> drenar(relayB.getBean(OutboxProcessor.class), 4));
+            CompletableFuture.allOf(a, b).get(30, TimeUnit.SECONDS);
+        }
+
+        // VERIFICAÇÃO
+        assertEquals(300, publicadas.size());
+        assertEquals(300, new HashSet<>(publicadas).size(), "linha publicada por mais de um relay");
+        assertEquals(0, pendentes());
+        Map<String, Long> ultimaPorChave = new HashMap<>();
+        for (Long id : publicadas) {
+            Long anterior = ultimaPorChave.put(chaves.get(id), id);
+            assertTrue(anterior == null || anterior < id, "fora de ordem na chave " + chaves.get(id));
+        }
+    }
+
+    @Test
+    @DisplayName("DEVE ignorar a partição que outro relay está publicando")
+    void deveIgnorarParticaoTravadaPorOutroRelay() throws Exception {
+        // CENÁRIO: relay A parado no meio do envio, com a partição travada
+        inserir("produto-1");
+        int particao = OutboxPublisher.partitionKeyOf("produto-1") % 4;
+        CountDownLatch enviando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        RabbitTemplate lento = mock(RabbitTemplate.class);
+        doAnswer(invocation -> {
+            enviando.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(lento).send(anyString(), anyString(), any(Message.class));
+        RabbitTemplate rapido = mock(RabbitTemplate.class);
+
+        try (AnnotationConfigApplicationContext relayA = relay(lento, 4, 10);
+             AnnotationConfigApplicationContext relayB = relay(rapido, 4, 10)) {
+            CompletableFuture<Integer> a = CompletableFuture.supplyAsync(
+                    () -> relayA.getBean(OutboxProcessor.class).processPartition(particao));
+            assertTrue(enviando.await(10, TimeUnit.SECONDS));
+
+            // AÇÃO
+            int publicadasB = relayB.getBean(OutboxProcessor.class).processPartition(particao);
+            liberar.countDown();
+
+            // VERIFICAÇÃO
+            assertEquals(0, publicadasB);
+            verify(rapido, never()).send(anyString(), anyString(), any(Message.class));
+            assertEquals(1, a.get(10, TimeUnit.SECONDS));
+            assertEquals(0, pendentes());
+        }
+    }
+
+    @Test
+    @DisplayName("DEVE manter o lote e incrementar attempts quando o broker falha")
+    void deveIncrementarAttemptsQuandoBrokerFalha() {
+        // CENÁRIO
+        inserir("produto-1");
+        inserir("produto-1");
+        int particao = OutboxPublisher.partitionKeyOf("produto-1") % 4;
+        RabbitTemplate foraDoAr = mock(RabbitTemplate.class);
+        doThrow(new AmqpConnectException(new java.net.ConnectException("recusada")))
+                .when(foraDoAr).send(anyString(), anyString(), any(Message.class));
+
+        try (AnnotationConfigApplicationContext relay = relay(foraDoAr, 4, 10)) {
+            OutboxProcessor processor = relay.getBean(OutboxProcessor.class);
+
+            // AÇÃO: duas tentativas
+            assertThrows(OutboxPublishException.class, () -> processor.processPartition(particao));
+            assertThrows(OutboxPublishException.class, () -> processor.processPartition(particao));
+        }
+
+        // VERIFICAÇÃO: nada apagado, e o incremento foi comitado apesar da exceção
+        assertEquals(2, pendentes());
+        assertEquals(List.of(2, 2), jdbcTemplate.queryForList("SELECT attempts FROM outbox ORDER BY id", Integer.class));
+    }
+
+    @Test
+    @DisplayName("DEVE drenar linhas gravadas com mais partições depois de reduzir outbox.partitions")
+    void deveDrenarLinhasAoReduzirParticoes() {
+        // CENÁRIO: linhas do layout antigo (hash % 16), inclusive das partições 8 a 15
+        for (int particaoAntiga = 0; particaoAntiga < 16; particaoAntiga++) {
+            jdbcTemplate.update("INSERT INTO outbox (exchange, routing_key, payload, event_type, created_at, partition_key) "
+                    + "VALUES ('ex', 'rk', '{}', 'Evento', ?, ?)", LocalDateTime.now(), particaoAntiga);
+        }
+        List<Long> publicadas = Collections.synchronizedList(new ArrayList<>());
+
+        // AÇÃO: relay configurado com 4 partições
+        try (AnnotationConfigApplicationContext relay = relay(rabbitRegistrando(publicadas), 4, 10)) {
+            drenar(relay.getBean(OutboxProcessor.class), 4);
+        }
+
+        // VERIFICAÇÃO
+        assertEquals(16, publicadas.size());
+        assertEquals(0, pendentes());
+    }
+
+    // Como o OutboxScheduler: cada partição até vir lote parcial, repetindo enquanto sobrar linha
+    // (a partição pode ter sido pulada por estar com o outro relay)
+    private static void drenar(OutboxProcessor processor, int partitions) {
+        while (pendentes() > 0) {
+            for (int p = 0; p < partitions; p++) {
+                while (processor.processPartition(p) == processor.getBatchSize()) {
+                    // lote cheio: continua na mesma partição
+                }
+            }
+        }
+    }
+
+    private static RabbitTemplate rabbitRegistrando(List<Long> publicadas) {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            publicadas.add(Long.valueOf(message.getMessageProperties().getMessageId()));
+            Thread.sleep(1);
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+        return rabbitTemplate;
+    }
+
+    private static AnnotationConfigApplicationContext relay(RabbitTemplate rabbitTemplate, int partitions, int batchSize) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("outbox", Map.of(
+                "outbox.partitions", partitions,
+                "outbox.relay.batch-size", batchSize)));
+        context.registerBean(RabbitTemplate.class, () -> rabbitTemplate);
+        context.register(RelayConfig.class, OutboxStore.class, OutboxMetrics.class, OutboxProcessor.class);
+        context.refresh();
+        return context;
+    }
+
+    private static Long inserir(String aggregateKey) {
+        return jdbcTemplate.queryForObject("INSERT INTO outbox (exchange, routing_key, payload, event_type, created_at, "
+                        + "aggregate_key, partition_key) VALUES ('ex', 'rk', '{}', 'Evento', ?, ?, ?) RETURNING id",
+                Long.class, LocalDateTime.now(), aggregateKey, OutboxPublisher.partitionKeyOf(aggregateKey));
+    }
+
+    private static int pendentes() {
+        Integer total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Integer.class);
+        return total != null ? total : 0;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class RelayConfig {
+
+        @Bean
+        DataSource dataSource() {
+            return dataSource;
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
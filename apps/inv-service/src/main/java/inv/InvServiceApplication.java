@@ -2,10 +2,10 @@ package inv;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.ComponentScan;
 
-@SpringBootApplication
-@ComponentScan(basePackages = {"inv", "common"})
+// scanBasePackages (e não um @ComponentScan próprio) mantém o filtro que tira as auto-configurações
+// do common-lib (META-INF/spring/...AutoConfiguration.imports) da varredura
+@SpringBootApplication(scanBasePackages = {"inv", "common"})
 public class InvServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(InvServiceApplication.class, args);
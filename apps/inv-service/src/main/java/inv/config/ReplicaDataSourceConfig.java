@@ -0,0 +1,81 @@
+package inv.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de leitura: transações {@code @Transactional(readOnly = true)} (dashboard, listagens, busca
+ * por EAN, histórico de movimentações) saem do primário, que fica para o checkout.
+ * <p>
+ * Desligado por padrão; sem esta configuração o Spring Boot cria o DataSource único de sempre.
+ * Cada pool tem nome próprio ({@code inv-primary}, {@code inv-replica}) nas métricas hikaricp_*.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inv.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("inv-primary");
+        return dataSource;
+    }
+
+    // Fora do health "db" (réplica caída não derruba o serviço, só manda as leituras para o primário);
+    // por isso as métricas do pool são ligadas aqui e não pela auto-configuração
+    @Bean(defaultCandidate = false)
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              MeterRegistry meterRegistry,
+                                              @Value("${inv.datasource.replica.url}") String url,
+                                              @Value("${inv.datasource.replica.username}") String username,
+                                              @Value("${inv.datasource.replica.password}") String password,
+                                              @Value("${inv.datasource.replica.maximum-pool-size:10}") int tamanhoPool) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.getDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("inv-replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMaximumPoolSize(tamanhoPool);
+        // Réplica fora do ar não pode segurar a leitura pelos 30s padrão: falha rápido e vai para o primário
+        dataSource.setConnectionTimeout(2000);
+        // Sobe mesmo com a réplica fora; o monitor a mantém indisponível até responder
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${inv.datasource.replica.atraso-maximo:PT5S}") Duration atrasoMaximo) {
+        return new ReplicaLagMonitor(replica, meterRegistry, atrasoMaximo);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primario, replica, monitor, meterRegistry));
+    }
+}
@@ -0,0 +1,92 @@
+package inv.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mede periodicamente o atraso de replicação da réplica de leitura e decide se ela pode atender.
+ * <p>
+ * Começa indisponível (tudo no primário) até a primeira medição. Réplica fora do ar, sem conexão
+ * com o primário há mais que o limite ou atrasada além de {@code inv.datasource.replica.atraso-maximo}
+ * fica indisponível até uma medição boa.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Sem WAL pendente e com o walreceiver conectado a réplica está em dia, mesmo que o primário esteja
+    // sem escrita (aí o replay_timestamp fica velho). Fora de recovery é uma instância comum (ex.: teste local).
+    private static final String SQL_ATRASO = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                            AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver) THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 'Infinity')
+                   END::FLOAT8
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double atrasoMaximoSegundos;
+
+    private volatile double atrasoSegundos = Double.NaN;
+    private volatile boolean disponivel;
+
+    public ReplicaLagMonitor(DataSource replica, MeterRegistry meterRegistry, Duration atrasoMaximo) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout(2);
+        this.atrasoMaximoSegundos = atrasoMaximo.toMillis() / 1000.0;
+
+        Gauge.builder("inv.datasource.replica.lag", this, m -> m.atrasoSegundos)
+                .description("Atraso de replicação da réplica de leitura, em segundos (NaN se inacessível)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("inv.datasource.replica.available", this, m -> m.disponivel ? 1 : 0)
+                .description("1 enquanto as transações readOnly estão indo para a réplica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inv.datasource.replica.verificacao-ms:1000}")
+    public void verificar() {
+        double atraso;
+        try {
+            atraso = jdbcTemplate.queryForObject(SQL_ATRASO, Double.class);
+        } catch (Exception e) {
+            registrarFalha(e);
+            return;
+        }
+
+        atrasoSegundos = atraso;
+        boolean dentroDoLimite = atraso <= atrasoMaximoSegundos;
+        if (dentroDoLimite != disponivel) {
+            if (dentroDoLimite) {
+                log.info("Réplica de leitura em dia (atraso {}s); leituras readOnly voltam para ela", atraso);
+            } else {
+                log.warn("Réplica de leitura atrasada {}s (limite {}s); leituras readOnly vão para o primário",
+                        atraso, atrasoMaximoSegundos);
+            }
+        }
+        disponivel = dentroDoLimite;
+    }
+
+    /**
+     * Tira a réplica de uso até a próxima medição bem-sucedida (ex.: falha ao obter conexão).
+     */
+    public void registrarFalha(Exception e) {
+        atrasoSegundos = Double.NaN;
+        if (disponivel) {
+            log.warn("Réplica de leitura inacessível; leituras readOnly vão para o primário: {}", e.getMessage());
+        }
+        disponivel = false;
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+}
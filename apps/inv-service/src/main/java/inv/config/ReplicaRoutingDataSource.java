@@ -0,0 +1,70 @@
+package inv.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Entrega conexões da réplica para transações {@code readOnly} e do primário para todo o resto.
+ * <p>
+ * A decisão acontece ao obter a conexão física, então este DataSource precisa ficar atrás de um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: no primeiro comando SQL
+ * a transação já está registrada como readOnly. Com a réplica atrasada ou inacessível
+ * ({@link ReplicaLagMonitor}) a leitura vai para o primário.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final Counter leiturasReplica;
+    private final Counter leiturasPrimario;
+
+    public ReplicaRoutingDataSource(DataSource primario, DataSource replica, ReplicaLagMonitor monitor,
+                                    MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.leiturasReplica = leituras(meterRegistry, "replica");
+        this.leiturasPrimario = leituras(meterRegistry, "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primario.getConnection();
+        }
+
+        if (monitor.isDisponivel()) {
+            try {
+                Connection conexao = replica.getConnection();
+                leiturasReplica.increment();
+                return conexao;
+            } catch (SQLException e) {
+                // Pool esgotado ou réplica caída: a leitura não falha por causa dela
+                monitor.registrarFalha(e);
+            }
+        }
+
+        leiturasPrimario.increment();
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Usuário e senha vêm da configuração de cada pool");
+    }
+
+    private static Counter leituras(MeterRegistry meterRegistry, String destino) {
+        return Counter.builder("inv.datasource.readonly.connections")
+                .description("Conexões entregues a transações readOnly, por destino")
+                .tag("target", destino)
+                .register(meterRegistry);
+    }
+}
@@ -1,6 +1,8 @@
 package inv.config;
 
+import common.security.GatewayIdentityCodec;
 import common.security.RsaKeyUtils;
+import inv.security.GatewayIdentityFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,7 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Collection;
@@ -25,6 +28,12 @@ public class SecurityConfig {
     @Value("${jwt.public.key}")
     private String publicKeyString;
 
+    @Value("${security.gateway-identity.enabled:false}")
+    private boolean gatewayIdentityEnabled;
+
+    @Value("${security.gateway-identity.secret:}")
+    private String gatewayIdentitySecret;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -42,6 +51,13 @@ public class SecurityConfig {
                         )
                 );
 
+        // Modo "gateway confiável": identidade assinada pelo gateway dispensa a verificação do JWT
+        if (gatewayIdentityEnabled) {
+            http.addFilterBefore(new GatewayIdentityFilter(new GatewayIdentityCodec(gatewayIdentitySecret)),
+                    BearerTokenAuthenticationFilter.class);
+            http.oauth2ResourceServer(oauth2 -> oauth2.bearerTokenResolver(GatewayIdentityFilter.bearerTokenResolver()));
+        }
+
         return http.build();
     }
 
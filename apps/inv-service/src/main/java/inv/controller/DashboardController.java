@@ -2,10 +2,13 @@ package inv.controller;
 
 import inv.dto.DashboardStats;
 import inv.service.DashboardService;
+import inv.service.DashboardStreamHub;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.*;
 
@@ -14,9 +17,11 @@ import java.util.*;
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardStreamHub dashboardStreamHub;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, DashboardStreamHub dashboardStreamHub) {
         this.dashboardService = dashboardService;
+        this.dashboardStreamHub = dashboardStreamHub;
     }
 
     @GetMapping("/stats")
@@ -26,4 +31,14 @@ public class DashboardController {
 
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+
+    /**
+     * Atualizações do dashboard em tempo real (SSE), no lugar do polling de /stats.
+     * Eventos: 'venda' (RecentSaleDTO) e 'estoque-baixo' (EstoqueBaixoMessage), sempre após o commit.
+     * O front carrega /stats uma vez (e a cada reconexão) e aplica os deltas.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return dashboardStreamHub.inscrever();
+    }
+}
@@ -1,16 +1,29 @@
 package inv.controller;
 
+import inv.dto.CatalogoDelta;
+import inv.dto.DisponibilidadeResponse;
+import inv.dto.FaixasEstoqueRequest;
+import inv.dto.ProdutoLoteRequest;
+import inv.dto.ProdutoLoteResponse;
 import inv.dto.ProdutoRequest;
 import inv.dto.ProdutoResponse;
+import inv.dto.VendaRequest;
 import inv.model.Produto;
+import inv.service.CatalogoSyncService;
+import inv.service.ProdutoEtags;
 import inv.service.ProdutoService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.HtmlUtils;
 import org.springframework.security.access.prepost.PreAuthorize;
 
@@ -18,10 +31,15 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @RequestMapping("/produtos")
 public class ProdutoController {
 
+    // Cliente pode guardar, mas revalida sempre com If-None-Match (sem isso o Spring Security manda no-store)
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
     private final ProdutoService produtoService;
+    private final CatalogoSyncService catalogoSyncService;
 
-    public ProdutoController(ProdutoService produtoService) {
+    public ProdutoController(ProdutoService produtoService, CatalogoSyncService catalogoSyncService) {
         this.produtoService = produtoService;
+        this.catalogoSyncService = catalogoSyncService;
     }
 
     @PostMapping
@@ -43,13 +61,39 @@ public class ProdutoController {
        return ResponseEntity.ok(response);
     }
 
+    /**
+     * Busca em lote por ids e/ou EANs: o carrinho inteiro numa requisição (e numa consulta).
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<ProdutoLoteResponse> buscarEmLote(@RequestBody @Valid ProdutoLoteRequest request) {
+        return ResponseEntity.ok(produtoService.buscarEmLote(request));
+    }
+
+    /**
+     * Confere o carrinho (mesmo payload do POST /vendas) contra o estoque, sem baixar nada.
+     */
+    @PostMapping("/disponibilidade")
+    public ResponseEntity<DisponibilidadeResponse> verificarDisponibilidade(@RequestBody @Valid VendaRequest request) {
+        return ResponseEntity.ok(produtoService.verificarDisponibilidade(request));
+    }
+
     @GetMapping("/ean/{ean}")
     public ResponseEntity<Produto> buscarPorEan(
             @PathVariable
             @Pattern(regexp = "\\d{8,14}", message = "O EAN deve conter entre 8 e 14 dígitos numéricos")
-            String ean
+            String ean,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(produtoService.buscarPorEan(ean));
+        // Revalidação: compara só (id, version) pelo índice único do EAN, sem carregar o produto
+        if (temIfNoneMatch(request)) {
+            String etag = produtoService.etagPorEan(ean).orElse(null);
+            if (etag != null && request.checkNotModified(etag)) {
+                return naoModificado(etag);
+            }
+        }
+
+        Produto produto = produtoService.buscarPorEan(ean);
+        return ResponseEntity.ok().cacheControl(REVALIDAR).eTag(ProdutoEtags.de(produto)).body(produto);
     }
 
     @GetMapping
@@ -57,22 +101,74 @@ public class ProdutoController {
             @RequestParam(required = false) String nome,
             @RequestParam(required = false) String busca,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request
     ) {
         int tamanhoSeguro = Math.min(size, 50);
-        Pageable pageable = PageRequest.of(page, tamanhoSeguro);
+        // Ordem estável: sem ela a página (e o ETag) mudaria entre execuções do mesmo plano
+        Pageable pageable = PageRequest.of(page, tamanhoSeguro, Sort.by("id"));
 
         String termoBusca = (nome != null && !nome.isBlank()) ? nome : busca;
+        if (termoBusca != null && termoBusca.isBlank()) {
+            termoBusca = null;
+        }
 
-        if (termoBusca != null && !termoBusca.isBlank()) {
-            return ResponseEntity.ok(produtoService.buscarPorNome(termoBusca, pageable));
+        if (temIfNoneMatch(request)) {
+            String etag = produtoService.etagDaPagina(termoBusca, pageable);
+            if (request.checkNotModified(etag)) {
+                return naoModificado(etag);
+            }
         }
 
-        return ResponseEntity.ok(produtoService.listarTodos(pageable));
+        Page<Produto> pagina = termoBusca != null
+                ? produtoService.buscarPorNome(termoBusca, pageable)
+                : produtoService.listarTodos(pageable);
+
+        return ResponseEntity.ok().cacheControl(REVALIDAR).eTag(ProdutoEtags.daPagina(pagina)).body(pagina);
+    }
+
+    /**
+     * Feed incremental do catálogo para o cache offline dos PDVs.
+     * Sem 'since' devolve o catálogo inteiro (paginado por keyset); depois, só o que mudou,
+     * incluindo produtos removidos (removido = true).
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogoDelta> alteracoes(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "" + CatalogoSyncService.LIMITE_PADRAO) int limit
+    ) {
+        return ResponseEntity.ok(catalogoSyncService.alteracoesDesde(since, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Produto> buscarPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(produtoService.buscarPorId(id));
+    public ResponseEntity<Produto> buscarPorId(@PathVariable Long id, WebRequest request) {
+        if (temIfNoneMatch(request)) {
+            String etag = produtoService.etagPorId(id).orElse(null);
+            if (etag != null && request.checkNotModified(etag)) {
+                return naoModificado(etag);
+            }
+        }
+
+        Produto produto = produtoService.buscarPorId(id);
+        return ResponseEntity.ok().cacheControl(REVALIDAR).eTag(ProdutoEtags.de(produto)).body(produto);
+    }
+
+    /**
+     * Estoque em faixas para produtos muito vendidos (0 desliga).
+     */
+    @PutMapping("/{id}/faixas-estoque")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Produto> configurarFaixasEstoque(@PathVariable Long id,
+                                                           @RequestBody @Valid FaixasEstoqueRequest request) {
+        return ResponseEntity.ok(produtoService.configurarFaixasEstoque(id, request.faixas()));
+    }
+
+    // Sem If-None-Match não há o que revalidar: evita a consulta extra da versão
+    private static boolean temIfNoneMatch(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    private static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDAR).eTag(etag).build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package inv.controller;
+
+import inv.dto.ReciboResponse;
+import inv.dto.ReservaResponse;
+import inv.dto.VendaRequest;
+import inv.service.ReservaService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Checkout em duas fases: reserva o carrinho (mesmo payload do POST /vendas) e depois confirma
+ * (vira venda) ou cancela. Reserva não confirmada expira sozinha (inv.reserva.ttl).
+ * A reserva é de quem a criou ('sub' do JWT ou do header do gateway): para os demais responde 404.
+ */
+@RestController
+@RequestMapping("/reservas")
+public class ReservaController {
+
+    private final ReservaService reservaService;
+
+    public ReservaController(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReservaResponse> reservar(@RequestBody @Valid VendaRequest request,
+                                                    Authentication authentication) {
+        return ResponseEntity.ok(reservaService.reservar(request, authentication.getName()));
+    }
+
+    @PostMapping("/{id}/confirmacao")
+    public ResponseEntity<ReciboResponse> confirmar(@PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservaService.confirmar(id, authentication.getName()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id, Authentication authentication) {
+        reservaService.cancelar(id, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,7 +1,10 @@
 package inv.controller;
 
 import inv.dto.ReciboResponse;
+import inv.dto.VendaLoteRequest;
+import inv.dto.VendaLoteResponse;
 import inv.dto.VendaRequest;
+import inv.service.VendaLoteService;
 import inv.service.VendaService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -15,9 +18,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class VendaController {
 
     private final VendaService vendaService;
+    private final VendaLoteService vendaLoteService;
 
-    public VendaController(VendaService vendaService) {
+    public VendaController(VendaService vendaService, VendaLoteService vendaLoteService) {
         this.vendaService = vendaService;
+        this.vendaLoteService = vendaLoteService;
     }
 
     @PostMapping
@@ -25,4 +30,13 @@ public class VendaController {
         ReciboResponse recibo = vendaService.realizarVenda(request);
         return ResponseEntity.ok(recibo);
     }
-}
\ No newline at end of file
+
+    /**
+     * Vendas acumuladas offline pelo PDV. Cada venda tem seu resultado (OK ou o motivo da recusa);
+     * a resposta é 200 mesmo com recusas parciais.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<VendaLoteResponse> registrarLote(@RequestBody @Valid VendaLoteRequest request) {
+        return ResponseEntity.ok(vendaLoteService.registrarLote(request));
+    }
+}
@@ -0,0 +1,14 @@
+package inv.dto;
+
+import java.util.List;
+
+/**
+ * Resposta do GET /produtos/changes.
+ * O PDV aplica 'alteracoes' (upsert ou remoção pelo id) e guarda 'proximo' para a chamada seguinte;
+ * com 'temMais' = true ele chama de novo imediatamente.
+ */
+public record CatalogoDelta(
+        List<ProdutoAlteracao> alteracoes,
+        String proximo,
+        boolean temMais
+) {}
@@ -0,0 +1,21 @@
+package inv.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado do POST /produtos/disponibilidade: uma linha por produto do carrinho
+ * (linhas repetidas do mesmo produto são somadas), com o mesmo vocabulário de status da 'registrar_venda'.
+ */
+public record DisponibilidadeResponse(
+        boolean disponivel,
+        List<Item> itens
+) {
+    public record Item(
+            Long produtoId,
+            String nome,
+            BigDecimal quantidadeSolicitada,
+            BigDecimal quantidadeEstoque,
+            String status
+    ) {}
+}
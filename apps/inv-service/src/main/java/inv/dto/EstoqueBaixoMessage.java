@@ -1,5 +1,8 @@
 package inv.dto;
 
+import common.outbox.IntegrationEvent;
+import inv.config.RabbitMQConfig;
+
 import java.math.BigDecimal;
 
 public record EstoqueBaixoMessage(
@@ -8,4 +11,21 @@ public record EstoqueBaixoMessage(
         String nomeProduto,
         BigDecimal estoqueAtual,
         BigDecimal estoqueMinimo
-) {}
\ No newline at end of file
+) implements IntegrationEvent {
+
+    @Override
+    public String exchange() {
+        return RabbitMQConfig.EXCHANGE_NAME;
+    }
+
+    @Override
+    public String routingKey() {
+        return RabbitMQConfig.ROUTING_KEY_LOW_STOCK;
+    }
+
+    // Alertas do mesmo produto saem na ordem em que aconteceram
+    @Override
+    public String aggregateKey() {
+        return nomeProduto;
+    }
+}
@@ -0,0 +1,15 @@
+package inv.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Número de faixas do estoque do produto (0 desliga e volta o saldo inteiro para o produto).
+ */
+public record FaixasEstoqueRequest(
+        @NotNull(message = "Informe o número de faixas")
+        @Min(value = 0, message = "O número de faixas não pode ser negativo")
+        @Max(value = 64, message = "No máximo 64 faixas por produto")
+        Integer faixas
+) {}
@@ -0,0 +1,24 @@
+package inv.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha retornada pela função 'registrar_venda': uma por produto da venda.
+ * Quando a validação falha, 'status' traz o motivo e os dados da venda vêm nulos.
+ */
+public record LinhaVendaRegistrada(
+        Long vendaId,
+        BigDecimal valorTotal,
+        LocalDateTime dataHora,
+        Long produtoId,
+        String nomeProduto,
+        BigDecimal saldoAnterior,
+        BigDecimal saldoAtual,
+        BigDecimal estoqueMinimo,
+        String status
+) {
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_NAO_ENCONTRADO = "NAO_ENCONTRADO";
+    public static final String STATUS_ESTOQUE_INSUFICIENTE = "ESTOQUE_INSUFICIENTE";
+}
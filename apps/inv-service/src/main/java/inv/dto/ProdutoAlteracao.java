@@ -0,0 +1,21 @@
+package inv.dto;
+
+import inv.model.UnidadeMedida;
+
+import java.math.BigDecimal;
+
+/**
+ * Uma linha do feed de alterações do catálogo.
+ * Em tombstones ('removido' = true) só vêm o id e o código de barras.
+ */
+public record ProdutoAlteracao(
+        Long id,
+        String codigoBarras,
+        String nome,
+        UnidadeMedida unidadeMedida,
+        BigDecimal quantidadeEstoque,
+        BigDecimal precoVenda,
+        BigDecimal estoqueMinimo,
+        Long version,
+        boolean removido
+) {}
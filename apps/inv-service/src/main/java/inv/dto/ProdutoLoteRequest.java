@@ -0,0 +1,17 @@
+package inv.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Busca em lote por ids e/ou EANs (carrinho do PDV). Ao menos uma das listas deve vir preenchida.
+ */
+public record ProdutoLoteRequest(
+        @Size(max = 200, message = "No máximo 200 ids por requisição")
+        List<Long> ids,
+
+        @Size(max = 200, message = "No máximo 200 EANs por requisição")
+        List<@Pattern(regexp = "\\d{8,14}", message = "O EAN deve conter entre 8 e 14 dígitos numéricos") String> eans
+) {}
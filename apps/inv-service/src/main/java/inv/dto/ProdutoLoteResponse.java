@@ -0,0 +1,14 @@
+package inv.dto;
+
+import inv.model.Produto;
+
+import java.util.List;
+
+/**
+ * Produtos encontrados e o que foi pedido mas não existe (para o PDV sinalizar a linha do carrinho).
+ */
+public record ProdutoLoteResponse(
+        List<Produto> produtos,
+        List<Long> idsNaoEncontrados,
+        List<String> eansNaoEncontrados
+) {}
@@ -0,0 +1,7 @@
+package inv.dto;
+
+/**
+ * Projeção mínima de um produto (PK + @Version) usada para montar ETags
+ * sem hidratar a entidade inteira.
+ */
+public record ProdutoVersao(Long id, Long version) {}
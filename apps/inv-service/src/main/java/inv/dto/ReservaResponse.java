@@ -0,0 +1,29 @@
+package inv.dto;
+
+import inv.model.Reserva;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reserva criada: o estoque fica preso até 'expiraEm'. Itens com as quantidades somadas por produto.
+ */
+public record ReservaResponse(
+        Long id,
+        LocalDateTime expiraEm,
+        List<Item> itens
+) {
+
+    public record Item(Long produtoId, BigDecimal quantidade) {}
+
+    public static ReservaResponse de(Reserva reserva) {
+        return new ReservaResponse(
+                reserva.getId(),
+                reserva.getExpiraEm(),
+                reserva.getItens().stream()
+                        .map(item -> new Item(item.getProdutoId(), item.getQuantidade()))
+                        .toList()
+        );
+    }
+}
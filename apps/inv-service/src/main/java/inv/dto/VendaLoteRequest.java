@@ -0,0 +1,17 @@
+package inv.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Vendas acumuladas offline pelo PDV, enviadas de uma vez na reconexão.
+ */
+public record VendaLoteRequest(
+        @NotEmpty(message = "O lote não pode estar vazio")
+        @Size(max = 1000, message = "No máximo 1000 vendas por lote")
+        @Valid
+        List<VendaRequest> vendas
+) {}
@@ -0,0 +1,26 @@
+package inv.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resultado por venda, na mesma ordem do lote ('indice' = posição no request).
+ * 'status' usa o vocabulário da 'registrar_venda' (OK / NAO_ENCONTRADO / ESTOQUE_INSUFICIENTE) mais ERRO.
+ */
+public record VendaLoteResponse(
+        int sucesso,
+        int falhas,
+        List<Resultado> resultados
+) {
+    public static final String STATUS_ERRO = "ERRO";
+
+    public record Resultado(
+            int indice,
+            String status,
+            Long vendaId,
+            BigDecimal valorTotal,
+            LocalDateTime dataHora,
+            String mensagem
+    ) {}
+}
@@ -0,0 +1,15 @@
+package inv.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Venda gravada. Ouvida após o commit para empurrar a atualização do dashboard via SSE.
+ */
+public record VendaRealizadaEvent(
+        Long vendaId,
+        String destaque,
+        BigDecimal valorTotal,
+        LocalDateTime dataHora
+) {
+}
@@ -0,0 +1,47 @@
+package inv.listener;
+
+import inv.dto.DashboardStats.RecentSaleDTO;
+import inv.event.EstoqueAtingiuMinimoEvent;
+import inv.event.VendaRealizadaEvent;
+import inv.service.DashboardStreamHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Converte os eventos de domínio em deltas do dashboard.
+ * <p>
+ * phase = AFTER_COMMIT: a tela só recebe o que de fato foi gravado; venda que sofreu
+ * rollback (ex.: estoque insuficiente no meio do carrinho) nunca aparece.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardStreamListener {
+
+    public static final String EVENTO_VENDA = "venda";
+    public static final String EVENTO_ESTOQUE_BAIXO = "estoque-baixo";
+
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final DashboardStreamHub hub;
+
+    // Mesmo formato de 'recentSales' do /dashboard/stats: o front soma receita/contagem e insere na lista
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVendaRealizada(VendaRealizadaEvent event) {
+        hub.publicar(EVENTO_VENDA, new RecentSaleDTO(
+                String.valueOf(event.vendaId()),
+                event.destaque(),
+                event.valorTotal(),
+                event.dataHora().format(HORA)
+        ));
+    }
+
+    // Só transições (acima -> no mínimo), então cada evento é +1 em 'lowStockCount'
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEstoqueBaixo(EstoqueAtingiuMinimoEvent event) {
+        hub.publicar(EVENTO_ESTOQUE_BAIXO, event.payload());
+    }
+}
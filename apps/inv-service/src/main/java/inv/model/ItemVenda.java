@@ -12,8 +12,10 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class ItemVenda {
 
+    // allocationSize igual ao INCREMENT BY da sequence (V6): permite INSERT em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "itens-venda-seq")
+    @SequenceGenerator(name = "itens-venda-seq", sequenceName = "itens_venda_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
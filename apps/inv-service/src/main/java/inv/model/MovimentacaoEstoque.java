@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class MovimentacaoEstoque {
 
+    // allocationSize igual ao INCREMENT BY da sequence (V6): permite INSERT em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimentacoes-estoque-seq")
+    @SequenceGenerator(name = "movimentacoes-estoque-seq", sequenceName = "movimentacoes_estoque_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,36 +0,0 @@
-package inv.model;
-
-import jakarta.persistence.*;
-import lombok.*;
-import java.time.LocalDateTime;
-
-@Entity
-@Table(name = "outbox")
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-public class Outbox {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(nullable = false)
-    private String exchange;
-
-    @Column(nullable = false)
-    private String routingKey;
-
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String payload;
-
-    @Column(nullable = false)
-    private String eventType;
-
-    @Column(nullable = false, columnDefinition = "INT DEFAULT 1")
-    private int version;
-
-    @Column(nullable = false)
-    private LocalDateTime createdAt;
-}
\ No newline at end of file
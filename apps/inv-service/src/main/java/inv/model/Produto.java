@@ -32,9 +32,17 @@ public class Produto {
     @Column(precision = 10, scale = 3, nullable = false)
     private BigDecimal quantidadeEstoque;
 
+    // Preso em reservas ativas (V8). Só as funções de reserva escrevem: o flush da entidade não pode sobrescrever
+    @Column(precision = 10, scale = 3, insertable = false, updatable = false)
+    private BigDecimal quantidadeReservada = BigDecimal.ZERO;
+
     @Column(precision = 10, scale = 2, nullable = false)
     private BigDecimal precoVenda;
 
+    // > 0: saldo dividido em faixas (estoque_faixas, V7). Alterado só por 'configurar_faixas_estoque'
+    @Column(nullable = false, updatable = false)
+    private int faixasEstoque;
+
     @Version
     private Long version;
 }
\ No newline at end of file
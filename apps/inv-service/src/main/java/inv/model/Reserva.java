@@ -0,0 +1,48 @@
+package inv.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estoque preso para um carrinho até 'expiraEm' (POST /reservas). Confirmada vira venda;
+ * cancelada ou vencida devolve o estoque e a linha é apagada.
+ */
+@Entity
+@Table(name = "reservas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Reserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 'sub' de quem reservou: só ele confirma ou cancela
+    @Column(nullable = false)
+    private String usuario;
+
+    @Column(nullable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    // Uma linha por produto, com as quantidades do carrinho já somadas
+    @ElementCollection
+    @CollectionTable(name = "reserva_itens", joinColumns = @JoinColumn(name = "reserva_id"))
+    @OrderBy("produtoId")
+    private List<ItemReserva> itens = new ArrayList<>();
+
+    public boolean isAtiva(LocalDateTime agora) {
+        return expiraEm.isAfter(agora);
+    }
+
+    public boolean pertenceA(String usuario) {
+        return this.usuario.equals(usuario);
+    }
+}
@@ -15,8 +15,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Venda {
 
+    // allocationSize igual ao INCREMENT BY da sequence (V6): permite INSERT em batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vendas-seq")
+    @SequenceGenerator(name = "vendas-seq", sequenceName = "vendas_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,78 @@
+package inv.repository;
+
+import inv.dto.ProdutoAlteracao;
+import inv.model.UnidadeMedida;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Leitura do feed de alterações do catálogo (colunas 'change_seq' da V5).
+ * Produtos e tombstones são lidos pelo índice (change_seq, id) com keyset, nunca com OFFSET.
+ */
+@Repository
+public class CatalogoChangeRepository {
+
+    // Cada ramo usa o próprio índice e já para no LIMIT; o UNION só intercala as duas listas curtas
+    private static final String SQL = """
+            SELECT * FROM (
+                (SELECT p.id, p.change_seq, p.codigo_barras, p.nome, p.unidade_medida, p.quantidade_estoque,
+                        p.preco_venda, p.estoque_minimo, p.version, FALSE AS removido
+                 FROM produtos p
+                 WHERE (p.change_seq, p.id) > (?, ?)
+                 ORDER BY p.change_seq, p.id
+                 LIMIT ?)
+                UNION ALL
+                (SELECT r.produto_id, r.change_seq, r.codigo_barras, NULL, NULL, NULL,
+                        NULL, NULL, NULL, TRUE
+                 FROM produtos_removidos r
+                 WHERE (r.change_seq, r.produto_id) > (?, ?)
+                 ORDER BY r.change_seq, r.produto_id
+                 LIMIT ?)
+            ) feed
+            ORDER BY change_seq, id
+            LIMIT ?
+            """;
+
+    private static final RowMapper<Linha> ROW_MAPPER = (rs, rowNum) -> {
+        String unidade = rs.getString("unidade_medida");
+        return new Linha(rs.getLong("change_seq"), new ProdutoAlteracao(
+                rs.getLong("id"),
+                rs.getString("codigo_barras"),
+                rs.getString("nome"),
+                unidade != null ? UnidadeMedida.valueOf(unidade) : null,
+                rs.getBigDecimal("quantidade_estoque"),
+                rs.getBigDecimal("preco_venda"),
+                rs.getBigDecimal("estoque_minimo"),
+                rs.getObject("version", Long.class),
+                rs.getBoolean("removido")
+        ));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogoChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * xmin do snapshot atual: toda transação com xid menor já terminou,
+     * então nenhuma alteração com change_seq abaixo disso ainda vai aparecer.
+     */
+    public long horizonte() {
+        return jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::BIGINT", Long.class);
+    }
+
+    /**
+     * Alterações estritamente depois do cursor (changeSeq, id), em ordem.
+     * Cada item vem com o próprio change_seq para o chamador montar o próximo cursor.
+     */
+    public List<Linha> alteracoesApos(long changeSeq, long id, int limite) {
+        return jdbcTemplate.query(SQL, ROW_MAPPER, changeSeq, id, limite, changeSeq, id, limite, limite);
+    }
+
+    public record Linha(long changeSeq, ProdutoAlteracao alteracao) {}
+}
@@ -0,0 +1,70 @@
+package inv.repository;
+
+import inv.dto.DisponibilidadeResponse;
+import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Conferência do carrinho contra o estoque numa única consulta (sem travar nada: é só uma prévia,
+ * a baixa de verdade continua atômica no checkout). O saldo devolvido é o disponível: estoque menos
+ * o reservado, ou a soma das faixas nos produtos com estoque em faixas.
+ * <p>
+ * Mesmo esquema da {@link VendaProcedureRepository}: itens como dois arrays, SQL sempre igual.
+ */
+@Repository
+public class DisponibilidadeRepository {
+
+    private static final String SQL = """
+            SELECT pedido.produto_id, p.nome, pedido.quantidade, saldo.quantidade_estoque,
+                   CASE
+                       WHEN p.id IS NULL THEN ?
+                       WHEN saldo.quantidade_estoque < pedido.quantidade THEN ?
+                       ELSE ?
+                   END AS status
+            FROM (SELECT item.produto_id, SUM(item.quantidade) AS quantidade
+                  FROM unnest(?::BIGINT[], ?::NUMERIC[]) AS item(produto_id, quantidade)
+                  GROUP BY item.produto_id) pedido
+            LEFT JOIN produtos p ON p.id = pedido.produto_id
+            LEFT JOIN LATERAL (SELECT CASE
+                                          WHEN p.faixas_estoque > 0 THEN (SELECT SUM(f.quantidade)
+                                                                          FROM estoque_faixas f
+                                                                          WHERE f.produto_id = p.id)
+                                          ELSE p.quantidade_estoque - p.quantidade_reservada
+                                      END AS quantidade_estoque) saldo ON TRUE
+            ORDER BY pedido.produto_id
+            """;
+
+    private static final RowMapper<DisponibilidadeResponse.Item> ROW_MAPPER = (rs, rowNum) ->
+            new DisponibilidadeResponse.Item(
+                    rs.getLong("produto_id"),
+                    rs.getString("nome"),
+                    rs.getBigDecimal("quantidade"),
+                    rs.getBigDecimal("quantidade_estoque"),
+                    rs.getString("status")
+            );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DisponibilidadeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<DisponibilidadeResponse.Item> conferir(List<ItemVendaRequest> itens) {
+        Long[] produtoIds = itens.stream().map(ItemVendaRequest::produtoId).toArray(Long[]::new);
+        BigDecimal[] quantidades = itens.stream().map(ItemVendaRequest::quantidade).toArray(BigDecimal[]::new);
+
+        return jdbcTemplate.query(SQL, ps -> {
+            ps.setString(1, LinhaVendaRegistrada.STATUS_NAO_ENCONTRADO);
+            ps.setString(2, LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE);
+            ps.setString(3, LinhaVendaRegistrada.STATUS_OK);
+            ps.setArray(4, ps.getConnection().createArrayOf("bigint", produtoIds));
+            ps.setArray(5, ps.getConnection().createArrayOf("numeric", quantidades));
+        }, ROW_MAPPER);
+    }
+}
@@ -0,0 +1,77 @@
+package inv.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estoque em faixas dos produtos muito vendidos (V7). A lógica fica nas funções do banco
+ * para que o checkout JPA, a 'registrar_venda' e o lote de vendas baixem do mesmo jeito.
+ * <p>
+ * Ordem de travas em todos os caminhos (R__estoque_faixas): linhas de 'produtos' em ordem de id, depois as faixas em
+ * ordem de (produto_id, faixa). Quem chama {@link #travarSaldos} já deve ter travado os produtos.
+ */
+@Repository
+public class EstoqueFaixaRepository {
+
+    private static final String SQL_TRAVAR_SALDOS = """
+            SELECT t.produto_id, SUM(t.quantidade) AS saldo
+            FROM (SELECT f.produto_id, f.quantidade
+                  FROM estoque_faixas f
+                  WHERE f.produto_id = ANY(?::BIGINT[])
+                  ORDER BY f.produto_id, f.faixa
+                  FOR UPDATE) t
+            GROUP BY t.produto_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EstoqueFaixaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Baixa a quantidade em qualquer faixa livre com saldo. Retorna o saldo total depois da baixa,
+     * ou null se a soma das faixas não cobre a quantidade.
+     */
+    public BigDecimal baixar(Long produtoId, BigDecimal quantidade) {
+        return jdbcTemplate.queryForObject("SELECT baixar_estoque_faixas(?, ?)", BigDecimal.class, produtoId, quantidade);
+    }
+
+    /**
+     * Saldo (soma das faixas) dos produtos que usam faixas, travando as faixas até o fim da transação.
+     * Produtos sem faixas não aparecem no mapa. Chamar depois de travar as linhas dos produtos.
+     */
+    public Map<Long, BigDecimal> travarSaldos(Collection<Long> produtoIds) {
+        Map<Long, BigDecimal> saldos = new HashMap<>();
+        jdbcTemplate.query(SQL_TRAVAR_SALDOS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", produtoIds.toArray())),
+                rs -> {
+                    saldos.put(rs.getLong("produto_id"), rs.getBigDecimal("saldo"));
+                });
+        return saldos;
+    }
+
+    /**
+     * Liga, muda ou desliga (0) as faixas do produto. Retorna o saldo total, ou null se o produto não existe.
+     */
+    public BigDecimal configurar(Long produtoId, int faixas) {
+        return jdbcTemplate.queryForObject("SELECT configurar_faixas_estoque(?, ?)", BigDecimal.class, produtoId, faixas);
+    }
+
+    /**
+     * Reequilibra as faixas e atualiza o consolidado em 'produtos'. Retorna o saldo total.
+     */
+    public BigDecimal rebalancear(Long produtoId) {
+        return jdbcTemplate.queryForObject("SELECT rebalancear_estoque_faixas(?)", BigDecimal.class, produtoId);
+    }
+
+    public List<Long> produtosComFaixas() {
+        return jdbcTemplate.queryForList("SELECT id FROM produtos WHERE faixas_estoque > 0 ORDER BY id", Long.class);
+    }
+}
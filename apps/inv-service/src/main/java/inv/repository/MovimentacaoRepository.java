@@ -3,6 +3,9 @@ package inv.repository;
 import inv.model.MovimentacaoEstoque;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+// Histórico de movimentações só é lido aqui (réplica de leitura); as gravações vêm da venda
 @Repository
+@Transactional(readOnly = true)
 public interface MovimentacaoRepository extends JpaRepository<MovimentacaoEstoque, Long> {}
\ No newline at end of file
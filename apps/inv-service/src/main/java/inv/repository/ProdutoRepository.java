@@ -1,14 +1,19 @@
 package inv.repository;
 
+import inv.dto.ProdutoVersao;
 import inv.model.Produto;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,12 +28,35 @@ public interface ProdutoRepository extends JpaRepository<Produto, Long> {
 
     Page<Produto> findByNomeContainingIgnoreCase(String nome, Pageable pageable);
 
+    // Projeções (id, version) para os ETags: mesmos filtros das buscas acima, sem hidratar a entidade
+    Optional<ProdutoVersao> findVersaoById(Long id);
+
+    Optional<ProdutoVersao> findVersaoByCodigoBarras(String codigoBarras);
+
+    Page<ProdutoVersao> findVersaoBy(Pageable pageable);
+
+    Page<ProdutoVersao> findVersaoByNomeContainingIgnoreCase(String nome, Pageable pageable);
+
+    // Lote de vendas e reservas: trava os produtos sempre na mesma ordem (id) e antes das faixas (R__estoque_faixas), para evitar deadlock.
+    // No Postgres o Hibernate emite FOR NO KEY UPDATE, que não conflita com o FOR KEY SHARE dos FKs das vendas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Produto p WHERE p.id IN :ids ORDER BY p.id")
+    List<Produto> findAllByIdParaAtualizacao(@Param("ids") Collection<Long> ids);
+
+    // Carrinho do PDV: ids e EANs numa consulta só (PK + índice único do EAN, combinados num BitmapOr)
+    @Query(value = """
+        SELECT * FROM produtos
+        WHERE id = ANY(:ids) OR codigo_barras = ANY(:eans)
+        ORDER BY id
+        """, nativeQuery = true)
+    List<Produto> findAllByIdOuCodigoBarras(@Param("ids") Long[] ids, @Param("eans") String[] eans);
+
     // A mágica do SQL: Tenta atualizar E devolve o novo saldo na mesma query.
-    // Se a condição (quantidade_estoque >= :qtd) falhar, não atualiza e retorna null.
+    // Se o disponível (estoque menos o reservado) não cobrir :qtd, não atualiza e retorna null.
     @Query(value = """
-        UPDATE produto 
+        UPDATE produtos
         SET quantidade_estoque = quantidade_estoque - :qtd 
-        WHERE id = :id AND quantidade_estoque >= :qtd 
+        WHERE id = :id AND quantidade_estoque - quantidade_reservada >= :qtd 
         RETURNING quantidade_estoque
         """, nativeQuery = true)
     BigDecimal decrementarEretornarSaldo(@Param("id") Long id, @Param("qtd") BigDecimal qtd);
@@ -0,0 +1,48 @@
+package inv.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Movimentos de estoque das reservas (funções de R__reservas_estoque). Ficam no banco porque dependem de o produto
+ * usar ou não estoque em faixas, do mesmo jeito que a baixa das vendas.
+ */
+@Repository
+public class ReservaEstoqueRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservaEstoqueRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Prende a quantidade se o disponível (estoque menos reservado) cobrir. Retorna false se não cobrir.
+     */
+    public boolean reservar(Long produtoId, BigDecimal quantidade) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT reservar_estoque(?, ?)", Boolean.class, produtoId, quantidade));
+    }
+
+    public void liberar(Long produtoId, BigDecimal quantidade) {
+        jdbcTemplate.queryForList("SELECT liberar_estoque_reservado(?, ?)", produtoId, quantidade);
+    }
+
+    /**
+     * Converte o reservado em baixa. Retorna o saldo em estoque depois da baixa.
+     */
+    public BigDecimal confirmar(Long produtoId, BigDecimal quantidade) {
+        return jdbcTemplate.queryForObject(
+                "SELECT confirmar_estoque_reservado(?, ?)", BigDecimal.class, produtoId, quantidade);
+    }
+
+    /**
+     * Expira até 'limite' reservas vencidas (as mais antigas primeiro). Retorna quantas expirou.
+     */
+    public int expirarVencidas(int limite) {
+        Integer expiradas = jdbcTemplate.queryForObject("SELECT expirar_reservas(?)", Integer.class, limite);
+        return expiradas != null ? expiradas : 0;
+    }
+}
@@ -0,0 +1,20 @@
+package inv.repository;
+
+import inv.model.Reserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReservaRepository extends JpaRepository<Reserva, Long> {
+
+    // Confirmação e cancelamento travam a reserva: não se cruzam entre si nem com a expiração (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.id = :id")
+    Optional<Reserva> findByIdParaAtualizacao(@Param("id") Long id);
+}
@@ -0,0 +1,55 @@
+package inv.repository;
+
+import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Caminho rápido do checkout: a venda inteira numa única chamada à função 'registrar_venda' (R__registrar_venda).
+ * <p>
+ * Os itens vão como dois arrays, então o SQL é sempre o mesmo e o driver do Postgres
+ * passa a usar um prepared statement nomeado no servidor após algumas execuções
+ * (prepareThreshold), sem replanejar a cada venda.
+ */
+@Repository
+public class VendaProcedureRepository {
+
+    private static final String SQL = "SELECT * FROM registrar_venda(?, ?)";
+
+    private static final RowMapper<LinhaVendaRegistrada> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp dataHora = rs.getTimestamp("data_hora");
+        return new LinhaVendaRegistrada(
+                rs.getObject("venda_id", Long.class),
+                rs.getBigDecimal("valor_total"),
+                dataHora != null ? dataHora.toLocalDateTime() : null,
+                rs.getLong("produto_id"),
+                rs.getString("nome_produto"),
+                rs.getBigDecimal("saldo_anterior"),
+                rs.getBigDecimal("saldo_atual"),
+                rs.getBigDecimal("estoque_minimo"),
+                rs.getString("status")
+        );
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VendaProcedureRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<LinhaVendaRegistrada> registrarVenda(List<ItemVendaRequest> itens) {
+        Long[] produtoIds = itens.stream().map(ItemVendaRequest::produtoId).toArray(Long[]::new);
+        BigDecimal[] quantidades = itens.stream().map(ItemVendaRequest::quantidade).toArray(BigDecimal[]::new);
+
+        return jdbcTemplate.query(SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", produtoIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("numeric", quantidades));
+        }, ROW_MAPPER);
+    }
+}
@@ -5,12 +5,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Consultas de relatório vão para a réplica de leitura; save() continua na transação de escrita
 @Repository
+@Transactional(readOnly = true)
 public interface VendaRepository extends JpaRepository<Venda, Long> {
 
     @Query("SELECT COALESCE(SUM(v.valorTotal), 0) FROM Venda v WHERE v.dataHora >= :inicio AND v.dataHora < :fim")
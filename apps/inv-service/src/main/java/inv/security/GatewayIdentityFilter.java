@@ -0,0 +1,84 @@
+package inv.security;
+
+import common.security.GatewayIdentity;
+import common.security.GatewayIdentityCodec;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Autentica a requisição pelo header de identidade assinado pelo gateway ({@link GatewayIdentityCodec}),
+ * com uma conferência de HMAC em vez da verificação RSA do JWT.
+ * <p>
+ * Header ausente ou inválido não bloqueia nada: a requisição segue para o resource server,
+ * que valida o Bearer como sempre. Com o header válido, {@link #bearerTokenResolver()} esconde
+ * o Bearer para o JWT não ser processado de novo.
+ */
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayIdentityFilter.class);
+
+    private static final String AUTHENTICATED_ATTRIBUTE = GatewayIdentityFilter.class.getName() + ".AUTHENTICATED";
+
+    private final GatewayIdentityCodec codec;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy =
+            SecurityContextHolder.getContextHolderStrategy();
+    // Como no BearerTokenAuthenticationFilter: o dispatch ASYNC (SSE, fim do emitter) recupera o contexto daqui
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public GatewayIdentityFilter(GatewayIdentityCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(GatewayIdentityCodec.HEADER);
+        if (header != null) {
+            Optional<GatewayIdentity> identity = codec.decode(header, Instant.now());
+            if (identity.isPresent()) {
+                authenticate(identity.get(), request, response);
+                request.setAttribute(AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+            } else {
+                log.debug("Header {} com assinatura inválida ou expirado; seguindo com o Bearer",
+                        GatewayIdentityCodec.HEADER);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Resolver do Bearer que não devolve nada quando este filtro já autenticou a requisição.
+     */
+    public static BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver delegate = new DefaultBearerTokenResolver();
+        return request -> request.getAttribute(AUTHENTICATED_ATTRIBUTE) != null ? null : delegate.resolve(request);
+    }
+
+    private void authenticate(GatewayIdentity identity, HttpServletRequest request, HttpServletResponse response) {
+        PreAuthenticatedAuthenticationToken authentication = new PreAuthenticatedAuthenticationToken(
+                identity, null, AuthorityUtils.createAuthorityList(identity.authorities()));
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(authentication);
+        securityContextHolderStrategy.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+    }
+}
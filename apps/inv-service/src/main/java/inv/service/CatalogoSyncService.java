@@ -0,0 +1,82 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import inv.dto.CatalogoDelta;
+import inv.dto.ProdutoAlteracao;
+import inv.repository.CatalogoChangeRepository;
+import inv.repository.CatalogoChangeRepository.Linha;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Delta-sync do catálogo para os PDVs.
+ * <p>
+ * O token é opaco para o cliente, mas tem dois formatos:
+ * <ul>
+ *   <li>{@code <h>}: sincronizado até o horizonte h; a próxima leitura começa em change_seq >= h.</li>
+ *   <li>{@code <h>.<seq>.<id>}: no meio de uma leitura paginada; continua depois do cursor (seq, id)
+ *       e, ao terminar, devolve h (o horizonte lido na primeira página).</li>
+ * </ul>
+ * Linhas com change_seq >= h podem vir de novo na próxima sincronização; o PDV aplica por id,
+ * então repetir é inofensivo, enquanto avançar além do horizonte perderia commits fora de ordem.
+ */
+@Service
+public class CatalogoSyncService {
+
+    public static final int LIMITE_PADRAO = 500;
+    public static final int LIMITE_MAXIMO = 1000;
+
+    private final CatalogoChangeRepository changeRepository;
+
+    public CatalogoSyncService(CatalogoChangeRepository changeRepository) {
+        this.changeRepository = changeRepository;
+    }
+
+    public CatalogoDelta alteracoesDesde(String since, int limite) {
+        int limiteSeguro = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        Cursor cursor = Cursor.parse(since);
+
+        // Horizonte antes das linhas: se for menor que o real, só causa repetição, nunca perda
+        long horizonte = cursor.horizonte() != null ? cursor.horizonte() : changeRepository.horizonte();
+
+        List<Linha> linhas = changeRepository.alteracoesApos(cursor.changeSeq(), cursor.id(), limiteSeguro + 1);
+        boolean temMais = linhas.size() > limiteSeguro;
+        if (temMais) {
+            linhas = linhas.subList(0, limiteSeguro);
+        }
+
+        List<ProdutoAlteracao> alteracoes = linhas.stream().map(Linha::alteracao).toList();
+        String proximo;
+        if (temMais) {
+            Linha ultima = linhas.get(linhas.size() - 1);
+            proximo = horizonte + "." + ultima.changeSeq() + "." + ultima.alteracao().id();
+        } else {
+            proximo = Long.toString(horizonte);
+        }
+
+        return new CatalogoDelta(alteracoes, proximo, temMais);
+    }
+
+    private record Cursor(Long horizonte, long changeSeq, long id) {
+
+        static Cursor parse(String token) {
+            if (token == null || token.isBlank()) {
+                return new Cursor(null, 0, 0);
+            }
+            try {
+                String[] partes = token.split("\\.");
+                if (partes.length == 1) {
+                    // Ids começam em 1, então (h, 0) é "tudo com change_seq >= h"
+                    return new Cursor(null, Long.parseLong(partes[0]), 0);
+                }
+                if (partes.length == 3) {
+                    return new Cursor(Long.parseLong(partes[0]), Long.parseLong(partes[1]), Long.parseLong(partes[2]));
+                }
+            } catch (NumberFormatException ignored) {
+                // cai na exceção abaixo
+            }
+            throw new BusinessException("Token de sincronização inválido: " + token);
+        }
+    }
+}
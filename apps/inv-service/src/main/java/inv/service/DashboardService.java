@@ -10,6 +10,7 @@ import common.util.DateRange;
 
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -39,6 +40,8 @@ public class DashboardService {
         this.redisTemplate = redisTemplate;
     }
 
+    // Uma transação só: todos os agregados do mesmo snapshot (e da réplica, quando configurada)
+    @Transactional(readOnly = true)
     public DashboardStats getStats() {
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
@@ -124,14 +127,21 @@ public class DashboardService {
         List<Venda> ultimasVendas =
                 vendaRepository.findByDataHoraAfter(ultimos7Dias.inicio());
 
+        return agregarPorDia(ultimasVendas, LocalDate.now(), 7);
+    }
+
+    /**
+     * Soma o faturamento por dia nos últimos {@code dias} (até {@code hoje}),
+     * preenchendo com zero os dias sem venda.
+     */
+    public static List<ChartDataDTO> agregarPorDia(List<Venda> vendas, LocalDate hoje, int dias) {
         Map<LocalDate, BigDecimal> map = new TreeMap<>();
-        LocalDate dataAtual = LocalDate.now();
 
-        for (int i = 0; i < 7; i++) {
-            map.put(dataAtual.minusDays(i), BigDecimal.ZERO);
+        for (int i = 0; i < dias; i++) {
+            map.put(hoje.minusDays(i), BigDecimal.ZERO);
         }
 
-        ultimasVendas.forEach(v ->
+        vendas.forEach(v ->
                 map.merge(
                         v.getDataHora().toLocalDate(),
                         v.getValorTotal(),
@@ -0,0 +1,179 @@
+package inv.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out das atualizações do dashboard via SSE (GET /dashboard/stream).
+ * <p>
+ * Cada evento é serializado uma única vez num frame SSE pronto (bytes) e só a referência
+ * vai para a fila de cada assinante. Quem escreve no socket é uma virtual thread por assinante,
+ * então um cliente lento nunca segura a publicação nem os demais; se a fila dele encher,
+ * a conexão é encerrada e o EventSource reconecta (e recarrega /dashboard/stats).
+ */
+@Component
+public class DashboardStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStreamHub.class);
+
+    private static final Set<DataWithMediaType> HEARTBEAT = frame(": ping\n\n".getBytes(StandardCharsets.UTF_8));
+    private static final Set<DataWithMediaType> CONECTADO = frame(": conectado\n\n".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final int capacidadeFila;
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong conexoes = new AtomicLong();
+    private final AtomicLong eventos = new AtomicLong();
+    private final Counter descartadosCounter;
+
+    public DashboardStreamHub(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${inv.dashboard.stream.timeout:PT30M}") Duration timeout,
+                              @Value("${inv.dashboard.stream.queue-capacity:64}") int capacidadeFila) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.capacidadeFila = capacidadeFila;
+
+        Gauge.builder("inv.dashboard.stream.subscribers", assinantes, Set::size)
+                .description("Conexões SSE abertas no /dashboard/stream")
+                .register(meterRegistry);
+        this.descartadosCounter = Counter.builder("inv.dashboard.stream.dropped")
+                .description("Assinantes desconectados por não acompanharem o ritmo dos eventos")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter inscrever() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        inscrever(emitter);
+        return emitter;
+    }
+
+    void inscrever(SseEmitter emitter) {
+        Assinante assinante = new Assinante(emitter, new ArrayBlockingQueue<>(capacidadeFila));
+        assinantes.add(assinante);
+
+        emitter.onCompletion(assinante::encerrar);
+        emitter.onTimeout(assinante::encerrar);
+        emitter.onError(e -> assinante.encerrar());
+
+        // Comentário inicial: faz o servlet (e o gateway) mandar os headers logo na conexão
+        assinante.fila.offer(CONECTADO);
+        assinante.drenador = Thread.ofVirtual()
+                .name("sse-dashboard-" + conexoes.incrementAndGet())
+                .start(() -> drenar(assinante));
+    }
+
+    /**
+     * Publica um evento para todos os assinantes. Não bloqueia: só enfileira.
+     */
+    public void publicar(String evento, Object payload) {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+
+        Set<DataWithMediaType> frame;
+        try {
+            frame = frame(evento, objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            log.error("Falha ao serializar evento '{}' do dashboard: {}", evento, e.getMessage());
+            return;
+        }
+
+        enfileirar(frame);
+    }
+
+    // Mantém a conexão viva atrás de proxies e descobre clientes que sumiram sem FIN
+    @Scheduled(fixedDelayString = "${inv.dashboard.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        enfileirar(HEARTBEAT);
+    }
+
+    public int assinantesAtivos() {
+        return assinantes.size();
+    }
+
+    private void enfileirar(Set<DataWithMediaType> frame) {
+        for (Assinante assinante : assinantes) {
+            if (!assinante.fila.offer(frame)) {
+                // Não chama complete() aqui: o emitter é sincronizado e pode estar preso num send lento
+                log.warn("Assinante SSE do dashboard não acompanhou os eventos; encerrando a conexão");
+                descartadosCounter.increment();
+                assinante.encerrar();
+            }
+        }
+    }
+
+    private void drenar(Assinante assinante) {
+        try {
+            while (true) {
+                // take() lança InterruptedException mesmo se a interrupção chegou durante o send
+                assinante.emitter.send(assinante.fila.take());
+            }
+        } catch (InterruptedException e) {
+            // Encerrado pelo hub (fila cheia) ou pelos callbacks do emitter; complete() repetido é ignorado
+            assinante.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou (ou o emitter já foi completado): o container avisa pelo onError
+            log.debug("Assinante SSE do dashboard desconectado: {}", e.getMessage());
+        } finally {
+            assinantes.remove(assinante);
+        }
+    }
+
+    private Set<DataWithMediaType> frame(String evento, byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + evento.length() + 32);
+        out.writeBytes(("id: " + eventos.incrementAndGet() + "\nevent: " + evento + "\ndata: ")
+                .getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(json);
+        out.writeBytes("\n\n".getBytes(StandardCharsets.UTF_8));
+        return frame(out.toByteArray());
+    }
+
+    // byte[] vai direto pelo ByteArrayHttpMessageConverter: nada é re-serializado por assinante
+    private static Set<DataWithMediaType> frame(byte[] bytes) {
+        return Set.of(new DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    private final class Assinante {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> fila;
+        private volatile Thread drenador;
+
+        private Assinante(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> fila) {
+            this.emitter = emitter;
+            this.fila = fila;
+        }
+
+        private void encerrar() {
+            assinantes.remove(this);
+            Thread thread = drenador;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package inv.service;
+
+import inv.repository.EstoqueFaixaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manutenção periódica dos produtos com estoque em faixas.
+ * <p>
+ * As vendas esvaziam as faixas de forma desigual; quando uma fica com menos da metade da média,
+ * as baixas que não cabem nela caem no caminho lento (que trava todas as faixas). O ciclo
+ * redistribui o saldo e, de quebra, atualiza o consolidado em 'produtos.quantidade_estoque'
+ * que listagens, ETags e o feed do catálogo leem.
+ * <p>
+ * Cada produto é uma transação curta e separada: um produto com problema não trava os demais.
+ */
+@Component
+public class EstoqueFaixasRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(EstoqueFaixasRebalancer.class);
+
+    private final EstoqueFaixaRepository estoqueFaixaRepository;
+
+    public EstoqueFaixasRebalancer(EstoqueFaixaRepository estoqueFaixaRepository) {
+        this.estoqueFaixaRepository = estoqueFaixaRepository;
+    }
+
+    @Scheduled(initialDelayString = "${inv.estoque.faixas.rebalanceamento-ms:5000}",
+               fixedDelayString = "${inv.estoque.faixas.rebalanceamento-ms:5000}")
+    public void rebalancear() {
+        for (Long produtoId : estoqueFaixaRepository.produtosComFaixas()) {
+            try {
+                estoqueFaixaRepository.rebalancear(produtoId);
+            } catch (Exception e) {
+                log.warn("Falha ao rebalancear as faixas de estoque do produto {}, nova tentativa no próximo ciclo: {}",
+                        produtoId, e.getMessage());
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import inv.model.MovimentacaoEstoque;
 import inv.model.Produto;
 import inv.model.TipoMovimentacao;
 import inv.model.Venda;
+import inv.repository.EstoqueFaixaRepository;
 import inv.repository.ProdutoRepository;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
@@ -20,28 +21,44 @@ import java.time.LocalDateTime;
 public class EstoqueService {
 
     private final ProdutoRepository produtoRepository;
+    private final EstoqueFaixaRepository estoqueFaixaRepository;
     private final ApplicationEventPublisher eventPublisher;
 
     public EstoqueService(ProdutoRepository produtoRepository,
+                          EstoqueFaixaRepository estoqueFaixaRepository,
                           ApplicationEventPublisher eventPublisher) {
         this.produtoRepository = produtoRepository;
+        this.estoqueFaixaRepository = estoqueFaixaRepository;
         this.eventPublisher = eventPublisher;
     }
 
     @Transactional(propagation = Propagation.MANDATORY)
     public void baixarEstoquePorVenda(Produto produto, BigDecimal quantidade, Venda vendaContexto) {
 
-        BigDecimal novoSaldo = produtoRepository.decrementarEretornarSaldo(produto.getId(), quantidade);
+        boolean emFaixas = produto.getFaixasEstoque() > 0;
+        BigDecimal novoSaldo = emFaixas
+                ? estoqueFaixaRepository.baixar(produto.getId(), quantidade)
+                : produtoRepository.decrementarEretornarSaldo(produto.getId(), quantidade);
 
         if (novoSaldo == null) {
             throw new BusinessException("Estoque insuficiente para o produto: " + produto.getNome());
         }
 
         BigDecimal saldoAnterior = novoSaldo.add(quantidade);
-        verificarEAlertarEstoqueBaixo(produto, saldoAnterior, novoSaldo);
+        alertarSeAtingiuMinimo(produto.getNome(), produto.getEstoqueMinimo(), saldoAnterior, novoSaldo);
 
-        produto.setQuantidadeEstoque(novoSaldo);
+        // Com faixas a linha do produto não é tocada: o flush do @Version voltaria a serializar as vendas nela
+        if (!emFaixas) {
+            produto.setQuantidadeEstoque(novoSaldo);
+        }
+
+        registrarSaida(produto, quantidade, vendaContexto);
+    }
 
+    /**
+     * Movimentação de saída da venda (gravada em cascata com ela).
+     */
+    public void registrarSaida(Produto produto, BigDecimal quantidade, Venda vendaContexto) {
         MovimentacaoEstoque mov = new MovimentacaoEstoque();
         mov.setProduto(produto);
         mov.setQuantidade(quantidade);
@@ -52,14 +69,17 @@ public class EstoqueService {
         vendaContexto.adicionarMovimentacao(mov);
     }
 
-    private void verificarEAlertarEstoqueBaixo(Produto produto, BigDecimal antes, BigDecimal depois) {
-        BigDecimal minimo = produto.getEstoqueMinimo();
+    /**
+     * Dispara o alerta só na transição (acima do mínimo -> no mínimo ou abaixo),
+     * para não gerar um evento a cada venda de um produto que já está baixo.
+     */
+    public void alertarSeAtingiuMinimo(String nomeProduto, BigDecimal minimo, BigDecimal antes, BigDecimal depois) {
         if (minimo != null && antes.compareTo(minimo) > 0 && depois.compareTo(minimo) <= 0) {
             eventPublisher.publishEvent(new EstoqueAtingiuMinimoEvent(
                     new EstoqueBaixoMessage(
                             1,
                             java.util.UUID.randomUUID().toString(),
-                            produto.getNome(),
+                            nomeProduto,
                             depois,
                             minimo
                     )
@@ -0,0 +1,59 @@
+package inv.service;
+
+import inv.repository.ReservaEstoqueRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Devolve ao estoque as reservas que passaram do TTL sem confirmação nem cancelamento.
+ * <p>
+ * Cada lote é uma transação curta ('expirar_reservas', pelo índice de 'expira_em', com SKIP LOCKED):
+ * reservas sendo confirmadas ou canceladas naquele instante ficam para o próximo ciclo.
+ * Lote cheio indica que há mais vencidas, então o ciclo continua até um lote parcial.
+ */
+@Component
+public class ExpiracaoReservaJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiracaoReservaJob.class);
+
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
+    private final int tamanhoLote;
+    private final Counter expiradasCounter;
+
+    public ExpiracaoReservaJob(ReservaEstoqueRepository reservaEstoqueRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${inv.reserva.expiracao.tamanho-lote:500}") int tamanhoLote) {
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.expiradasCounter = Counter.builder("inv.reserva.expiradas")
+                .description("Reservas de estoque expiradas sem confirmação")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${inv.reserva.expiracao.intervalo-ms:10000}",
+               fixedDelayString = "${inv.reserva.expiracao.intervalo-ms:10000}")
+    public void expirarVencidas() {
+        int total = 0;
+        try {
+            int expiradas;
+            do {
+                expiradas = reservaEstoqueRepository.expirarVencidas(tamanhoLote);
+                total += expiradas;
+                expiradasCounter.increment(expiradas);
+            } while (expiradas == tamanhoLote);
+
+            if (total > 0) {
+                log.info("{} reservas expiradas; estoque devolvido", total);
+            }
+        } catch (Exception e) {
+            // Lotes já processados continuam valendo (cada um é commitado sozinho)
+            log.warn("Expiração de reservas interrompida após {} reservas, nova tentativa no próximo ciclo: {}",
+                    total, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package inv.service;
+
+import inv.dto.ProdutoVersao;
+import inv.model.Produto;
+import org.springframework.data.domain.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * ETags fortes das leituras de produto.
+ * Produto individual: id + @Version (todo movimento de estoque passa pelo flush do Hibernate,
+ * pela 'registrar_venda' ou pelas funções de reserva, e todos incrementam a versão).
+ * Página: hash dos pares (id, versão) na ordem da página, mais os metadados que vão no JSON.
+ */
+public final class ProdutoEtags {
+
+    private ProdutoEtags() {
+    }
+
+    public static String de(Produto produto) {
+        return de(produto.getId(), produto.getVersion());
+    }
+
+    public static String de(ProdutoVersao versao) {
+        return de(versao.id(), versao.version());
+    }
+
+    public static String daPagina(Page<Produto> pagina) {
+        StringBuilder base = cabecalho(pagina);
+        pagina.forEach(p -> base.append(p.getId()).append(':').append(p.getVersion()).append(';'));
+        return "\"produtos-" + hash(base) + "\"";
+    }
+
+    public static String daPaginaDeVersoes(Page<ProdutoVersao> pagina) {
+        StringBuilder base = cabecalho(pagina);
+        pagina.forEach(v -> base.append(v.id()).append(':').append(v.version()).append(';'));
+        return "\"produtos-" + hash(base) + "\"";
+    }
+
+    private static String de(Long id, Long version) {
+        return "\"produto-" + id + "-" + version + "\"";
+    }
+
+    private static StringBuilder cabecalho(Page<?> pagina) {
+        return new StringBuilder(32 + pagina.getNumberOfElements() * 16)
+                .append(pagina.getNumber()).append('/')
+                .append(pagina.getSize()).append('/')
+                .append(pagina.getTotalElements()).append('|');
+    }
+
+    // 128 bits de SHA-256: colisão só causaria um 304 indevido, então não vale truncar mais
+    private static String hash(CharSequence base) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(base.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package inv.service;
 
+import inv.dto.DisponibilidadeResponse;
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.ProdutoLoteRequest;
+import inv.dto.ProdutoLoteResponse;
 import inv.dto.ProdutoRequest;
+import inv.dto.ProdutoVersao;
+import inv.dto.VendaRequest;
 import inv.model.Produto;
+import inv.repository.DisponibilidadeRepository;
+import inv.repository.EstoqueFaixaRepository;
 import inv.repository.ProdutoRepository;
 import common.exception.BusinessException;
 import common.exception.ResourceNotFoundException;
@@ -10,13 +18,24 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class ProdutoService {
 
     private final ProdutoRepository produtoRepository;
+    private final DisponibilidadeRepository disponibilidadeRepository;
+    private final EstoqueFaixaRepository estoqueFaixaRepository;
 
-    public ProdutoService(ProdutoRepository produtoRepository) {
+    public ProdutoService(ProdutoRepository produtoRepository,
+                          DisponibilidadeRepository disponibilidadeRepository,
+                          EstoqueFaixaRepository estoqueFaixaRepository) {
         this.produtoRepository = produtoRepository;
+        this.disponibilidadeRepository = disponibilidadeRepository;
+        this.estoqueFaixaRepository = estoqueFaixaRepository;
     }
 
     @Transactional
@@ -37,21 +56,96 @@ public class ProdutoService {
         return produtoRepository.save(produto);
     }
 
+    @Transactional(readOnly = true)
     public Page<Produto> listarTodos(Pageable pageable) {
         return produtoRepository.findAll(pageable);
     }
 
+    @Transactional(readOnly = true)
     public Page<Produto> buscarPorNome(String nome, Pageable pageable) {
         return produtoRepository.findByNomeContainingIgnoreCase(nome, pageable);
     }
 
+    @Transactional(readOnly = true)
     public Produto buscarPorEan(String ean) {
         return produtoRepository.findByCodigoBarras(ean)
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado com EAN: " + ean));
     }
 
+    @Transactional(readOnly = true)
     public Produto buscarPorId(Long id) {
         return produtoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Produtos do carrinho numa única consulta, no lugar de um GET /produtos/{id} por linha.
+     */
+    @Transactional(readOnly = true)
+    public ProdutoLoteResponse buscarEmLote(ProdutoLoteRequest request) {
+        List<Long> ids = request.ids() != null ? request.ids() : List.of();
+        List<String> eans = request.eans() != null ? request.eans() : List.of();
+        if (ids.isEmpty() && eans.isEmpty()) {
+            throw new BusinessException("Informe ao menos um id ou EAN.");
+        }
+
+        List<Produto> produtos = produtoRepository.findAllByIdOuCodigoBarras(
+                ids.toArray(Long[]::new), eans.toArray(String[]::new));
+
+        Set<Long> idsEncontrados = produtos.stream().map(Produto::getId).collect(Collectors.toSet());
+        Set<String> eansEncontrados = produtos.stream().map(Produto::getCodigoBarras).collect(Collectors.toSet());
+
+        return new ProdutoLoteResponse(
+                produtos,
+                ids.stream().distinct().filter(id -> !idsEncontrados.contains(id)).toList(),
+                eans.stream().distinct().filter(ean -> !eansEncontrados.contains(ean)).toList()
+        );
+    }
+
+    /**
+     * Prévia do checkout: confere as quantidades do carrinho contra o estoque atual numa consulta.
+     * Não reserva nada; a baixa atômica continua sendo feita no POST /vendas.
+     */
+    public DisponibilidadeResponse verificarDisponibilidade(VendaRequest request) {
+        List<DisponibilidadeResponse.Item> itens = disponibilidadeRepository.conferir(request.itens());
+        boolean disponivel = itens.stream()
+                .allMatch(item -> LinhaVendaRegistrada.STATUS_OK.equals(item.status()));
+        return new DisponibilidadeResponse(disponivel, itens);
+    }
+
+    /**
+     * Liga/desliga o estoque em faixas de um produto muito vendido: as vendas concorrentes dele deixam
+     * de disputar a mesma linha. O saldo atual é redistribuído na mesma transação.
+     */
+    @Transactional
+    public Produto configurarFaixasEstoque(Long id, int faixas) {
+        if (estoqueFaixaRepository.configurar(id, faixas) == null) {
+            throw new ResourceNotFoundException("Produto não encontrado");
+        }
+        return buscarPorId(id);
+    }
+
+    /**
+     * ETag atual do produto, só com a PK e a versão (vazio se não existe).
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> etagPorId(Long id) {
+        return produtoRepository.findVersaoById(id).map(ProdutoEtags::de);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> etagPorEan(String ean) {
+        return produtoRepository.findVersaoByCodigoBarras(ean).map(ProdutoEtags::de);
+    }
+
+    /**
+     * ETag da página que 'buscarPorNome'/'listarTodos' devolveriam, a partir da projeção (id, version).
+     */
+    @Transactional(readOnly = true)
+    public String etagDaPagina(String nome, Pageable pageable) {
+        Page<ProdutoVersao> versoes = nome != null
+                ? produtoRepository.findVersaoByNomeContainingIgnoreCase(nome, pageable)
+                : produtoRepository.findVersaoBy(pageable);
+        return ProdutoEtags.daPaginaDeVersoes(versoes);
+    }
+}
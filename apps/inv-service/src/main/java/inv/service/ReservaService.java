@@ -0,0 +1,158 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import common.exception.ResourceNotFoundException;
+import inv.dto.ReciboResponse;
+import inv.dto.ReservaResponse;
+import inv.dto.VendaRequest;
+import inv.event.VendaRealizadaEvent;
+import inv.model.ItemReserva;
+import inv.model.Produto;
+import inv.model.Reserva;
+import inv.model.Venda;
+import inv.repository.ProdutoRepository;
+import inv.repository.ReservaEstoqueRepository;
+import inv.repository.ReservaRepository;
+import inv.repository.VendaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Checkout em duas fases: o carrinho reserva o estoque no início do atendimento e a venda no fim
+ * só converte a reserva, sem conferir saldo de novo. Reserva não confirmada dentro do TTL é
+ * expirada pelo {@link ExpiracaoReservaJob}.
+ */
+@Service
+public class ReservaService {
+
+    private final ProdutoRepository produtoRepository;
+    private final ReservaRepository reservaRepository;
+    private final ReservaEstoqueRepository reservaEstoqueRepository;
+    private final VendaRepository vendaRepository;
+    private final EstoqueService estoqueService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inv.reserva.ttl:PT15M}")
+    private Duration ttl;
+
+    public ReservaService(ProdutoRepository produtoRepository,
+                          ReservaRepository reservaRepository,
+                          ReservaEstoqueRepository reservaEstoqueRepository,
+                          VendaRepository vendaRepository,
+                          EstoqueService estoqueService,
+                          ApplicationEventPublisher eventPublisher) {
+        this.produtoRepository = produtoRepository;
+        this.reservaRepository = reservaRepository;
+        this.reservaEstoqueRepository = reservaEstoqueRepository;
+        this.vendaRepository = vendaRepository;
+        this.estoqueService = estoqueService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Prende o estoque do carrinho inteiro ou de nada (falta em um produto desfaz a reserva toda).
+     * A reserva fica em nome de 'usuario' ('sub' do token): só ele confirma ou cancela.
+     */
+    @Transactional
+    public ReservaResponse reservar(VendaRequest pedido, String usuario) {
+        Map<Long, BigDecimal> porProduto = new TreeMap<>();
+        pedido.itens().forEach(item -> porProduto.merge(item.produtoId(), item.quantidade(), BigDecimal::add));
+
+        // Todos os produtos travados (em ordem de id) antes da primeira faixa: ordem global de travas de R__estoque_faixas
+        Map<Long, Produto> produtos = conferirProdutos(
+                produtoRepository.findAllByIdParaAtualizacao(porProduto.keySet()), porProduto);
+
+        LocalDateTime agora = LocalDateTime.now();
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(usuario);
+        reserva.setCriadaEm(agora);
+        reserva.setExpiraEm(agora.plus(ttl));
+
+        porProduto.forEach((produtoId, quantidade) -> {
+            if (!reservaEstoqueRepository.reservar(produtoId, quantidade)) {
+                throw new BusinessException("Estoque insuficiente para o produto: " + produtos.get(produtoId).getNome());
+            }
+            reserva.getItens().add(new ItemReserva(produtoId, quantidade));
+        });
+
+        return ReservaResponse.de(reservaRepository.save(reserva));
+    }
+
+    /**
+     * Converte a reserva em venda: o estoque já está preso, então a baixa não falha por saldo.
+     * Reserva de outro usuário é tratada como inexistente.
+     */
+    @Transactional
+    public ReciboResponse confirmar(Long id, String usuario) {
+        LocalDateTime agora = LocalDateTime.now();
+        Reserva reserva = reservaRepository.findByIdParaAtualizacao(id)
+                .filter(r -> r.pertenceA(usuario) && r.isAtiva(agora))
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada ou expirada"));
+
+        Map<Long, BigDecimal> porProduto = new TreeMap<>();
+        reserva.getItens().forEach(item -> porProduto.put(item.getProdutoId(), item.getQuantidade()));
+        Map<Long, Produto> produtos = conferirProdutos(produtoRepository.findAllById(porProduto.keySet()), porProduto);
+
+        Venda venda = new Venda();
+        venda.setDataHora(agora);
+        porProduto.forEach((produtoId, quantidade) -> {
+            Produto produto = produtos.get(produtoId);
+            venda.adicionarItem(produto, quantidade);
+            estoqueService.registrarSaida(produto, quantidade, venda);
+
+            BigDecimal novoSaldo = reservaEstoqueRepository.confirmar(produtoId, quantidade);
+            estoqueService.alertarSeAtingiuMinimo(
+                    produto.getNome(), produto.getEstoqueMinimo(), novoSaldo.add(quantidade), novoSaldo);
+        });
+
+        vendaRepository.save(venda);
+        reservaRepository.delete(reserva);
+
+        eventPublisher.publishEvent(new VendaRealizadaEvent(
+                venda.getId(),
+                VendaService.destaque(venda.getItens().getFirst().getNomeProdutoSnapshot(), venda.getItens().size()),
+                venda.getValorTotal(),
+                venda.getDataHora()
+        ));
+
+        return new ReciboResponse("Venda realizada com sucesso!", venda.getValorTotal(), venda.getDataHora());
+    }
+
+    /**
+     * Devolve o estoque da reserva. Também aceita reservas vencidas que a expiração ainda não varreu.
+     * Reserva de outro usuário é tratada como inexistente.
+     */
+    @Transactional
+    public void cancelar(Long id, String usuario) {
+        Reserva reserva = reservaRepository.findByIdParaAtualizacao(id)
+                .filter(r -> r.pertenceA(usuario))
+                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada"));
+
+        // Produtos antes das faixas que a devolução trava (R__estoque_faixas)
+        produtoRepository.findAllByIdParaAtualizacao(
+                reserva.getItens().stream().map(ItemReserva::getProdutoId).toList());
+        reserva.getItens().forEach(item -> reservaEstoqueRepository.liberar(item.getProdutoId(), item.getQuantidade()));
+        reservaRepository.delete(reserva);
+    }
+
+    private static Map<Long, Produto> conferirProdutos(List<Produto> encontrados, Map<Long, BigDecimal> porProduto) {
+        Map<Long, Produto> produtos = encontrados.stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+        if (produtos.size() != porProduto.size()) {
+            throw new ResourceNotFoundException("Um ou mais produtos não foram encontrados.");
+        }
+        return produtos;
+    }
+}
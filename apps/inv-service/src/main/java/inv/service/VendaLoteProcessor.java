@@ -0,0 +1,160 @@
+package inv.service;
+
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.VendaLoteResponse.Resultado;
+import inv.dto.VendaRequest;
+import inv.dto.ItemVendaRequest;
+import inv.event.VendaRealizadaEvent;
+import inv.model.Produto;
+import inv.model.Venda;
+import inv.repository.EstoqueFaixaRepository;
+import inv.repository.ProdutoRepository;
+import inv.repository.VendaRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Um bloco do POST /vendas/lote numa transação própria.
+ * <p>
+ * Os produtos do bloco inteiro são travados de uma vez (em ordem de id) e o saldo é conferido em memória,
+ * venda a venda: a que não cabe no estoque é recusada sozinha, sem derrubar o bloco. No fim, cada produto
+ * recebe uma única baixa com a soma do bloco (nas faixas, se o produto usa faixas), e vendas, itens e
+ * movimentações saem em INSERTs em batch (ids de sequence, ver V6).
+ */
+@Service
+public class VendaLoteProcessor {
+
+    private final ProdutoRepository produtoRepository;
+    private final EstoqueFaixaRepository estoqueFaixaRepository;
+    private final VendaRepository vendaRepository;
+    private final EstoqueService estoqueService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public VendaLoteProcessor(ProdutoRepository produtoRepository,
+                              EstoqueFaixaRepository estoqueFaixaRepository,
+                              VendaRepository vendaRepository,
+                              EstoqueService estoqueService,
+                              ApplicationEventPublisher eventPublisher) {
+        this.produtoRepository = produtoRepository;
+        this.estoqueFaixaRepository = estoqueFaixaRepository;
+        this.vendaRepository = vendaRepository;
+        this.estoqueService = estoqueService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param primeiroIndice posição da primeira venda do bloco no lote (para o 'indice' dos resultados)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Resultado> processarBloco(List<VendaRequest> vendas, int primeiroIndice) {
+        Set<Long> ids = vendas.stream()
+                .flatMap(v -> v.itens().stream())
+                .map(ItemVendaRequest::produtoId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        // Ordem global de travas (R__estoque_faixas): todos os produtos em ordem de id e só depois as faixas, como a
+        // 'registrar_venda' e as reservas. Faixas primeiro fechavam ciclo com uma venda avulsa do mesmo
+        // carrinho (ela trava o produto sem faixas e espera a faixa; o lote tinha a faixa e esperava o produto)
+        Map<Long, Produto> produtos = produtoRepository.findAllByIdParaAtualizacao(ids).stream()
+                .collect(Collectors.toMap(Produto::getId, Function.identity()));
+        Map<Long, BigDecimal> saldoEmFaixas = estoqueFaixaRepository.travarSaldos(ids);
+        // O saldo real de quem usa faixas é a soma delas (mais o reservado, que já saiu das faixas);
+        // o flush grava esse valor como o novo consolidado
+        saldoEmFaixas.forEach((id, saldo) -> {
+            Produto produto = produtos.get(id);
+            produto.setQuantidadeEstoque(saldo.add(produto.getQuantidadeReservada()));
+        });
+        Map<Long, BigDecimal> saldoInicial = new HashMap<>();
+        produtos.values().forEach(p -> saldoInicial.put(p.getId(), p.getQuantidadeEstoque()));
+
+        List<Resultado> resultados = new ArrayList<>(vendas.size());
+        Map<Integer, Venda> aceitas = new LinkedHashMap<>();
+        LocalDateTime agora = LocalDateTime.now();
+
+        for (int i = 0; i < vendas.size(); i++) {
+            int indice = primeiroIndice + i;
+            VendaRequest pedido = vendas.get(i);
+
+            Resultado recusa = validar(pedido, produtos, indice);
+            if (recusa != null) {
+                resultados.add(recusa);
+                continue;
+            }
+
+            Venda venda = new Venda();
+            venda.setDataHora(agora);
+            for (ItemVendaRequest item : pedido.itens()) {
+                Produto produto = produtos.get(item.produtoId());
+                venda.adicionarItem(produto, item.quantidade());
+                estoqueService.registrarSaida(produto, item.quantidade(), venda);
+                produto.setQuantidadeEstoque(produto.getQuantidadeEstoque().subtract(item.quantidade()));
+            }
+            aceitas.put(indice, venda);
+        }
+
+        saldoEmFaixas.forEach((id, saldo) -> {
+            BigDecimal baixado = saldo.subtract(produtos.get(id).getQuantidadeEstoque());
+            if (baixado.signum() > 0) {
+                estoqueFaixaRepository.baixar(id, baixado);
+            }
+        });
+
+        vendaRepository.saveAll(aceitas.values());
+
+        // Alerta de estoque mínimo uma vez por produto, comparando o saldo antes e depois do bloco
+        saldoInicial.forEach((id, antes) -> {
+            Produto produto = produtos.get(id);
+            estoqueService.alertarSeAtingiuMinimo(
+                    produto.getNome(), produto.getEstoqueMinimo(), antes, produto.getQuantidadeEstoque());
+        });
+
+        aceitas.forEach((indice, venda) -> {
+            eventPublisher.publishEvent(new VendaRealizadaEvent(
+                    venda.getId(),
+                    VendaService.destaque(venda.getItens().getFirst().getNomeProdutoSnapshot(), venda.getItens().size()),
+                    venda.getValorTotal(),
+                    venda.getDataHora()
+            ));
+            resultados.add(new Resultado(indice, LinhaVendaRegistrada.STATUS_OK, venda.getId(),
+                    venda.getValorTotal(), venda.getDataHora(), null));
+        });
+
+        resultados.sort(Comparator.comparingInt(Resultado::indice));
+        return resultados;
+    }
+
+    // Confere a venda inteira contra o saldo corrente do bloco (linhas repetidas do mesmo produto somadas)
+    private Resultado validar(VendaRequest pedido, Map<Long, Produto> produtos, int indice) {
+        Map<Long, BigDecimal> porProduto = new LinkedHashMap<>();
+        pedido.itens().forEach(item -> porProduto.merge(item.produtoId(), item.quantidade(), BigDecimal::add));
+
+        for (Map.Entry<Long, BigDecimal> entry : porProduto.entrySet()) {
+            Produto produto = produtos.get(entry.getKey());
+            if (produto == null) {
+                return new Resultado(indice, LinhaVendaRegistrada.STATUS_NAO_ENCONTRADO, null, null, null,
+                        "Um ou mais produtos não foram encontrados.");
+            }
+            BigDecimal disponivel = produto.getQuantidadeEstoque().subtract(produto.getQuantidadeReservada());
+            if (disponivel.compareTo(entry.getValue()) < 0) {
+                return new Resultado(indice, LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE, null, null, null,
+                        "Estoque insuficiente para o produto: " + produto.getNome());
+            }
+        }
+        return null;
+    }
+}
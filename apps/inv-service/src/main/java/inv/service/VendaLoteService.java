@@ -0,0 +1,86 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import common.exception.ResourceNotFoundException;
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.ReciboResponse;
+import inv.dto.VendaLoteRequest;
+import inv.dto.VendaLoteResponse;
+import inv.dto.VendaLoteResponse.Resultado;
+import inv.dto.VendaRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * POST /vendas/lote: replay das vendas que o PDV acumulou offline.
+ * <p>
+ * O lote é dividido em blocos, cada um numa transação ({@link VendaLoteProcessor}). Se um bloco falhar
+ * por algo que não é regra de negócio (deadlock, conflito de versão, erro do banco), só ele é refeito
+ * venda a venda pelo fluxo normal, para isolar a venda problemática sem perder as demais.
+ */
+@Service
+public class VendaLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(VendaLoteService.class);
+
+    private final VendaLoteProcessor vendaLoteProcessor;
+    private final VendaService vendaService;
+
+    @Value("${inv.venda.lote.vendas-por-transacao:50}")
+    private int vendasPorTransacao;
+
+    public VendaLoteService(VendaLoteProcessor vendaLoteProcessor, VendaService vendaService) {
+        this.vendaLoteProcessor = vendaLoteProcessor;
+        this.vendaService = vendaService;
+    }
+
+    public VendaLoteResponse registrarLote(VendaLoteRequest request) {
+        List<VendaRequest> vendas = request.vendas();
+        List<Resultado> resultados = new ArrayList<>(vendas.size());
+
+        for (int inicio = 0; inicio < vendas.size(); inicio += vendasPorTransacao) {
+            List<VendaRequest> bloco = vendas.subList(inicio, Math.min(inicio + vendasPorTransacao, vendas.size()));
+            try {
+                resultados.addAll(vendaLoteProcessor.processarBloco(bloco, inicio));
+            } catch (RuntimeException e) {
+                log.warn("Bloco de vendas {}..{} do lote falhou ({}); reprocessando venda a venda",
+                        inicio, inicio + bloco.size() - 1, e.getMessage());
+                resultados.addAll(processarIndividualmente(bloco, inicio));
+            }
+        }
+
+        int sucesso = (int) resultados.stream()
+                .filter(r -> LinhaVendaRegistrada.STATUS_OK.equals(r.status()))
+                .count();
+        return new VendaLoteResponse(sucesso, resultados.size() - sucesso, resultados);
+    }
+
+    private List<Resultado> processarIndividualmente(List<VendaRequest> bloco, int primeiroIndice) {
+        List<Resultado> resultados = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            int indice = primeiroIndice + i;
+            try {
+                ReciboResponse recibo = vendaService.realizarVenda(bloco.get(i));
+                resultados.add(new Resultado(indice, LinhaVendaRegistrada.STATUS_OK, null,
+                        recibo.valorTotal(), recibo.data(), null));
+            } catch (ResourceNotFoundException e) {
+                resultados.add(falha(indice, LinhaVendaRegistrada.STATUS_NAO_ENCONTRADO, e));
+            } catch (BusinessException e) {
+                resultados.add(falha(indice, LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE, e));
+            } catch (RuntimeException e) {
+                log.error("Venda {} do lote falhou: {}", indice, e.getMessage());
+                resultados.add(falha(indice, VendaLoteResponse.STATUS_ERRO, e));
+            }
+        }
+        return resultados;
+    }
+
+    private static Resultado falha(int indice, String status, RuntimeException e) {
+        return new Resultado(indice, status, null, null, null, e.getMessage());
+    }
+}
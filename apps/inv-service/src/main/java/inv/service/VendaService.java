@@ -1,17 +1,24 @@
 package inv.service;
 
+import common.exception.BusinessException;
 import common.exception.ResourceNotFoundException;
 import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
 import inv.dto.ReciboResponse;
 import inv.dto.VendaRequest;
+import inv.event.VendaRealizadaEvent;
 import inv.model.Produto;
 import inv.model.Venda;
 import inv.repository.ProdutoRepository;
+import inv.repository.VendaProcedureRepository;
 import inv.repository.VendaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -23,17 +30,31 @@ public class VendaService {
     private final ProdutoRepository produtoRepository;
     private final VendaRepository vendaRepository;
     private final EstoqueService estoqueService;
+    private final VendaProcedureRepository vendaProcedureRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Checkout via função 'registrar_venda' (1 round-trip) em vez do fluxo JPA item a item
+    @Value("${inv.venda.procedure.enabled:false}")
+    private boolean vendaViaProcedure;
 
     public VendaService(ProdutoRepository produtoRepository,
                         VendaRepository vendaRepository,
-                        EstoqueService estoqueService) {
+                        EstoqueService estoqueService,
+                        VendaProcedureRepository vendaProcedureRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.produtoRepository = produtoRepository;
         this.vendaRepository = vendaRepository;
         this.estoqueService = estoqueService;
+        this.vendaProcedureRepository = vendaProcedureRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public ReciboResponse realizarVenda(VendaRequest pedido) {
+        if (vendaViaProcedure) {
+            return realizarVendaViaProcedure(pedido);
+        }
+
         // 1. Carregamento Eficiente (Batch Fetch)
         Map<Long, Produto> produtosMap = carregarProdutos(pedido);
 
@@ -54,9 +75,47 @@ public class VendaService {
         // 4. Persistência (Cascade salva os ItensVenda automaticamente)
         vendaRepository.save(venda);
 
+        eventPublisher.publishEvent(new VendaRealizadaEvent(
+                venda.getId(),
+                destaque(venda.getItens().getFirst().getNomeProdutoSnapshot(), venda.getItens().size()),
+                venda.getValorTotal(),
+                venda.getDataHora()
+        ));
+
         return new ReciboResponse("Venda realizada com sucesso!", venda.getValorTotal(), venda.getDataHora());
     }
 
+    private ReciboResponse realizarVendaViaProcedure(VendaRequest pedido) {
+        // Validação, baixa, itens, movimentações e total são feitos no banco numa única chamada
+        List<LinhaVendaRegistrada> linhas = vendaProcedureRepository.registrarVenda(pedido.itens());
+
+        for (LinhaVendaRegistrada linha : linhas) {
+            switch (linha.status()) {
+                case LinhaVendaRegistrada.STATUS_NAO_ENCONTRADO ->
+                        throw new ResourceNotFoundException("Um ou mais produtos não foram encontrados.");
+                case LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE ->
+                        throw new BusinessException("Estoque insuficiente para o produto: " + linha.nomeProduto());
+                default -> estoqueService.alertarSeAtingiuMinimo(
+                        linha.nomeProduto(), linha.estoqueMinimo(), linha.saldoAnterior(), linha.saldoAtual());
+            }
+        }
+
+        LinhaVendaRegistrada venda = linhas.getFirst();
+        eventPublisher.publishEvent(new VendaRealizadaEvent(
+                venda.vendaId(),
+                destaque(venda.nomeProduto(), linhas.size()),
+                venda.valorTotal(),
+                venda.dataHora()
+        ));
+
+        return new ReciboResponse("Venda realizada com sucesso!", venda.valorTotal(), venda.dataHora());
+    }
+
+    // Mesmo texto de 'recentSales' no /dashboard/stats
+    static String destaque(String primeiroProduto, int itens) {
+        return primeiroProduto + (itens > 1 ? " + outros" : "");
+    }
+
     private Map<Long, Produto> carregarProdutos(VendaRequest pedido) {
         Set<Long> ids = pedido.itens().stream()
                 .map(ItemVendaRequest::produtoId)
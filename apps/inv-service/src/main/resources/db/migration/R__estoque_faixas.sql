@@ -0,0 +1,165 @@
+-- Funções do estoque em faixas (tabela 'estoque_faixas', V7).
+-- Migração repetível: reaplicada pelo Flyway, depois das versionadas, sempre que este arquivo muda.
+--
+-- Ordem única de travas entre 'produtos' e 'estoque_faixas', em todos os caminhos:
+--   1. linhas de 'produtos', em ordem de id;
+--   2. depois as faixas, em ordem de (produto_id, faixa).
+-- A 'registrar_venda' trava os produtos sem faixas e só então baixa nas faixas (ela não trava a linha
+-- dos produtos com faixas; o FK de 'itens_venda' pega só FOR KEY SHARE, que não conflita com
+-- FOR NO KEY UPDATE). O lote de vendas (VendaLoteProcessor) e as reservas (ReservaService) travam
+-- todos os produtos antes da primeira faixa, e as funções abaixo travam a linha do produto primeiro.
+
+-- Baixa 'p_qtd' do produto nas faixas. Retorna o saldo total depois da baixa, ou NULL se não há saldo.
+CREATE OR REPLACE FUNCTION baixar_estoque_faixas(p_produto_id BIGINT, p_qtd NUMERIC)
+    RETURNS NUMERIC
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_total    NUMERIC;
+    v_restante NUMERIC := p_qtd;
+    v_parcela  NUMERIC;
+    v_faixa    RECORD;
+BEGIN
+    -- 1. Caminho rápido: uma faixa qualquer, não travada por outra venda, com saldo suficiente.
+    --    A ordem aleatória espalha as vendas; SKIP LOCKED faz a venda nunca esperar por outra.
+    UPDATE estoque_faixas e
+    SET quantidade = e.quantidade - p_qtd
+    FROM (SELECT f.faixa
+          FROM estoque_faixas f
+          WHERE f.produto_id = p_produto_id AND f.quantidade >= p_qtd
+          ORDER BY random()
+          LIMIT 1
+          FOR UPDATE SKIP LOCKED) livre
+    WHERE e.produto_id = p_produto_id AND e.faixa = livre.faixa;
+
+    IF FOUND THEN
+        SELECT SUM(f.quantidade) INTO v_total FROM estoque_faixas f WHERE f.produto_id = p_produto_id;
+        RETURN v_total;
+    END IF;
+
+    -- 2. Caminho lento: todas as faixas com saldo estão ocupadas ou a quantidade só cabe somando
+    --    várias. Trava todas (em ordem, para não haver deadlock entre duas baixas lentas) e drena
+    --    da maior para a menor.
+    SELECT SUM(t.quantidade) INTO v_total
+    FROM (SELECT f.quantidade
+          FROM estoque_faixas f
+          WHERE f.produto_id = p_produto_id
+          ORDER BY f.faixa
+          FOR UPDATE) t;
+
+    IF v_total IS NULL OR v_total < p_qtd THEN
+        RETURN NULL;
+    END IF;
+
+    FOR v_faixa IN
+        SELECT f.faixa, f.quantidade
+        FROM estoque_faixas f
+        WHERE f.produto_id = p_produto_id AND f.quantidade > 0
+        ORDER BY f.quantidade DESC
+    LOOP
+        v_parcela := LEAST(v_faixa.quantidade, v_restante);
+        UPDATE estoque_faixas
+        SET quantidade = quantidade - v_parcela
+        WHERE produto_id = p_produto_id AND faixa = v_faixa.faixa;
+
+        v_restante := v_restante - v_parcela;
+        EXIT WHEN v_restante = 0;
+    END LOOP;
+
+    RETURN v_total - p_qtd;
+END;
+$$;
+
+-- Redistribui o saldo igualmente entre as faixas quando alguma ficou com menos da metade da média
+-- (senão as vendas caem no caminho lento) e atualiza o consolidado em 'produtos', que inclui o
+-- reservado (V8): ele já saiu das faixas na hora da reserva.
+-- Retorna o saldo total das faixas, ou NULL se o produto não usa faixas.
+CREATE OR REPLACE FUNCTION rebalancear_estoque_faixas(p_produto_id BIGINT)
+    RETURNS NUMERIC
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_total  NUMERIC;
+    v_faixas INTEGER;
+    v_menor  NUMERIC;
+    v_base   NUMERIC;
+BEGIN
+    PERFORM 1 FROM produtos p WHERE p.id = p_produto_id FOR NO KEY UPDATE;
+
+    SELECT SUM(t.quantidade), COUNT(*), MIN(t.quantidade) INTO v_total, v_faixas, v_menor
+    FROM (SELECT f.quantidade
+          FROM estoque_faixas f
+          WHERE f.produto_id = p_produto_id
+          ORDER BY f.faixa
+          FOR UPDATE) t;
+
+    IF v_faixas = 0 THEN
+        RETURN NULL;
+    END IF;
+
+    v_base := trunc(v_total / v_faixas, 3);
+    IF v_menor < v_base / 2 THEN
+        -- A faixa 0 fica com o resto da divisão
+        UPDATE estoque_faixas
+        SET quantidade = v_base + CASE WHEN faixa = 0 THEN v_total - v_base * v_faixas ELSE 0 END
+        WHERE produto_id = p_produto_id;
+    END IF;
+
+    UPDATE produtos
+    SET quantidade_estoque = v_total + quantidade_reservada,
+        version = COALESCE(version, 0) + 1
+    WHERE id = p_produto_id AND quantidade_estoque <> v_total + quantidade_reservada;
+
+    RETURN v_total;
+END;
+$$;
+
+-- Liga (p_faixas > 0), muda o número de faixas ou desliga (0) o estoque em faixas de um produto.
+-- Só o disponível (estoque menos reservado) é redistribuído nas novas faixas (ou volta inteiro
+-- para 'produtos'). Retorna o saldo total, ou NULL se o produto não existe.
+CREATE OR REPLACE FUNCTION configurar_faixas_estoque(p_produto_id BIGINT, p_faixas INTEGER)
+    RETURNS NUMERIC
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_atual     NUMERIC;
+    v_reservada NUMERIC;
+    v_total     NUMERIC;
+    v_base      NUMERIC;
+BEGIN
+    SELECT p.quantidade_estoque, p.quantidade_reservada INTO v_atual, v_reservada
+    FROM produtos p
+    WHERE p.id = p_produto_id
+    FOR NO KEY UPDATE;
+
+    IF NOT FOUND THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT SUM(t.quantidade) INTO v_total
+    FROM (SELECT f.quantidade
+          FROM estoque_faixas f
+          WHERE f.produto_id = p_produto_id
+          ORDER BY f.faixa
+          FOR UPDATE) t;
+
+    DELETE FROM estoque_faixas WHERE produto_id = p_produto_id;
+    -- v_total: disponível (sem o reservado)
+    v_total := COALESCE(v_total, v_atual - v_reservada);
+
+    IF p_faixas > 0 THEN
+        v_base := trunc(v_total / p_faixas, 3);
+        INSERT INTO estoque_faixas (produto_id, faixa, quantidade)
+        SELECT p_produto_id, g, v_base + CASE WHEN g = 0 THEN v_total - v_base * p_faixas ELSE 0 END
+        FROM generate_series(0, p_faixas - 1) AS g;
+    END IF;
+
+    UPDATE produtos
+    SET faixas_estoque = p_faixas,
+        quantidade_estoque = v_total + v_reservada,
+        version = COALESCE(version, 0) + 1
+    WHERE id = p_produto_id;
+
+    RETURN v_total + v_reservada;
+END;
+$$;
@@ -0,0 +1,156 @@
+-- Checkout em uma única chamada ao banco.
+-- Migração repetível: o Flyway aplica depois das versionadas e de novo a cada mudança deste arquivo.
+-- O corpo aqui é sempre o atual; mudar parâmetros ou o retorno exige DROP FUNCTION antes.
+--
+-- Recebe os itens como arrays paralelos (id do produto, quantidade): o texto do SQL chamado
+-- pela aplicação é sempre o mesmo, independentemente do número de itens, então o driver
+-- reaproveita o prepared statement no servidor e o PL/pgSQL mantém os planos internos em cache.
+--
+-- Produtos com estoque em faixas (V7) baixam nas faixas, sem travar a linha deles; nos demais,
+-- o que está reservado (V8) não pode ser vendido avulso.
+--
+-- Retorna uma linha por produto com o saldo antes/depois da baixa (para o alerta de estoque mínimo).
+-- Em caso de falha de validação nada é gravado e as linhas retornadas trazem o motivo em 'status':
+--   NAO_ENCONTRADO       -> produto inexistente
+--   ESTOQUE_INSUFICIENTE -> saldo menor que a soma pedida
+CREATE OR REPLACE FUNCTION registrar_venda(p_produto_ids BIGINT[], p_quantidades NUMERIC[])
+    RETURNS TABLE (
+        venda_id       BIGINT,
+        valor_total    NUMERIC,
+        data_hora      TIMESTAMP,
+        produto_id     BIGINT,
+        nome_produto   VARCHAR,
+        saldo_anterior NUMERIC,
+        saldo_atual    NUMERIC,
+        estoque_minimo NUMERIC,
+        status         VARCHAR
+    )
+    LANGUAGE plpgsql
+AS $$
+#variable_conflict use_column
+DECLARE
+    v_venda_id     BIGINT;
+    v_total        NUMERIC;
+    v_agora        TIMESTAMP := LOCALTIMESTAMP;
+    v_item         RECORD;
+    v_depois       NUMERIC;
+    v_sem_saldo    BIGINT;
+    v_faixa_ids    BIGINT[]  := '{}';
+    v_faixa_qtds   NUMERIC[] := '{}';
+    v_faixa_saldos NUMERIC[] := '{}';
+BEGIN
+    IF cardinality(p_produto_ids) = 0 OR cardinality(p_produto_ids) <> cardinality(p_quantidades) THEN
+        RAISE EXCEPTION 'Itens da venda inválidos' USING ERRCODE = '22023';
+    END IF;
+
+    -- 1. Trava os produtos sem faixas sempre na mesma ordem (id) para evitar deadlock entre vendas concorrentes
+    PERFORM 1 FROM produtos p WHERE p.id = ANY (p_produto_ids) AND p.faixas_estoque = 0 ORDER BY p.id FOR UPDATE;
+
+    -- 2. Validação (sem efeitos colaterais)
+    RETURN QUERY
+        SELECT NULL::BIGINT, NULL::NUMERIC, NULL::TIMESTAMP, pedido.id, NULL::VARCHAR,
+               NULL::NUMERIC, NULL::NUMERIC, NULL::NUMERIC, 'NAO_ENCONTRADO'::VARCHAR
+        FROM (SELECT DISTINCT unnest(p_produto_ids) AS id) pedido
+        WHERE NOT EXISTS (SELECT 1 FROM produtos p WHERE p.id = pedido.id);
+    IF FOUND THEN
+        RETURN;
+    END IF;
+
+    RETURN QUERY
+        SELECT NULL::BIGINT, NULL::NUMERIC, NULL::TIMESTAMP, p.id, p.nome,
+               p.quantidade_estoque, NULL::NUMERIC, p.estoque_minimo, 'ESTOQUE_INSUFICIENTE'::VARCHAR
+        FROM (SELECT l.id, SUM(l.qtd) AS qtd
+              FROM unnest(p_produto_ids, p_quantidades) AS l(id, qtd)
+              GROUP BY l.id) pedido
+                 JOIN produtos p ON p.id = pedido.id
+        WHERE p.faixas_estoque = 0 AND p.quantidade_estoque - p.quantidade_reservada < pedido.qtd;
+    IF FOUND THEN
+        RETURN;
+    END IF;
+
+    -- 2b. Produtos com faixas: a própria baixa confere o saldo. Se faltar, o bloco é desfeito
+    --     (subtransação) e nada do que já foi baixado nas faixas fica gravado.
+    IF EXISTS (SELECT 1 FROM produtos p WHERE p.id = ANY (p_produto_ids) AND p.faixas_estoque > 0) THEN
+        BEGIN
+            FOR v_item IN
+                SELECT l.id, SUM(l.qtd) AS qtd
+                FROM unnest(p_produto_ids, p_quantidades) AS l(id, qtd)
+                         JOIN produtos p ON p.id = l.id
+                WHERE p.faixas_estoque > 0
+                GROUP BY l.id
+                ORDER BY l.id
+            LOOP
+                v_depois := baixar_estoque_faixas(v_item.id, v_item.qtd);
+                IF v_depois IS NULL THEN
+                    v_sem_saldo := v_item.id;
+                    RAISE EXCEPTION 'Estoque insuficiente nas faixas do produto %', v_item.id;
+                END IF;
+                v_faixa_ids := v_faixa_ids || v_item.id;
+                v_faixa_qtds := v_faixa_qtds || v_item.qtd;
+                v_faixa_saldos := v_faixa_saldos || v_depois;
+            END LOOP;
+        EXCEPTION
+            WHEN raise_exception THEN
+                IF v_sem_saldo IS NULL THEN
+                    RAISE;
+                END IF;
+        END;
+
+        IF v_sem_saldo IS NOT NULL THEN
+            RETURN QUERY
+                SELECT NULL::BIGINT, NULL::NUMERIC, NULL::TIMESTAMP, p.id, p.nome,
+                       (SELECT SUM(f.quantidade) FROM estoque_faixas f WHERE f.produto_id = p.id),
+                       NULL::NUMERIC, p.estoque_minimo, 'ESTOQUE_INSUFICIENTE'::VARCHAR
+                FROM produtos p
+                WHERE p.id = v_sem_saldo;
+            RETURN;
+        END IF;
+    END IF;
+
+    -- 3. Venda com o total calculado a partir do preço atual
+    SELECT SUM(p.preco_venda * l.qtd)
+    INTO v_total
+    FROM unnest(p_produto_ids, p_quantidades) AS l(id, qtd)
+             JOIN produtos p ON p.id = l.id;
+
+    INSERT INTO vendas (data_hora, valor_total)
+    VALUES (v_agora, v_total)
+    RETURNING id INTO v_venda_id;
+
+    -- 4. Itens (snapshot de nome/preço) e movimentações, na ordem do pedido
+    INSERT INTO itens_venda (venda_id, produto_id, nome_produto_snapshot, preco_unitario_snapshot, quantidade)
+    SELECT v_venda_id, p.id, p.nome, p.preco_venda, l.qtd
+    FROM unnest(p_produto_ids, p_quantidades) WITH ORDINALITY AS l(id, qtd, ordem)
+             JOIN produtos p ON p.id = l.id
+    ORDER BY l.ordem;
+
+    INSERT INTO movimentacoes_estoque (produto_id, venda_id, tipo, quantidade, data_hora, observacao)
+    SELECT l.id, v_venda_id, 'SAIDA', l.qtd, v_agora, 'Venda automatizada'
+    FROM unnest(p_produto_ids, p_quantidades) WITH ORDINALITY AS l(id, qtd, ordem)
+    ORDER BY l.ordem;
+
+    -- 5. Baixa agregada dos produtos sem faixas (incrementa 'version' como o @Version do JPA faria)
+    --    mais o saldo dos que foram baixados nas faixas no passo 2b
+    RETURN QUERY
+        WITH pedido AS (
+            SELECT l.id, SUM(l.qtd) AS qtd
+            FROM unnest(p_produto_ids, p_quantidades) AS l(id, qtd)
+            GROUP BY l.id
+        ),
+        baixa AS (
+            UPDATE produtos p
+                SET quantidade_estoque = p.quantidade_estoque - pedido.qtd,
+                    version = COALESCE(p.version, 0) + 1
+                FROM pedido
+                WHERE p.id = pedido.id AND p.faixas_estoque = 0
+                RETURNING p.id, p.nome, p.quantidade_estoque + pedido.qtd AS antes,
+                    p.quantidade_estoque AS depois, p.estoque_minimo
+        )
+        SELECT v_venda_id, v_total, v_agora, b.id, b.nome::VARCHAR, b.antes, b.depois, b.estoque_minimo, 'OK'::VARCHAR
+        FROM baixa b
+        UNION ALL
+        SELECT v_venda_id, v_total, v_agora, p.id, p.nome::VARCHAR, f.saldo + f.qtd, f.saldo, p.estoque_minimo, 'OK'::VARCHAR
+        FROM unnest(v_faixa_ids, v_faixa_qtds, v_faixa_saldos) AS f(id, qtd, saldo)
+                 JOIN produtos p ON p.id = f.id;
+END;
+$$;
@@ -0,0 +1,123 @@
+-- Funções das reservas de estoque do carrinho (tabelas 'reservas' e 'reserva_itens', V8).
+-- Migração repetível: reaplicada pelo Flyway, depois das versionadas, sempre que este arquivo muda.
+--
+-- Elas mexem em 'quantidade_estoque'/'quantidade_reservada' sem passar pelo Hibernate, então
+-- incrementam 'version' como o @Version do JPA faria: sem isso o ETag do produto (id + version)
+-- não muda e um GET condicional devolve 304 com o estoque e o reservado antigos.
+-- Travas na ordem descrita em R__estoque_faixas.sql: a linha do produto antes da faixa.
+
+-- Prende 'p_qtd' do produto. Retorna FALSE se o disponível não cobre a quantidade.
+CREATE OR REPLACE FUNCTION reservar_estoque(p_produto_id BIGINT, p_qtd NUMERIC)
+    RETURNS BOOLEAN
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_faixas INTEGER;
+BEGIN
+    SELECT p.faixas_estoque INTO v_faixas FROM produtos p WHERE p.id = p_produto_id FOR NO KEY UPDATE;
+
+    IF v_faixas > 0 THEN
+        IF baixar_estoque_faixas(p_produto_id, p_qtd) IS NULL THEN
+            RETURN FALSE;
+        END IF;
+        UPDATE produtos
+        SET quantidade_reservada = quantidade_reservada + p_qtd,
+            version = COALESCE(version, 0) + 1
+        WHERE id = p_produto_id;
+        RETURN TRUE;
+    END IF;
+
+    UPDATE produtos
+    SET quantidade_reservada = quantidade_reservada + p_qtd,
+        version = COALESCE(version, 0) + 1
+    WHERE id = p_produto_id AND quantidade_estoque - quantidade_reservada >= p_qtd;
+    RETURN FOUND;
+END;
+$$;
+
+-- Solta 'p_qtd' reservado do produto (cancelamento ou expiração).
+CREATE OR REPLACE FUNCTION liberar_estoque_reservado(p_produto_id BIGINT, p_qtd NUMERIC)
+    RETURNS VOID
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_faixas INTEGER;
+BEGIN
+    SELECT p.faixas_estoque INTO v_faixas FROM produtos p WHERE p.id = p_produto_id FOR NO KEY UPDATE;
+
+    -- A quantidade volta para a faixa mais vazia, a que mais provavelmente faria uma venda cair no caminho lento
+    IF v_faixas > 0 THEN
+        UPDATE estoque_faixas e
+        SET quantidade = e.quantidade + p_qtd
+        FROM (SELECT f.faixa
+              FROM estoque_faixas f
+              WHERE f.produto_id = p_produto_id
+              ORDER BY f.quantidade, f.faixa
+              LIMIT 1
+              FOR UPDATE) alvo
+        WHERE e.produto_id = p_produto_id AND e.faixa = alvo.faixa;
+    END IF;
+
+    UPDATE produtos
+    SET quantidade_reservada = GREATEST(quantidade_reservada - p_qtd, 0),
+        version = COALESCE(version, 0) + 1
+    WHERE id = p_produto_id;
+END;
+$$;
+
+-- Converte 'p_qtd' reservado em baixa. Retorna o saldo em estoque depois da baixa.
+CREATE OR REPLACE FUNCTION confirmar_estoque_reservado(p_produto_id BIGINT, p_qtd NUMERIC)
+    RETURNS NUMERIC
+    LANGUAGE sql
+AS $$
+    UPDATE produtos
+    SET quantidade_reservada = quantidade_reservada - p_qtd,
+        quantidade_estoque = quantidade_estoque - p_qtd,
+        version = COALESCE(version, 0) + 1
+    WHERE id = p_produto_id
+    RETURNING quantidade_estoque;
+$$;
+
+-- Expira até 'p_limite' reservas vencidas, soltando o estoque delas. Retorna quantas expirou.
+-- SKIP LOCKED: reservas sendo confirmadas/canceladas agora ficam para o próximo ciclo.
+-- Todos os produtos das reservas vencidas são travados antes da primeira faixa (a 'liberar' de cada um trava a faixa).
+CREATE OR REPLACE FUNCTION expirar_reservas(p_limite INTEGER)
+    RETURNS INTEGER
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    v_ids  BIGINT[];
+    v_item RECORD;
+BEGIN
+    SELECT array_agg(t.id) INTO v_ids
+    FROM (SELECT r.id
+          FROM reservas r
+          WHERE r.expira_em < LOCALTIMESTAMP
+          ORDER BY r.expira_em
+          LIMIT p_limite
+          FOR UPDATE SKIP LOCKED) t;
+
+    IF v_ids IS NULL THEN
+        RETURN 0;
+    END IF;
+
+    PERFORM 1
+    FROM produtos p
+    WHERE p.id IN (SELECT i.produto_id FROM reserva_itens i WHERE i.reserva_id = ANY (v_ids))
+    ORDER BY p.id
+    FOR NO KEY UPDATE;
+
+    FOR v_item IN
+        SELECT i.produto_id, SUM(i.quantidade) AS qtd
+        FROM reserva_itens i
+        WHERE i.reserva_id = ANY (v_ids)
+        GROUP BY i.produto_id
+        ORDER BY i.produto_id
+    LOOP
+        PERFORM liberar_estoque_reservado(v_item.produto_id, v_item.qtd);
+    END LOOP;
+
+    DELETE FROM reservas WHERE id = ANY (v_ids);
+    RETURN cardinality(v_ids);
+END;
+$$;
@@ -0,0 +1,10 @@
+-- Outbox genérico (common.outbox): ordenação por chave de agregado e serialização plugável.
+-- partition_key = hash não negativo de aggregate_key (OutboxPublisher); a partição é calculada na busca:
+-- mod(partition_key, outbox.partitions).
+ALTER TABLE outbox ADD COLUMN aggregate_key VARCHAR(255);
+ALTER TABLE outbox ADD COLUMN partition_key INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE outbox ADD COLUMN content_type VARCHAR(100) NOT NULL DEFAULT 'application/json';
+
+-- O relay busca lotes por partição, na ordem de inserção (OutboxStore.findBatch). O 16 é o outbox.partitions:
+-- outro valor pede uma migração que troque este índice por um com o mesmo divisor.
+CREATE INDEX IF NOT EXISTS idx_outbox_particao ON outbox (mod(partition_key, 16), id);
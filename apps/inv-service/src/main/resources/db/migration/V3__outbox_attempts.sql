@@ -0,0 +1,2 @@
+-- Número de tentativas de envio que falharam (métrica outbox.relay.retried)
+ALTER TABLE outbox ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,49 @@
+-- Feed incremental do catálogo (GET /produtos/changes) para o cache offline dos PDVs.
+--
+-- 'change_seq' guarda o id da transação (xid8, 64 bits e sempre crescente) que gravou a linha por
+-- último. Diferente de uma sequence, dá para saber quando um valor está "fechado": todo xid abaixo
+-- do xmin do snapshot de quem lê já terminou, então nada com change_seq menor vai aparecer depois.
+-- O feed usa esse xmin como próximo token e nunca perde uma alteração que commitou fora de ordem.
+ALTER TABLE produtos ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_produtos_change_seq ON produtos (change_seq, id);
+
+-- Produtos removidos continuam no feed como tombstone (os PDVs precisam apagar do cache local)
+CREATE TABLE produtos_removidos (
+    produto_id    BIGINT PRIMARY KEY,
+    codigo_barras VARCHAR(255),
+    change_seq    BIGINT    NOT NULL,
+    removido_em   TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_produtos_removidos_change_seq ON produtos_removidos (change_seq, produto_id);
+
+CREATE OR REPLACE FUNCTION produtos_marcar_alteracao()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.change_seq := pg_current_xact_id()::text::BIGINT;
+    RETURN NEW;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION produtos_registrar_remocao()
+    RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO produtos_removidos (produto_id, codigo_barras, change_seq, removido_em)
+    VALUES (OLD.id, OLD.codigo_barras, pg_current_xact_id()::text::BIGINT, LOCALTIMESTAMP)
+    ON CONFLICT (produto_id) DO NOTHING;
+    RETURN OLD;
+END;
+$$;
+
+CREATE TRIGGER trg_produtos_change_seq
+    BEFORE INSERT OR UPDATE ON produtos
+    FOR EACH ROW EXECUTE FUNCTION produtos_marcar_alteracao();
+
+CREATE TRIGGER trg_produtos_tombstone
+    AFTER DELETE ON produtos
+    FOR EACH ROW EXECUTE FUNCTION produtos_registrar_remocao();
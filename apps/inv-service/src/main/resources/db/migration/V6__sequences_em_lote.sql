@@ -0,0 +1,11 @@
+-- Venda, itens e movimentações passam de IDENTITY para SEQUENCE com allocationSize = 50 (pooled-lo).
+-- Com IDENTITY o Hibernate precisa do id de cada INSERT na hora e não consegue agrupar em batch;
+-- com a sequence reservando 50 ids por chamada, os INSERTs da venda (e do POST /vendas/lote)
+-- saem em batches JDBC.
+--
+-- pooled-lo usa o valor do nextval como início da faixa [v, v + 49]. Quem insere pelo DEFAULT
+-- da coluna (a função 'registrar_venda') recebe o próximo nextval, que já está fora de qualquer
+-- faixa reservada pela aplicação: as duas formas convivem sem colisão.
+ALTER SEQUENCE vendas_id_seq INCREMENT BY 50;
+ALTER SEQUENCE itens_venda_id_seq INCREMENT BY 50;
+ALTER SEQUENCE movimentacoes_estoque_id_seq INCREMENT BY 50;
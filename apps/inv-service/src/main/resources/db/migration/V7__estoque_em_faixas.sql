@@ -0,0 +1,20 @@
+-- Estoque em faixas para produtos muito vendidos.
+--
+-- Toda venda de um produto "quente" faz UPDATE na mesma linha de 'produtos', então os checkouts
+-- concorrentes desse produto andam em fila atrás do lock da linha. Com 'faixas_estoque' = N > 0
+-- o saldo fica dividido em N linhas de 'estoque_faixas' e cada baixa pega qualquer faixa livre
+-- que tenha saldo (SKIP LOCKED): até N vendas do mesmo produto baixam estoque ao mesmo tempo.
+--
+-- Nesses produtos o saldo de verdade é a soma das faixas; 'produtos.quantidade_estoque' vira um
+-- consolidado que o rebalanceamento periódico atualiza (EstoqueFaixasRebalancer), o que mantém
+-- listagens, ETags e o feed do catálogo funcionando sem somar faixas a cada leitura.
+-- As funções que baixam, rebalanceiam e configuram as faixas ficam em R__estoque_faixas.sql.
+ALTER TABLE produtos ADD COLUMN faixas_estoque INTEGER NOT NULL DEFAULT 0
+    CHECK (faixas_estoque BETWEEN 0 AND 64);
+
+CREATE TABLE estoque_faixas (
+    produto_id BIGINT        NOT NULL REFERENCES produtos (id) ON DELETE CASCADE,
+    faixa      SMALLINT      NOT NULL,
+    quantidade NUMERIC(10,3) NOT NULL CHECK (quantidade >= 0),
+    PRIMARY KEY (produto_id, faixa)
+);
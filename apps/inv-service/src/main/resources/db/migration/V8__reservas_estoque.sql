@@ -0,0 +1,31 @@
+-- Reservas de estoque do carrinho (checkout em duas fases: POST /reservas -> confirmação ou cancelamento).
+--
+-- 'quantidade_reservada' é o total preso em reservas ativas. O disponível para venda passa a ser
+-- 'quantidade_estoque - quantidade_reservada' em todo caminho de venda; a confirmação converte a
+-- reserva em venda sem precisar conferir saldo de novo.
+--
+-- Produtos com estoque em faixas (V7) tiram a quantidade reservada das faixas na hora da reserva
+-- (as vendas avulsas desses produtos só olham as faixas) e a devolvem se a reserva não for confirmada.
+-- Para eles o consolidado em 'quantidade_estoque' é a soma das faixas mais o reservado.
+-- As funções de reserva ficam em R__reservas_estoque.sql.
+ALTER TABLE produtos ADD COLUMN quantidade_reservada NUMERIC(10,3) NOT NULL DEFAULT 0
+    CHECK (quantidade_reservada >= 0);
+
+-- 'usuario': 'sub' de quem criou. Confirmar ou cancelar a reserva de outro usuário responde 404,
+-- como se ela não existisse (os ids são sequenciais e dariam para enumerar).
+CREATE TABLE reservas (
+    id        BIGSERIAL PRIMARY KEY,
+    usuario   VARCHAR(255) NOT NULL,
+    criada_em TIMESTAMP    NOT NULL,
+    expira_em TIMESTAMP    NOT NULL
+);
+
+-- Varredura das expiradas por ordem de expiração (ExpiracaoReservaJob)
+CREATE INDEX IF NOT EXISTS idx_reservas_expira_em ON reservas (expira_em);
+
+CREATE TABLE reserva_itens (
+    reserva_id BIGINT        NOT NULL REFERENCES reservas (id) ON DELETE CASCADE,
+    produto_id BIGINT        NOT NULL REFERENCES produtos (id),
+    quantidade NUMERIC(10,3) NOT NULL CHECK (quantidade > 0),
+    PRIMARY KEY (reserva_id, produto_id)
+);
@@ -0,0 +1,97 @@
+package inv.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primario;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReplicaLagMonitor monitor;
+
+    @Mock
+    private Connection conexaoPrimario;
+
+    @Mock
+    private Connection conexaoReplica;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void limparTransacao() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("DEVE mandar só as transações readOnly para a réplica")
+    void deveMandarReadOnlyParaReplica() throws Exception {
+        // CENÁRIO
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primario, replica, monitor, meterRegistry);
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        when(monitor.isDisponivel()).thenReturn(true);
+
+        // AÇÃO & VERIFICAÇÃO
+        assertSame(conexaoPrimario, dataSource.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(conexaoReplica, dataSource.getConnection());
+        assertEquals(1, meterRegistry.get("inv.datasource.readonly.connections").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    @DisplayName("DEVE ler do primário com a réplica atrasada, sem nem pedir conexão a ela")
+    void deveLerDoPrimarioComReplicaAtrasada() throws Exception {
+        // CENÁRIO
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primario, replica, monitor, meterRegistry);
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(monitor.isDisponivel()).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // AÇÃO
+        Connection conexao = dataSource.getConnection();
+
+        // VERIFICAÇÃO
+        assertSame(conexaoPrimario, conexao);
+        verifyNoInteractions(replica);
+        assertEquals(1, meterRegistry.get("inv.datasource.readonly.connections").tag("target", "primary").counter().count());
+    }
+
+    @Test
+    @DisplayName("DEVE cair no primário e tirar a réplica de uso quando ela não entrega conexão")
+    void deveCairNoPrimarioQuandoReplicaFalha() throws Exception {
+        // CENÁRIO
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primario, replica, monitor, meterRegistry);
+        SQLTransientConnectionException falha = new SQLTransientConnectionException("inv-replica - Connection is not available");
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica.getConnection()).thenThrow(falha);
+        when(monitor.isDisponivel()).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // AÇÃO
+        Connection conexao = dataSource.getConnection();
+
+        // VERIFICAÇÃO
+        assertSame(conexaoPrimario, conexao);
+        verify(monitor).registrarFalha(falha);
+    }
+}
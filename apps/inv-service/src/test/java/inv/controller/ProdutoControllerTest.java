@@ -0,0 +1,90 @@
+package inv.controller;
+
+import inv.model.Produto;
+import inv.service.ProdutoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoControllerTest {
+
+    @Mock
+    private ProdutoService produtoService;
+
+    @InjectMocks
+    private ProdutoController produtoController;
+
+    @Test
+    @DisplayName("DEVE responder 304 pela versão, sem carregar o produto")
+    void deveResponderNaoModificadoSemCarregarProduto() {
+        // CENÁRIO
+        when(produtoService.etagPorId(1L)).thenReturn(Optional.of("\"produto-1-3\""));
+
+        // AÇÃO
+        ResponseEntity<Produto> resposta = produtoController.buscarPorId(1L, requisicao("\"produto-1-3\""));
+
+        // VERIFICAÇÃO
+        assertEquals(HttpStatus.NOT_MODIFIED, resposta.getStatusCode());
+        assertEquals("\"produto-1-3\"", resposta.getHeaders().getETag());
+        assertNull(resposta.getBody());
+        verify(produtoService, never()).buscarPorId(any());
+    }
+
+    @Test
+    @DisplayName("DEVE devolver o produto com o ETag novo quando a versão mudou")
+    void deveDevolverProdutoQuandoVersaoMudou() {
+        // CENÁRIO
+        Produto produto = new Produto();
+        produto.setId(1L);
+        produto.setVersion(4L);
+        when(produtoService.etagPorId(1L)).thenReturn(Optional.of("\"produto-1-4\""));
+        when(produtoService.buscarPorId(1L)).thenReturn(produto);
+
+        // AÇÃO
+        ResponseEntity<Produto> resposta = produtoController.buscarPorId(1L, requisicao("\"produto-1-3\""));
+
+        // VERIFICAÇÃO
+        assertEquals(HttpStatus.OK, resposta.getStatusCode());
+        assertEquals("\"produto-1-4\"", resposta.getHeaders().getETag());
+        assertSame(produto, resposta.getBody());
+    }
+
+    @Test
+    @DisplayName("NÃO deve consultar a versão quando não há If-None-Match")
+    void naoDeveConsultarVersaoSemIfNoneMatch() {
+        // CENÁRIO
+        Produto produto = new Produto();
+        produto.setId(1L);
+        produto.setVersion(0L);
+        when(produtoService.buscarPorId(1L)).thenReturn(produto);
+
+        // AÇÃO
+        ResponseEntity<Produto> resposta = produtoController.buscarPorId(1L, requisicao(null));
+
+        // VERIFICAÇÃO
+        assertEquals("\"produto-1-0\"", resposta.getHeaders().getETag());
+        verify(produtoService, never()).etagPorId(any());
+    }
+
+    private static ServletWebRequest requisicao(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/produtos/1");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
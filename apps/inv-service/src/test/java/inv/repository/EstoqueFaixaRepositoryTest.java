@@ -0,0 +1,135 @@
+package inv.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ordem de travas (R__estoque_faixas) num Postgres real: o lote de vendas trava os produtos e depois as faixas, e
+ * uma venda avulsa, um rebalanceamento ou uma reserva do mesmo produto no meio disso tem que esperar
+ * e terminar, não fechar ciclo (deadlock detectado pelo Postgres derruba uma das duas transações).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class EstoqueFaixaRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrar() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    @DisplayName("DEVE concluir a venda avulsa concorrente com o lote sem deadlock")
+    void deveConcluirVendaAvulsaConcorrenteComLote() throws Exception {
+        // CENÁRIO: carrinho com um produto sem faixas e um com uma faixa só (a venda não tem faixa livre)
+        Long semFaixas = criarProduto("10.000");
+        Long comFaixas = criarProduto("10.000");
+        jdbcTemplate.queryForObject("SELECT configurar_faixas_estoque(?, 1)", BigDecimal.class, comFaixas);
+
+        // AÇÃO
+        String status = comLoteTravando(List.of(semFaixas, comFaixas), () -> jdbcTemplate.queryForObject(
+                "SELECT status FROM registrar_venda(ARRAY[?, ?]::BIGINT[], ARRAY[1, 1]::NUMERIC[]) LIMIT 1",
+                String.class, semFaixas, comFaixas));
+
+        // VERIFICAÇÃO
+        assertEquals("OK", status);
+    }
+
+    @Test
+    @DisplayName("DEVE concluir o rebalanceamento concorrente com o lote sem deadlock")
+    void deveConcluirRebalanceamentoConcorrenteComLote() throws Exception {
+        // CENÁRIO: venda nas faixas ainda fora do consolidado, o rebalanceamento vai atualizar o produto
+        Long produtoId = criarProduto("40.000");
+        jdbcTemplate.queryForObject("SELECT configurar_faixas_estoque(?, 4)", BigDecimal.class, produtoId);
+        EstoqueFaixaRepository repository = new EstoqueFaixaRepository(jdbcTemplate);
+        repository.baixar(produtoId, BigDecimal.ONE);
+
+        // AÇÃO
+        BigDecimal saldo = comLoteTravando(List.of(produtoId), () -> repository.rebalancear(produtoId));
+
+        // VERIFICAÇÃO
+        assertEquals(0, new BigDecimal("39").compareTo(saldo));
+    }
+
+    @Test
+    @DisplayName("DEVE concluir a reserva concorrente com o lote sem deadlock")
+    void deveConcluirReservaConcorrenteComLote() throws Exception {
+        // CENÁRIO
+        Long produtoId = criarProduto("40.000");
+        jdbcTemplate.queryForObject("SELECT configurar_faixas_estoque(?, 4)", BigDecimal.class, produtoId);
+        ReservaEstoqueRepository repository = new ReservaEstoqueRepository(jdbcTemplate);
+
+        // AÇÃO
+        Boolean reservou = comLoteTravando(List.of(produtoId), () -> repository.reservar(produtoId, BigDecimal.TEN));
+
+        // VERIFICAÇÃO
+        assertTrue(reservou);
+    }
+
+    /**
+     * Faz as travas do VendaLoteProcessor numa transação (produtos em ordem de id, como o
+     * findAllByIdParaAtualizacao, e depois as faixas) com a operação concorrente já esperando entre
+     * os dois passos. Devolve o resultado da operação concorrente.
+     */
+    private <T> T comLoteTravando(List<Long> produtoIds, Supplier<T> concorrente) throws Exception {
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            JdbcTemplate lote = new JdbcTemplate(new SingleConnectionDataSource(conexao, true));
+            lote.queryForList("SELECT p.id FROM produtos p WHERE p.id = ANY(?::BIGINT[]) ORDER BY p.id FOR NO KEY UPDATE",
+                    Long.class, (Object) produtoIds.toArray(Long[]::new));
+
+            CompletableFuture<T> outra = CompletableFuture.supplyAsync(concorrente);
+            aguardarBloqueioOuFim(outra);
+
+            Map<Long, BigDecimal> saldos = new EstoqueFaixaRepository(lote).travarSaldos(produtoIds);
+            assertFalse(saldos.isEmpty());
+            conexao.commit();
+            return outra.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void aguardarBloqueioOuFim(CompletableFuture<?> outra) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!outra.isDone() && System.nanoTime() < limite) {
+            Integer bloqueadas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity "
+                    + "WHERE datname = current_database() AND wait_event_type = 'Lock'", Integer.class);
+            if (bloqueadas != null && bloqueadas > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private Long criarProduto(String estoque) {
+        return jdbcTemplate.queryForObject("INSERT INTO produtos "
+                        + "(nome, estoque_minimo, unidade_medida, quantidade_estoque, preco_venda, version) "
+                        + "VALUES ('Ração', 1, 'UN', ?, 10.00, 0) RETURNING id",
+                Long.class, new BigDecimal(estoque));
+    }
+}
@@ -0,0 +1,121 @@
+package inv.repository;
+
+import inv.dto.ProdutoVersao;
+import inv.service.ProdutoEtags;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Funções de reserva (R__reservas_estoque) num Postgres real: o ETag do produto (id + version) tem que mudar
+ * a cada movimento, senão o GET condicional devolve 304 com estoque e reservado antigos.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReservaEstoqueRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private ReservaEstoqueRepository repository;
+
+    @BeforeAll
+    static void migrar() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    void setup() {
+        repository = new ReservaEstoqueRepository(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("DEVE mudar o ETag do produto ao reservar e ao confirmar a reserva")
+    void deveMudarEtagAoReservarEConfirmar() {
+        // CENÁRIO
+        Long produtoId = criarProduto("10.000");
+        String inicial = etag(produtoId);
+
+        // AÇÃO
+        assertTrue(repository.reservar(produtoId, new BigDecimal("3")));
+        String reservado = etag(produtoId);
+        repository.confirmar(produtoId, new BigDecimal("3"));
+        String confirmado = etag(produtoId);
+
+        // VERIFICAÇÃO
+        assertNotEquals(inicial, reservado);
+        assertNotEquals(reservado, confirmado);
+        assertEquals(0, new BigDecimal("7").compareTo(estoque(produtoId)));
+    }
+
+    @Test
+    @DisplayName("DEVE mudar o ETag do produto ao liberar a reserva (cancelamento ou expiração)")
+    void deveMudarEtagAoLiberar() {
+        // CENÁRIO
+        Long produtoId = criarProduto("10.000");
+        assertTrue(repository.reservar(produtoId, new BigDecimal("4")));
+        String reservado = etag(produtoId);
+        Long reservaId = jdbcTemplate.queryForObject("INSERT INTO reservas (usuario, criada_em, expira_em) "
+                + "VALUES ('ana', LOCALTIMESTAMP - INTERVAL '1 hour', LOCALTIMESTAMP - INTERVAL '1 minute') RETURNING id", Long.class);
+        jdbcTemplate.update("INSERT INTO reserva_itens (reserva_id, produto_id, quantidade) VALUES (?, ?, 2)", reservaId, produtoId);
+
+        // AÇÃO
+        repository.liberar(produtoId, new BigDecimal("2"));
+        String cancelado = etag(produtoId);
+        int expiradas = repository.expirarVencidas(10);
+        String expirado = etag(produtoId);
+
+        // VERIFICAÇÃO
+        assertEquals(1, expiradas);
+        assertNotEquals(reservado, cancelado);
+        assertNotEquals(cancelado, expirado);
+    }
+
+    @Test
+    @DisplayName("DEVE mudar o ETag ao reservar produto com estoque em faixas")
+    void deveMudarEtagAoReservarProdutoEmFaixas() {
+        // CENÁRIO
+        Long produtoId = criarProduto("40.000");
+        jdbcTemplate.queryForObject("SELECT configurar_faixas_estoque(?, 4)", BigDecimal.class, produtoId);
+        String inicial = etag(produtoId);
+
+        // AÇÃO
+        assertTrue(repository.reservar(produtoId, new BigDecimal("5")));
+
+        // VERIFICAÇÃO
+        assertNotEquals(inicial, etag(produtoId));
+    }
+
+    private Long criarProduto(String estoque) {
+        return jdbcTemplate.queryForObject("INSERT INTO produtos "
+                        + "(nome, estoque_minimo, unidade_medida, quantidade_estoque, preco_venda, version) "
+                        + "VALUES ('Ração', 1, 'UN', ?, 10.00, 0) RETURNING id",
+                Long.class, new BigDecimal(estoque));
+    }
+
+    private String etag(Long produtoId) {
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM produtos WHERE id = ?", Long.class, produtoId);
+        return ProdutoEtags.de(new ProdutoVersao(produtoId, version));
+    }
+
+    private BigDecimal estoque(Long produtoId) {
+        return jdbcTemplate.queryForObject("SELECT quantidade_estoque FROM produtos WHERE id = ?", BigDecimal.class, produtoId);
+    }
+}
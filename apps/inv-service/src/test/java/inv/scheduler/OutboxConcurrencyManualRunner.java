@@ -1,13 +1,16 @@
 package inv.scheduler;
 
-import inv.model.Outbox;
-import inv.repository.OutboxRepository;
+import common.outbox.OutboxMessage;
+import common.outbox.OutboxProcessor;
+import common.outbox.OutboxStore;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
 import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
@@ -32,13 +35,18 @@ import java.util.concurrent.atomic.AtomicInteger;
         "spring.datasource.password=senha",
         "spring.jpa.hibernate.ddl-auto=create-drop",
         "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
-        "logging.level.root=INFO"
+        "logging.level.root=INFO",
+        "outbox.relay.publisher-confirms=false",
+        "outbox.relay.batch-size=10"
 })
 @EnabledIfEnvironmentVariable(named = "DOCKER_READY", matches = "true")
 class OutboxConcurrencyManualRunner {
 
     @Autowired
-    private OutboxRepository outboxRepository;
+    private OutboxStore outboxStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Autowired
     private OutboxProcessor outboxProcessor;
@@ -49,9 +57,11 @@ class OutboxConcurrencyManualRunner {
     @MockitoBean
     private JwtDecoder jwtDecoder; // Necessário para subir o contexto de segurança
 
+    private static final int PARTICOES = 16;
+
     @BeforeEach
     void setup() {
-        outboxRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM outbox");
     }
 
     @Test
@@ -59,19 +69,23 @@ class OutboxConcurrencyManualRunner {
     void deveProcessarComConcorrenciaSemErros() throws InterruptedException {
         // 1. SETUP: Inserir carga no banco
         int totalMensagens = 100;
-        List<Outbox> mensagens = new ArrayList<>();
 
         for (int i = 0; i < totalMensagens; i++) {
-            Outbox outbox = new Outbox();
-            // Usando HashMap pois é uma classe padrão do Java que o ObjectMapper consegue desserializar de "{}"
-            outbox.setEventType("java.util.HashMap");
-            outbox.setPayload("{}");
-            outbox.setExchange("ex.teste");
-            outbox.setRoutingKey("rk.teste");
-            outbox.setCreatedAt(LocalDateTime.now());
-            mensagens.add(outbox);
+            // O relay não desserializa o payload, então qualquer JSON serve
+            outboxStore.insert(new OutboxMessage(
+                    null,
+                    "ex.teste",
+                    "rk.teste",
+                    "{}",
+                    "application/json",
+                    "java.util.HashMap",
+                    1,
+                    "agregado-" + i,
+                    i % PARTICOES,
+                    0,
+                    LocalDateTime.now()
+            ));
         }
-        outboxRepository.saveAll(mensagens);
 
         System.out.println("=== INÍCIO DO TESTE DE CONCORRÊNCIA ===");
 
@@ -89,18 +103,19 @@ class OutboxConcurrencyManualRunner {
                     try {
                         largada.await(); // Espera sinal para começar tudo junto
 
-                        boolean temMais = true;
-                        while (temMais) {
-                            try {
-                                temMais = outboxProcessor.processNext();
-                                if (temMais) {
-                                    totalProcessadoSucesso.incrementAndGet();
+                        // Todas as threads disputam todas as partições (advisory lock decide quem leva)
+                        int publicadasNaRodada;
+                        do {
+                            publicadasNaRodada = 0;
+                            for (int particao = 0; particao < PARTICOES; particao++) {
+                                try {
+                                    publicadasNaRodada += outboxProcessor.processPartition(particao);
+                                } catch (Exception e) {
+                                    erros.add(e);
                                 }
-                            } catch (Exception e) {
-                                erros.add(e);
-                                temMais = false;
                             }
-                        }
+                            totalProcessadoSucesso.addAndGet(publicadasNaRodada);
+                        } while (publicadasNaRodada > 0);
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     } finally {
@@ -120,12 +135,12 @@ class OutboxConcurrencyManualRunner {
             Assertions.assertTrue(erros.isEmpty(), "Ocorreram exceções durante o processamento: " + erros);
 
             // Verifica consistência: Nada no banco, tudo processado
-            Assertions.assertEquals(0, outboxRepository.count(), "Ainda existem registros no banco (SKIP LOCKED falhou?)");
+            Assertions.assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Long.class), "Ainda existem registros no banco (lock de partição falhou?)");
             Assertions.assertEquals(totalMensagens, totalProcessadoSucesso.get(), "Número de mensagens processadas diverge do inserido");
 
             // Verifica se o RabbitMQ foi chamado o número correto de vezes
             Mockito.verify(rabbitTemplate, Mockito.times(totalMensagens))
-                    .convertAndSend(Mockito.anyString(), Mockito.anyString(), Mockito.any(Object.class));
+                    .send(Mockito.anyString(), Mockito.anyString(), Mockito.any(Message.class));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+package inv.security;
+
+import common.security.GatewayIdentity;
+import common.security.GatewayIdentityCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayIdentityFilterTest {
+
+    private static final String SECRET = "segredo-compartilhado-de-teste-com-32-bytes-ou-mais";
+
+    private final GatewayIdentityCodec codec = new GatewayIdentityCodec(SECRET);
+    private final GatewayIdentityFilter filter = new GatewayIdentityFilter(codec);
+    private final BearerTokenResolver resolver = GatewayIdentityFilter.bearerTokenResolver();
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("DEVE autenticar pelo header assinado e esconder o Bearer")
+    void deveAutenticarPeloHeaderAssinado() throws Exception {
+        GatewayIdentity identity = new GatewayIdentity("admin@petshop.com", 42L,
+                List.of("SCOPE_openid", "ROLE_ADMIN"), Instant.now().plusSeconds(300));
+        MockHttpServletRequest request = requisicao(codec.encode(identity));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin@petshop.com", authentication.getName());
+        assertEquals(42L, ((GatewayIdentity) authentication.getPrincipal()).userId());
+        assertEquals(List.of("SCOPE_openid", "ROLE_ADMIN"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertNull(resolver.resolve(request), "JWT não deve ser validado de novo");
+    }
+
+    @Test
+    @DisplayName("NÃO deve autenticar com header adulterado (segue com o Bearer)")
+    void naoDeveAutenticarComHeaderAdulterado() throws Exception {
+        GatewayIdentity identity = new GatewayIdentity("cliente@petshop.com", 7L,
+                List.of("ROLE_USER"), Instant.now().plusSeconds(300));
+        String header = codec.encode(identity);
+        // Troca as authorities mantendo a assinatura original
+        String[] campos = header.split("\\.");
+        campos[3] = Base64.getUrlEncoder().withoutPadding().encodeToString("ROLE_ADMIN".getBytes());
+        MockHttpServletRequest request = requisicao(String.join(".", campos));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals("jwt-do-cliente", resolver.resolve(request));
+    }
+
+    @Test
+    @DisplayName("NÃO deve autenticar com header expirado ou assinado com outro segredo")
+    void naoDeveAutenticarComHeaderExpiradoOuOutroSegredo() throws Exception {
+        GatewayIdentity expirada = new GatewayIdentity("cliente@petshop.com", 7L,
+                List.of("ROLE_USER"), Instant.now().minusSeconds(1));
+        GatewayIdentity valida = new GatewayIdentity("cliente@petshop.com", 7L,
+                List.of("ROLE_USER"), Instant.now().plusSeconds(300));
+        GatewayIdentityCodec outroSegredo = new GatewayIdentityCodec("outro-segredo-qualquer-com-mais-de-32-bytes");
+
+        for (String header : List.of(codec.encode(expirada), outroSegredo.encode(valida), "lixo")) {
+            MockHttpServletRequest request = requisicao(header);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            assertNull(SecurityContextHolder.getContext().getAuthentication(), header);
+            assertEquals("jwt-do-cliente", resolver.resolve(request));
+        }
+    }
+
+    private static MockHttpServletRequest requisicao(String identityHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/produtos");
+        request.addHeader("Authorization", "Bearer jwt-do-cliente");
+        request.addHeader(GatewayIdentityCodec.HEADER, identityHeader);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import inv.dto.CatalogoDelta;
+import inv.dto.ProdutoAlteracao;
+import inv.repository.CatalogoChangeRepository;
+import inv.repository.CatalogoChangeRepository.Linha;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogoSyncServiceTest {
+
+    @Mock
+    private CatalogoChangeRepository changeRepository;
+
+    @InjectMocks
+    private CatalogoSyncService catalogoSyncService;
+
+    @Test
+    @DisplayName("DEVE devolver o horizonte lido antes das linhas quando o feed termina")
+    void deveDevolverHorizonteAoTerminar() {
+        // CENÁRIO
+        when(changeRepository.horizonte()).thenReturn(900L);
+        when(changeRepository.alteracoesApos(500L, 0L, 11)).thenReturn(List.of(linha(880L, 7L), linha(950L, 3L)));
+
+        // AÇÃO
+        CatalogoDelta delta = catalogoSyncService.alteracoesDesde("500", 10);
+
+        // VERIFICAÇÃO
+        // 950 ainda pode ter companhia de transações abertas abaixo dele: o token não passa de 900
+        assertEquals("900", delta.proximo());
+        assertFalse(delta.temMais());
+        assertEquals(List.of(7L, 3L), delta.alteracoes().stream().map(ProdutoAlteracao::id).toList());
+    }
+
+    @Test
+    @DisplayName("DEVE paginar pelo cursor mantendo o horizonte da primeira página")
+    void devePaginarMantendoHorizonte() {
+        // CENÁRIO
+        when(changeRepository.horizonte()).thenReturn(900L);
+        when(changeRepository.alteracoesApos(0L, 0L, 3))
+                .thenReturn(List.of(linha(10L, 1L), linha(10L, 2L), linha(20L, 5L)));
+        when(changeRepository.alteracoesApos(10L, 2L, 3)).thenReturn(List.of(linha(20L, 5L)));
+
+        // AÇÃO
+        CatalogoDelta primeira = catalogoSyncService.alteracoesDesde(null, 2);
+        CatalogoDelta segunda = catalogoSyncService.alteracoesDesde(primeira.proximo(), 2);
+
+        // VERIFICAÇÃO
+        assertTrue(primeira.temMais());
+        assertEquals("900.10.2", primeira.proximo());
+        assertEquals(2, primeira.alteracoes().size());
+        assertFalse(segunda.temMais());
+        assertEquals("900", segunda.proximo());
+        verify(changeRepository, times(1)).horizonte();
+    }
+
+    @Test
+    @DisplayName("DEVE recusar token malformado")
+    void deveRecusarTokenMalformado() {
+        assertThrows(BusinessException.class, () -> catalogoSyncService.alteracoesDesde("abc.1", 10));
+        verify(changeRepository, never()).alteracoesApos(anyLong(), anyLong(), anyInt());
+    }
+
+    private static Linha linha(long changeSeq, long id) {
+        return new Linha(changeSeq, new ProdutoAlteracao(id, null, "Produto " + id, null, null, null, null, 0L, false));
+    }
+}
@@ -0,0 +1,111 @@
+package inv.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import inv.dto.DashboardStats.RecentSaleDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DashboardStreamHubTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper());
+
+    @Test
+    @DisplayName("DEVE entregar cada evento a 5k assinantes serializando uma única vez")
+    void deveEntregarA5kAssinantesSerializandoUmaVez() throws Exception {
+        // CENÁRIO
+        DashboardStreamHub hub = new DashboardStreamHub(objectMapper, new SimpleMeterRegistry(), Duration.ofMinutes(5), 16);
+        int assinantes = 5_000;
+        int eventos = 3;
+        // conectado + 3 eventos por assinante
+        CountDownLatch entregas = new CountDownLatch(assinantes * (eventos + 1));
+        List<EmitterDeTeste> emitters = new ArrayList<>();
+        for (int i = 0; i < assinantes; i++) {
+            EmitterDeTeste emitter = new EmitterDeTeste(entregas);
+            emitters.add(emitter);
+            hub.inscrever(emitter);
+        }
+
+        // AÇÃO
+        for (int i = 1; i <= eventos; i++) {
+            hub.publicar("venda", new RecentSaleDTO(String.valueOf(i), "Ração", new BigDecimal("10.00"), "10:00"));
+        }
+
+        // VERIFICAÇÃO
+        assertTrue(entregas.await(30, TimeUnit.SECONDS), "Nem todos os assinantes receberam os eventos");
+        verify(objectMapper, times(eventos)).writeValueAsBytes(any());
+
+        // Todos recebem o mesmo frame (mesma instância), na ordem de publicação
+        List<Set<DataWithMediaType>> primeiro = emitters.getFirst().recebidos;
+        for (EmitterDeTeste emitter : emitters) {
+            assertEquals(eventos + 1, emitter.recebidos.size());
+            for (int i = 0; i <= eventos; i++) {
+                assertSame(primeiro.get(i), emitter.recebidos.get(i));
+            }
+        }
+        String frame = new String((byte[]) primeiro.get(1).iterator().next().getData(), StandardCharsets.UTF_8);
+        assertTrue(frame.startsWith("id: 1\nevent: venda\ndata: {\"id\":\"1\""), frame);
+        assertTrue(frame.endsWith("}\n\n"), frame);
+        assertEquals(assinantes, hub.assinantesAtivos());
+    }
+
+    @Test
+    @DisplayName("DEVE desconectar o assinante lento sem travar a publicação")
+    void deveDesconectarAssinanteLento() throws Exception {
+        // CENÁRIO
+        DashboardStreamHub hub = new DashboardStreamHub(objectMapper, new SimpleMeterRegistry(), Duration.ofMinutes(5), 2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmitterDeTeste lento = new EmitterDeTeste(new CountDownLatch(0)) {
+            @Override
+            public synchronized void send(Set<DataWithMediaType> items) {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        hub.inscrever(lento);
+
+        // AÇÃO: o drenador está preso no primeiro send; a fila (2) enche no terceiro evento
+        for (int i = 0; i < 5; i++) {
+            hub.publicar("venda", new RecentSaleDTO(String.valueOf(i), "Ração", BigDecimal.ONE, "10:00"));
+        }
+
+        // VERIFICAÇÃO
+        assertEquals(0, hub.assinantesAtivos());
+        liberar.countDown();
+    }
+
+    private static class EmitterDeTeste extends SseEmitter {
+
+        private final List<Set<DataWithMediaType>> recebidos = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch entregas;
+
+        EmitterDeTeste(CountDownLatch entregas) {
+            this.entregas = entregas;
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            recebidos.add(items);
+            entregas.countDown();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import common.exception.BusinessException;
 import inv.event.EstoqueAtingiuMinimoEvent;
 import inv.model.Produto;
 import inv.model.Venda;
+import inv.repository.EstoqueFaixaRepository;
 import inv.repository.ProdutoRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,9 @@ class EstoqueServiceTest {
     @Mock
     private ProdutoRepository produtoRepository;
 
+    @Mock
+    private EstoqueFaixaRepository estoqueFaixaRepository;
+
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
@@ -85,6 +89,26 @@ class EstoqueServiceTest {
         verify(eventPublisher, never()).publishEvent(any());
     }
 
+    @Test
+    @DisplayName("DEVE baixar nas faixas sem tocar a linha do produto quando ele usa estoque em faixas")
+    void deveBaixarNasFaixasSemTocarOProduto() {
+        // CENÁRIO: consolidado desatualizado (11); o saldo real nas faixas vai de 11 para 9
+        Produto produto = criarProduto(new BigDecimal("11"), new BigDecimal("10"));
+        produto.setFaixasEstoque(8);
+        Venda vendaMock = mock(Venda.class);
+        when(estoqueFaixaRepository.baixar(1L, new BigDecimal("2"))).thenReturn(new BigDecimal("9"));
+
+        // AÇÃO
+        estoqueService.baixarEstoquePorVenda(produto, new BigDecimal("2"), vendaMock);
+
+        // VERIFICAÇÃO
+        verify(produtoRepository, never()).decrementarEretornarSaldo(any(), any());
+        // Entidade intacta: sem UPDATE/@Version na linha do produto no flush
+        assertEquals(new BigDecimal("11"), produto.getQuantidadeEstoque());
+        verify(eventPublisher, times(1)).publishEvent(any(EstoqueAtingiuMinimoEvent.class));
+        verify(vendaMock, times(1)).adicionarMovimentacao(any());
+    }
+
     private Produto criarProduto(BigDecimal qtd, BigDecimal min) {
         Produto p = new Produto();
         p.setId(1L);
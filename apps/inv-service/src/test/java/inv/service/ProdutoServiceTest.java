@@ -0,0 +1,92 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import inv.dto.DisponibilidadeResponse;
+import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.ProdutoLoteRequest;
+import inv.dto.ProdutoLoteResponse;
+import inv.dto.VendaRequest;
+import inv.model.Produto;
+import inv.repository.DisponibilidadeRepository;
+import inv.repository.ProdutoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private DisponibilidadeRepository disponibilidadeRepository;
+
+    @InjectMocks
+    private ProdutoService produtoService;
+
+    @Test
+    @DisplayName("DEVE buscar ids e EANs numa consulta e apontar os não encontrados")
+    void deveBuscarEmLoteEApontarNaoEncontrados() {
+        // CENÁRIO
+        Produto racao = produto(1L, "7891000100103");
+        Produto areia = produto(2L, "7891000200209");
+        when(produtoRepository.findAllByIdOuCodigoBarras(
+                new Long[]{1L, 99L, 1L}, new String[]{"7891000200209", "7890000000000"}))
+                .thenReturn(List.of(racao, areia));
+
+        // AÇÃO
+        ProdutoLoteResponse resposta = produtoService.buscarEmLote(
+                new ProdutoLoteRequest(List.of(1L, 99L, 1L), List.of("7891000200209", "7890000000000")));
+
+        // VERIFICAÇÃO
+        assertEquals(List.of(racao, areia), resposta.produtos());
+        assertEquals(List.of(99L), resposta.idsNaoEncontrados());
+        assertEquals(List.of("7890000000000"), resposta.eansNaoEncontrados());
+        verify(produtoRepository, times(1)).findAllByIdOuCodigoBarras(any(), any());
+    }
+
+    @Test
+    @DisplayName("DEVE recusar lote vazio sem ir ao banco")
+    void deveRecusarLoteVazio() {
+        assertThrows(BusinessException.class, () -> produtoService.buscarEmLote(new ProdutoLoteRequest(null, List.of())));
+        verifyNoInteractions(produtoRepository);
+    }
+
+    @Test
+    @DisplayName("DEVE marcar o carrinho como indisponível se qualquer linha falhar")
+    void deveMarcarCarrinhoIndisponivel() {
+        // CENÁRIO
+        VendaRequest carrinho = new VendaRequest(List.of(
+                new ItemVendaRequest(1L, BigDecimal.ONE), new ItemVendaRequest(2L, BigDecimal.TEN)));
+        when(disponibilidadeRepository.conferir(carrinho.itens())).thenReturn(List.of(
+                new DisponibilidadeResponse.Item(1L, "Ração", BigDecimal.ONE, new BigDecimal("5"), LinhaVendaRegistrada.STATUS_OK),
+                new DisponibilidadeResponse.Item(2L, "Areia", BigDecimal.TEN, new BigDecimal("3"), LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE)
+        ));
+
+        // AÇÃO
+        DisponibilidadeResponse resposta = produtoService.verificarDisponibilidade(carrinho);
+
+        // VERIFICAÇÃO
+        assertFalse(resposta.disponivel());
+        assertEquals(2, resposta.itens().size());
+    }
+
+    private static Produto produto(Long id, String ean) {
+        Produto produto = new Produto();
+        produto.setId(id);
+        produto.setCodigoBarras(ean);
+        return produto;
+    }
+}
@@ -0,0 +1,211 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import common.exception.ResourceNotFoundException;
+import inv.dto.ItemVendaRequest;
+import inv.dto.ReciboResponse;
+import inv.dto.ReservaResponse;
+import inv.dto.VendaRequest;
+import inv.event.VendaRealizadaEvent;
+import inv.model.ItemReserva;
+import inv.model.Produto;
+import inv.model.Reserva;
+import inv.model.Venda;
+import inv.repository.ProdutoRepository;
+import inv.repository.ReservaEstoqueRepository;
+import inv.repository.ReservaRepository;
+import inv.repository.VendaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservaServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private ReservaEstoqueRepository reservaEstoqueRepository;
+
+    @Mock
+    private VendaRepository vendaRepository;
+
+    @Mock
+    private EstoqueService estoqueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReservaService reservaService;
+
+    @Test
+    @DisplayName("DEVE reservar o carrinho somando linhas do mesmo produto e com validade do TTL")
+    void deveReservarCarrinhoSomandoLinhas() {
+        // CENÁRIO
+        ReflectionTestUtils.setField(reservaService, "ttl", Duration.ofMinutes(15));
+        when(produtoRepository.findAllByIdParaAtualizacao(any())).thenReturn(List.of(produto(1L, "Ração"), produto(2L, "Areia")));
+        when(reservaEstoqueRepository.reservar(anyLong(), any())).thenReturn(true);
+        when(reservaRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        VendaRequest carrinho = new VendaRequest(List.of(
+                new ItemVendaRequest(2L, new BigDecimal("1")),
+                new ItemVendaRequest(1L, new BigDecimal("2")),
+                new ItemVendaRequest(2L, new BigDecimal("3"))));
+
+        // AÇÃO
+        ReservaResponse reserva = reservaService.reservar(carrinho, "ana");
+
+        // VERIFICAÇÃO: produtos travados antes, depois uma reserva por produto em ordem de id
+        var ordem = inOrder(produtoRepository, reservaEstoqueRepository);
+        ordem.verify(produtoRepository).findAllByIdParaAtualizacao(any());
+        ordem.verify(reservaEstoqueRepository).reservar(1L, new BigDecimal("2"));
+        ordem.verify(reservaEstoqueRepository).reservar(2L, new BigDecimal("4"));
+        assertEquals(2, reserva.itens().size());
+        assertTrue(reserva.expiraEm().isAfter(LocalDateTime.now().plusMinutes(14)));
+        verify(reservaRepository).save(argThat(r -> r.pertenceA("ana")));
+    }
+
+    @Test
+    @DisplayName("DEVE recusar a reserva inteira quando um produto não tem saldo livre")
+    void deveRecusarReservaSemSaldo() {
+        // CENÁRIO
+        ReflectionTestUtils.setField(reservaService, "ttl", Duration.ofMinutes(15));
+        when(produtoRepository.findAllByIdParaAtualizacao(any())).thenReturn(List.of(produto(1L, "Ração"), produto(2L, "Areia")));
+        when(reservaEstoqueRepository.reservar(1L, BigDecimal.ONE)).thenReturn(true);
+        when(reservaEstoqueRepository.reservar(2L, BigDecimal.TEN)).thenReturn(false);
+
+        VendaRequest carrinho = new VendaRequest(List.of(
+                new ItemVendaRequest(1L, BigDecimal.ONE),
+                new ItemVendaRequest(2L, BigDecimal.TEN)));
+
+        // AÇÃO & VERIFICAÇÃO: a exceção desfaz a reserva já feita do produto 1 (rollback da transação)
+        BusinessException ex = assertThrows(BusinessException.class, () -> reservaService.reservar(carrinho, "ana"));
+        assertEquals("Estoque insuficiente para o produto: Areia", ex.getMessage());
+        verify(reservaRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("DEVE converter a reserva ativa em venda sem conferir saldo de novo")
+    void deveConfirmarReservaEmVenda() {
+        // CENÁRIO
+        Reserva reserva = reserva(LocalDateTime.now().plusMinutes(5), new ItemReserva(1L, new BigDecimal("2")));
+        when(reservaRepository.findByIdParaAtualizacao(7L)).thenReturn(Optional.of(reserva));
+        when(produtoRepository.findAllById(any())).thenReturn(List.of(produto(1L, "Ração")));
+        when(reservaEstoqueRepository.confirmar(1L, new BigDecimal("2"))).thenReturn(new BigDecimal("8"));
+        when(vendaRepository.save(any())).thenAnswer(invocation -> {
+            Venda venda = invocation.getArgument(0);
+            venda.setId(55L);
+            venda.calcularTotal();
+            return venda;
+        });
+
+        // AÇÃO
+        ReciboResponse recibo = reservaService.confirmar(7L, "ana");
+
+        // VERIFICAÇÃO
+        assertEquals(0, new BigDecimal("20.00").compareTo(recibo.valorTotal()));
+        verify(estoqueService).registrarSaida(any(Produto.class), eq(new BigDecimal("2")), any(Venda.class));
+        verify(estoqueService).alertarSeAtingiuMinimo("Ração", BigDecimal.ONE, new BigDecimal("10"), new BigDecimal("8"));
+        verify(reservaRepository).delete(reserva);
+        verify(eventPublisher).publishEvent(any(VendaRealizadaEvent.class));
+    }
+
+    @Test
+    @DisplayName("DEVE lançar exceção ao confirmar uma reserva já expirada")
+    void deveRecusarConfirmacaoDeReservaExpirada() {
+        // CENÁRIO
+        Reserva reserva = reserva(LocalDateTime.now().minusSeconds(1), new ItemReserva(1L, BigDecimal.ONE));
+        when(reservaRepository.findByIdParaAtualizacao(7L)).thenReturn(Optional.of(reserva));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(ResourceNotFoundException.class, () -> reservaService.confirmar(7L, "ana"));
+        verifyNoInteractions(reservaEstoqueRepository, vendaRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("DEVE devolver o estoque de cada item ao cancelar a reserva")
+    void deveLiberarEstoqueAoCancelar() {
+        // CENÁRIO
+        Reserva reserva = reserva(LocalDateTime.now().plusMinutes(5),
+                new ItemReserva(1L, BigDecimal.ONE), new ItemReserva(2L, BigDecimal.TEN));
+        when(reservaRepository.findByIdParaAtualizacao(7L)).thenReturn(Optional.of(reserva));
+
+        // AÇÃO
+        reservaService.cancelar(7L, "ana");
+
+        // VERIFICAÇÃO: os dois produtos travados antes de devolver nas faixas
+        var ordem = inOrder(produtoRepository, reservaEstoqueRepository);
+        ordem.verify(produtoRepository).findAllByIdParaAtualizacao(List.of(1L, 2L));
+        ordem.verify(reservaEstoqueRepository).liberar(1L, BigDecimal.ONE);
+        ordem.verify(reservaEstoqueRepository).liberar(2L, BigDecimal.TEN);
+        verify(reservaRepository).delete(reserva);
+    }
+
+    @Test
+    @DisplayName("DEVE tratar como inexistente a confirmação da reserva de outro usuário")
+    void deveRecusarConfirmacaoDeOutroUsuario() {
+        // CENÁRIO
+        Reserva reserva = reserva(LocalDateTime.now().plusMinutes(5), new ItemReserva(1L, BigDecimal.ONE));
+        when(reservaRepository.findByIdParaAtualizacao(7L)).thenReturn(Optional.of(reserva));
+
+        // AÇÃO & VERIFICAÇÃO: 404, e não 403, para não confirmar que o id existe
+        assertThrows(ResourceNotFoundException.class, () -> reservaService.confirmar(7L, "bruno"));
+        verifyNoInteractions(reservaEstoqueRepository, vendaRepository, eventPublisher);
+        verify(reservaRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("DEVE tratar como inexistente o cancelamento da reserva de outro usuário")
+    void deveRecusarCancelamentoDeOutroUsuario() {
+        // CENÁRIO
+        Reserva reserva = reserva(LocalDateTime.now().plusMinutes(5), new ItemReserva(1L, BigDecimal.ONE));
+        when(reservaRepository.findByIdParaAtualizacao(7L)).thenReturn(Optional.of(reserva));
+
+        // AÇÃO & VERIFICAÇÃO
+        assertThrows(ResourceNotFoundException.class, () -> reservaService.cancelar(7L, "bruno"));
+        verifyNoInteractions(reservaEstoqueRepository);
+        verify(reservaRepository, never()).delete(any());
+    }
+
+    private static Reserva reserva(LocalDateTime expiraEm, ItemReserva... itens) {
+        Reserva reserva = new Reserva();
+        reserva.setId(7L);
+        reserva.setUsuario("ana");
+        reserva.setCriadaEm(expiraEm.minusMinutes(15));
+        reserva.setExpiraEm(expiraEm);
+        reserva.getItens().addAll(List.of(itens));
+        return reserva;
+    }
+
+    private static Produto produto(Long id, String nome) {
+        Produto produto = new Produto();
+        produto.setId(id);
+        produto.setNome(nome);
+        produto.setPrecoVenda(new BigDecimal("10.00"));
+        produto.setQuantidadeEstoque(BigDecimal.TEN);
+        produto.setEstoqueMinimo(BigDecimal.ONE);
+        return produto;
+    }
+}
@@ -0,0 +1,160 @@
+package inv.service;
+
+import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.VendaLoteResponse.Resultado;
+import inv.dto.VendaRequest;
+import inv.event.VendaRealizadaEvent;
+import inv.model.Produto;
+import inv.model.Venda;
+import inv.repository.EstoqueFaixaRepository;
+import inv.repository.ProdutoRepository;
+import inv.repository.VendaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VendaLoteProcessorTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private EstoqueFaixaRepository estoqueFaixaRepository;
+
+    @Mock
+    private VendaRepository vendaRepository;
+
+    @Mock
+    private EstoqueService estoqueService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private VendaLoteProcessor vendaLoteProcessor;
+
+    @Test
+    @DisplayName("DEVE baixar o estoque somado do bloco e recusar só a venda que não cabe no saldo")
+    void deveBaixarEstoqueSomadoERecusarSoAVendaSemSaldo() {
+        // CENÁRIO: 5 unidades; vendas de 2, 2 e 2 -> a terceira não cabe
+        Produto racao = produto(1L, "Ração", "5", "1");
+        when(produtoRepository.findAllByIdParaAtualizacao(any())).thenReturn(List.of(racao));
+        List<Venda> salvas = new ArrayList<>();
+        AtomicLong ids = new AtomicLong(100);
+        when(vendaRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Venda> vendas = invocation.getArgument(0);
+            vendas.forEach(v -> {
+                v.setId(ids.incrementAndGet());
+                v.calcularTotal();
+                salvas.add(v);
+            });
+            return salvas;
+        });
+
+        List<VendaRequest> bloco = List.of(venda(1L, "2"), venda(1L, "2"), venda(1L, "2"));
+
+        // AÇÃO
+        List<Resultado> resultados = vendaLoteProcessor.processarBloco(bloco, 50);
+
+        // VERIFICAÇÃO
+        assertEquals(3, resultados.size());
+        assertEquals(List.of(50, 51, 52), resultados.stream().map(Resultado::indice).toList());
+        assertEquals(LinhaVendaRegistrada.STATUS_OK, resultados.get(0).status());
+        assertEquals(101L, resultados.get(0).vendaId());
+        assertEquals(0, new BigDecimal("20.00").compareTo(resultados.get(0).valorTotal()));
+        assertEquals(LinhaVendaRegistrada.STATUS_OK, resultados.get(1).status());
+        assertEquals(LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE, resultados.get(2).status());
+        assertNull(resultados.get(2).vendaId());
+
+        assertEquals(0, new BigDecimal("1").compareTo(racao.getQuantidadeEstoque()));
+        assertEquals(2, salvas.size());
+        verify(estoqueService, times(2)).registrarSaida(eq(racao), any(), any(Venda.class));
+        // Alerta avaliado uma vez para o bloco, com o saldo de antes e de depois
+        verify(estoqueService).alertarSeAtingiuMinimo("Ração", new BigDecimal("1"), new BigDecimal("5"), racao.getQuantidadeEstoque());
+        verify(eventPublisher, times(2)).publishEvent(any(VendaRealizadaEvent.class));
+    }
+
+    @Test
+    @DisplayName("DEVE recusar a venda com produto inexistente sem afetar as demais do bloco")
+    void deveRecusarVendaComProdutoInexistente() {
+        // CENÁRIO
+        Produto racao = produto(1L, "Ração", "10", "0");
+        when(produtoRepository.findAllByIdParaAtualizacao(any())).thenReturn(List.of(racao));
+        when(vendaRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Venda> vendas = invocation.getArgument(0);
+            vendas.forEach(Venda::calcularTotal);
+            return List.of();
+        });
+
+        VendaRequest comInexistente = new VendaRequest(List.of(
+                new ItemVendaRequest(1L, BigDecimal.ONE),
+                new ItemVendaRequest(99L, BigDecimal.ONE)));
+
+        // AÇÃO
+        List<Resultado> resultados = vendaLoteProcessor.processarBloco(List.of(comInexistente, venda(1L, "3")), 0);
+
+        // VERIFICAÇÃO: a venda recusada não baixa nada, nem o item que existia
+        assertEquals(LinhaVendaRegistrada.STATUS_NAO_ENCONTRADO, resultados.get(0).status());
+        assertEquals(LinhaVendaRegistrada.STATUS_OK, resultados.get(1).status());
+        assertEquals(0, new BigDecimal("7").compareTo(racao.getQuantidadeEstoque()));
+        verify(estoqueService, times(1)).registrarSaida(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("DEVE conferir o saldo pela soma das faixas e baixar nelas o total do bloco")
+    void deveBaixarNasFaixasOTotalDoBloco() {
+        // CENÁRIO: consolidado em 'produtos' diz 1, mas as faixas somam 6
+        Produto racao = produto(1L, "Ração", "1", "0");
+        racao.setFaixasEstoque(4);
+        when(estoqueFaixaRepository.travarSaldos(any())).thenReturn(Map.of(1L, new BigDecimal("6")));
+        when(produtoRepository.findAllByIdParaAtualizacao(any())).thenReturn(List.of(racao));
+        when(vendaRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Venda> vendas = invocation.getArgument(0);
+            vendas.forEach(Venda::calcularTotal);
+            return List.of();
+        });
+
+        // AÇÃO
+        List<Resultado> resultados = vendaLoteProcessor.processarBloco(List.of(venda(1L, "2"), venda(1L, "3")), 0);
+
+        // VERIFICAÇÃO: uma única baixa nas faixas com a soma; o consolidado sai com o saldo real
+        assertTrue(resultados.stream().allMatch(r -> LinhaVendaRegistrada.STATUS_OK.equals(r.status())));
+        // Produtos travados antes das faixas (ordem global de R__estoque_faixas, a mesma da 'registrar_venda')
+        var ordem = inOrder(produtoRepository, estoqueFaixaRepository);
+        ordem.verify(produtoRepository).findAllByIdParaAtualizacao(any());
+        ordem.verify(estoqueFaixaRepository).travarSaldos(any());
+        verify(estoqueFaixaRepository).baixar(1L, new BigDecimal("5"));
+        assertEquals(0, BigDecimal.ONE.compareTo(racao.getQuantidadeEstoque()));
+    }
+
+    private static VendaRequest venda(Long produtoId, String quantidade) {
+        return new VendaRequest(List.of(new ItemVendaRequest(produtoId, new BigDecimal(quantidade))));
+    }
+
+    private static Produto produto(Long id, String nome, String estoque, String minimo) {
+        Produto produto = new Produto();
+        produto.setId(id);
+        produto.setNome(nome);
+        produto.setPrecoVenda(new BigDecimal("10.00"));
+        produto.setQuantidadeEstoque(new BigDecimal(estoque));
+        produto.setEstoqueMinimo(new BigDecimal(minimo));
+        return produto;
+    }
+}
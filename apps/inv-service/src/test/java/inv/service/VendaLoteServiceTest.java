@@ -0,0 +1,77 @@
+package inv.service;
+
+import common.exception.BusinessException;
+import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
+import inv.dto.ReciboResponse;
+import inv.dto.VendaLoteRequest;
+import inv.dto.VendaLoteResponse;
+import inv.dto.VendaLoteResponse.Resultado;
+import inv.dto.VendaRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VendaLoteServiceTest {
+
+    @Mock
+    private VendaLoteProcessor vendaLoteProcessor;
+
+    @Mock
+    private VendaService vendaService;
+
+    @InjectMocks
+    private VendaLoteService vendaLoteService;
+
+    @Test
+    @DisplayName("DEVE refazer venda a venda só o bloco cuja transação falhou")
+    void deveRefazerVendaAVendaSoOBlocoQueFalhou() {
+        // CENÁRIO: 5 vendas em blocos de 2; o bloco do meio (2..3) cai por deadlock
+        ReflectionTestUtils.setField(vendaLoteService, "vendasPorTransacao", 2);
+        List<VendaRequest> vendas = IntStream.range(0, 5)
+                .mapToObj(i -> new VendaRequest(List.of(new ItemVendaRequest(1L, BigDecimal.ONE))))
+                .toList();
+
+        when(vendaLoteProcessor.processarBloco(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<VendaRequest> bloco = invocation.getArgument(0);
+            int inicio = invocation.getArgument(1);
+            if (inicio == 2) {
+                throw new CannotAcquireLockException("deadlock detected");
+            }
+            return IntStream.range(0, bloco.size())
+                    .mapToObj(i -> new Resultado(inicio + i, LinhaVendaRegistrada.STATUS_OK, 1L, BigDecimal.TEN, LocalDateTime.now(), null))
+                    .toList();
+        });
+        when(vendaService.realizarVenda(any()))
+                .thenReturn(new ReciboResponse("Venda realizada com sucesso!", BigDecimal.TEN, LocalDateTime.now()))
+                .thenThrow(new BusinessException("Estoque insuficiente para o produto: Ração"));
+
+        // AÇÃO
+        VendaLoteResponse resposta = vendaLoteService.registrarLote(new VendaLoteRequest(vendas));
+
+        // VERIFICAÇÃO
+        assertEquals(4, resposta.sucesso());
+        assertEquals(1, resposta.falhas());
+        assertEquals(List.of(0, 1, 2, 3, 4), resposta.resultados().stream().map(Resultado::indice).toList());
+        assertEquals(LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE, resposta.resultados().get(3).status());
+        verify(vendaLoteProcessor).processarBloco(anyList(), eq(4));
+        verify(vendaService, times(2)).realizarVenda(any());
+    }
+}
@@ -1,11 +1,15 @@
 package inv.service;
 
+import common.exception.BusinessException;
 import common.exception.ResourceNotFoundException;
 import inv.dto.ItemVendaRequest;
+import inv.dto.LinhaVendaRegistrada;
 import inv.dto.VendaRequest;
+import inv.event.VendaRealizadaEvent;
 import inv.model.Produto;
 import inv.model.Venda;
 import inv.repository.ProdutoRepository;
+import inv.repository.VendaProcedureRepository;
 import inv.repository.VendaRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,8 +17,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +40,12 @@ class VendaServiceTest {
     @Mock
     private EstoqueService estoqueService;
 
+    @Mock
+    private VendaProcedureRepository vendaProcedureRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VendaService vendaService;
 
@@ -74,6 +87,9 @@ class VendaServiceTest {
 
         // Verifica se a venda foi persistida
         verify(vendaRepository, times(1)).save(any(Venda.class));
+
+        // Dashboard em tempo real é avisado (o listener só envia após o commit)
+        verify(eventPublisher).publishEvent(new VendaRealizadaEvent(null, "Ração", new BigDecimal("100.00"), recibo.data()));
     }
 
     @Test
@@ -88,4 +104,48 @@ class VendaServiceTest {
         verifyNoInteractions(estoqueService);
         verifyNoInteractions(vendaRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("DEVE realizar venda via função do banco e avaliar alerta de estoque mínimo")
+    void deveRealizarVendaViaProcedure() {
+        ReflectionTestUtils.setField(vendaService, "vendaViaProcedure", true);
+
+        LocalDateTime agora = LocalDateTime.now();
+        VendaRequest request = new VendaRequest(List.of(new ItemVendaRequest(1L, new BigDecimal("2"))));
+
+        when(vendaProcedureRepository.registrarVenda(request.itens())).thenReturn(List.of(
+                new LinhaVendaRegistrada(10L, new BigDecimal("100.00"), agora, 1L, "Ração",
+                        new BigDecimal("11"), new BigDecimal("9"), new BigDecimal("10"), LinhaVendaRegistrada.STATUS_OK)
+        ));
+
+        var recibo = vendaService.realizarVenda(request);
+
+        assertEquals(new BigDecimal("100.00"), recibo.valorTotal());
+        assertEquals(agora, recibo.data());
+        verify(estoqueService).alertarSeAtingiuMinimo("Ração", new BigDecimal("10"), new BigDecimal("11"), new BigDecimal("9"));
+        verify(eventPublisher).publishEvent(new VendaRealizadaEvent(10L, "Ração", new BigDecimal("100.00"), agora));
+
+        // O fluxo JPA não é usado
+        verifyNoInteractions(produtoRepository);
+        verifyNoInteractions(vendaRepository);
+    }
+
+    @Test
+    @DisplayName("DEVE falhar via função do banco quando o estoque for insuficiente")
+    void deveFalharViaProcedureComEstoqueInsuficiente() {
+        ReflectionTestUtils.setField(vendaService, "vendaViaProcedure", true);
+
+        VendaRequest request = new VendaRequest(List.of(new ItemVendaRequest(1L, new BigDecimal("50"))));
+
+        when(vendaProcedureRepository.registrarVenda(request.itens())).thenReturn(List.of(
+                new LinhaVendaRegistrada(null, null, null, 1L, "Ração",
+                        new BigDecimal("11"), null, new BigDecimal("10"), LinhaVendaRegistrada.STATUS_ESTOQUE_INSUFICIENTE)
+        ));
+
+        BusinessException erro = assertThrows(BusinessException.class, () -> vendaService.realizarVenda(request));
+
+        assertTrue(erro.getMessage().contains("Ração"));
+        verifyNoInteractions(estoqueService);
+        verifyNoInteractions(eventPublisher);
+    }
+}
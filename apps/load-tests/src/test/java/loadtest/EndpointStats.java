@@ -0,0 +1,68 @@
+package loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latências e erros de um endpoint, acumulados durante a janela de medição.
+ */
+final class EndpointStats {
+
+    private final String endpoint;
+
+    private long[] latenciesNanos = new long[4096];
+    private int count;
+    private long errors;
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        return new Summary(
+                endpoint,
+                count,
+                errors,
+                count == 0 ? 0 : (double) errors / count,
+                seconds > 0 ? count / seconds : 0,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.95),
+                percentileMillis(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0
+        );
+    }
+
+    // Nearest-rank: o menor valor que cobre a fração pedida das amostras
+    private static double percentileMillis(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    record Summary(String endpoint, long count, long errors, double errorRate, double throughput,
+                   double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        double metric(String name) {
+            return switch (name) {
+                case "p50-ms" -> p50Ms;
+                case "p95-ms" -> p95Ms;
+                case "p99-ms" -> p99Ms;
+                case "error-rate" -> errorRate;
+                default -> throw new IllegalArgumentException("Métrica desconhecida: " + name);
+            };
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+/**
+ * Configuração do teste de carga: loadtest.properties com override por -D.
+ */
+public final class LoadTestConfig {
+
+    private final Properties properties = new Properties();
+
+    private LoadTestConfig() {}
+
+    public static LoadTestConfig load() {
+        LoadTestConfig config = new LoadTestConfig();
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("loadtest.properties não encontrado no classpath");
+            }
+            config.properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler loadtest.properties", e);
+        }
+        // -Dchave=valor sempre vence o arquivo
+        System.getProperties().forEach((k, v) -> config.properties.setProperty(k.toString(), v.toString()));
+        return config;
+    }
+
+    public String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Propriedade obrigatória ausente: " + key);
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public Duration warmup() {
+        return Duration.ofSeconds(getInt("loadtest.warmup-seconds"));
+    }
+
+    public Duration duration() {
+        return Duration.ofSeconds(getInt("loadtest.duration-seconds"));
+    }
+
+    public int users(String scenario) {
+        return getInt("loadtest.users." + scenario);
+    }
+
+    public Duration thinkTime(String scenario) {
+        return Duration.ofMillis(getInt("loadtest.think-time-ms." + scenario));
+    }
+
+    public Path appsDir() {
+        return Path.of(get("loadtest.apps-dir")).toAbsolutePath().normalize();
+    }
+
+    public String version() {
+        return get("loadtest.version");
+    }
+
+    public Path reportDir() {
+        return Path.of(get("loadtest.report-dir"));
+    }
+
+    /**
+     * Limite de um endpoint (threshold.&lt;endpoint&gt;.&lt;metrica&gt;), caindo para threshold.default.
+     */
+    public OptionalDouble threshold(String endpoint, String metric) {
+        String value = properties.getProperty("threshold." + endpoint + "." + metric);
+        if (value == null) {
+            value = properties.getProperty("threshold.default." + metric);
+        }
+        return value == null ? OptionalDouble.empty() : OptionalDouble.of(Double.parseDouble(value.trim()));
+    }
+}
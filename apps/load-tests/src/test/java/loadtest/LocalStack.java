@@ -0,0 +1,209 @@
+package loadtest;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stack completa para o teste de carga.
+ * <p>
+ * Infra em containers descartáveis (Postgres, RabbitMQ, Redis e um SMTP falso no lugar do Mailtrap)
+ * e os quatro serviços como processos locais, configurados pelas mesmas variáveis do docker-compose.
+ */
+final class LocalStack implements AutoCloseable {
+
+    static final String FRONTEND_URL = "http://localhost:5173";
+    static final String ADMIN_EMAIL = "admin@loadtest.local";
+    static final String ADMIN_PASSWORD = "Admin@12345";
+
+    private final LoadTestConfig config;
+
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+            .withDatabaseName("auth")
+            .withCommand("postgres", "-c", "max_connections=300");
+    private final RabbitMQContainer rabbit = new RabbitMQContainer(DockerImageName.parse("rabbitmq:3-management"));
+    private final GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+    private final GenericContainer<?> smtp = new GenericContainer<>(DockerImageName.parse("axllent/mailpit:latest"))
+            .withExposedPorts(1025)
+            .withEnv("MP_SMTP_AUTH_ACCEPT_ANY", "1")
+            .withEnv("MP_SMTP_AUTH_ALLOW_INSECURE", "1")
+            .waitingFor(Wait.forListeningPort());
+
+    private final List<ServiceProcess> services = new ArrayList<>();
+
+    private ServiceProcess auth;
+    private ServiceProcess inv;
+    private ServiceProcess gateway;
+
+    LocalStack(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    void start() throws Exception {
+        postgres.start();
+        rabbit.start();
+        redis.start();
+        smtp.start();
+
+        criarBanco("inv");
+        criarBanco("mail");
+
+        KeyPair keyPair = gerarChaves();
+        String publicKey = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+        String privateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+
+        Path logDir = config.reportDir().resolve("logs");
+
+        Map<String, String> comum = new HashMap<>();
+        comum.put("JWT_PUBLIC_KEY", publicKey);
+        comum.put("RABBITMQ_DEFAULT_USER", rabbit.getAdminUsername());
+        comum.put("RABBITMQ_DEFAULT_PASS", rabbit.getAdminPassword());
+        comum.put("SPRING_DATA_REDIS_HOST", redis.getHost());
+        comum.put("SPRING_DATA_REDIS_PORT", String.valueOf(redis.getMappedPort(6379)));
+        comum.put("INITIAL_ADMIN_EMAIL", ADMIN_EMAIL);
+        comum.put("CORS_ALLOWED_ORIGINS", FRONTEND_URL);
+        comum.put("CORS_ALLOWED_METHODS", "GET,POST,PUT,PATCH,DELETE,OPTIONS");
+        comum.put("CORS_ALLOWED_HEADERS", "*");
+        comum.put("CORS_ALLOW_CREDENTIALS", "true");
+
+        List<String> rabbitArgs = List.of(
+                "--spring.rabbitmq.host=" + rabbit.getHost(),
+                "--spring.rabbitmq.port=" + rabbit.getAmqpPort());
+        List<String> quiet = List.of("--spring.jpa.show-sql=false", "--logging.level.org.flywaydb=INFO");
+
+        Map<String, String> authEnv = new HashMap<>(comum);
+        authEnv.putAll(banco("auth"));
+        authEnv.put("JWT_PRIVATE_KEY", privateKey);
+        authEnv.put("FRONTEND_BASE_URL", FRONTEND_URL);
+        authEnv.put("INITIAL_ADMIN_PASSWORD", ADMIN_PASSWORD);
+        authEnv.put("AUTHORIZATION_STORE", config.get("loadtest.auth.authorization-store"));
+        auth = iniciar("auth-service", authEnv, concat(rabbitArgs, quiet), logDir);
+
+        Map<String, String> invEnv = new HashMap<>(comum);
+        invEnv.putAll(banco("inv"));
+        inv = iniciar("inv-service", invEnv, concat(rabbitArgs, quiet), logDir);
+
+        Map<String, String> mailEnv = new HashMap<>(comum);
+        mailEnv.putAll(banco("mail"));
+        mailEnv.put("MAILTRAP_HOST", smtp.getHost());
+        mailEnv.put("MAILTRAP_PORT", String.valueOf(smtp.getMappedPort(1025)));
+        mailEnv.put("MAILTRAP_USER", "loadtest");
+        mailEnv.put("MAILTRAP_PASS", "loadtest");
+        mailEnv.put("FRONTEND_DASHBOARD_URL", FRONTEND_URL);
+        iniciar("mail-service", mailEnv, rabbitArgs, logDir);
+
+        // Os serviços sobem em paralelo; o gateway só precisa das URLs
+        String replenish = config.get("loadtest.gateway.replenish-rate");
+        String burst = config.get("loadtest.gateway.burst-capacity");
+        List<String> gatewayArgs = new ArrayList<>(List.of(
+                "--spring.cloud.gateway.routes[0].uri=" + auth.baseUrl(),
+                "--spring.cloud.gateway.routes[1].uri=" + inv.baseUrl(),
+                "--spring.cloud.gateway.routes[2].uri=" + inv.baseUrl(),
+                "--spring.cloud.gateway.routes[3].uri=" + auth.baseUrl(),
+                "--spring.cloud.gateway.routes[4].uri=" + inv.baseUrl()));
+        // Rotas com RequestRateLimiter: auth, inv-read e inv-write
+        for (int route = 0; route <= 2; route++) {
+            gatewayArgs.add("--spring.cloud.gateway.routes[" + route + "].filters[0].args.redis-rate-limiter.replenishRate=" + replenish);
+            gatewayArgs.add("--spring.cloud.gateway.routes[" + route + "].filters[0].args.redis-rate-limiter.burstCapacity=" + burst);
+        }
+        gateway = iniciar("api-gateway", new HashMap<>(comum), gatewayArgs, logDir);
+
+        HttpClient client = HttpClient.newHttpClient();
+        for (ServiceProcess service : services) {
+            service.awaitHealthy(client);
+        }
+    }
+
+    String gatewayUrl() {
+        return gateway.baseUrl();
+    }
+
+    String authUrl() {
+        return auth.baseUrl();
+    }
+
+    Connection invConnection() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl("inv"), postgres.getUsername(), postgres.getPassword());
+    }
+
+    private ServiceProcess iniciar(String name, Map<String, String> env, List<String> args, Path logDir) throws IOException {
+        Path jar = config.appsDir().resolve(name).resolve("target").resolve(name + "-" + config.version() + "-exec.jar");
+        ServiceProcess service = ServiceProcess.start(name, jar, portaLivre(), env, args, logDir);
+        services.add(service);
+        return service;
+    }
+
+    private Map<String, String> banco(String nome) {
+        return Map.of(
+                "DB_HOST", postgres.getHost(),
+                "DB_PORT", String.valueOf(postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)),
+                "DB_NAME", nome,
+                "DB_USER", postgres.getUsername(),
+                "DB_PASS", postgres.getPassword());
+    }
+
+    private String jdbcUrl(String banco) {
+        return "jdbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + banco;
+    }
+
+    private void criarBanco(String nome) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + nome);
+        }
+    }
+
+    private static KeyPair gerarChaves() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    @Override
+    public void close() {
+        for (ServiceProcess service : services) {
+            try {
+                service.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        smtp.stop();
+        redis.stop();
+        rabbit.stop();
+        postgres.stop();
+    }
+}
@@ -0,0 +1,109 @@
+package loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Coleta por endpoint. Amostras anteriores ao fim do warm-up são descartadas
+ * para que JIT, pools de conexão e caches frios não contaminem os percentis.
+ */
+final class Metrics {
+
+    private static final List<String> THRESHOLD_METRICS = List.of("p50-ms", "p95-ms", "p99-ms", "error-rate");
+
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> errorSamples = new ConcurrentHashMap<>();
+
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+    private volatile long measureUntilNanos = Long.MAX_VALUE;
+
+    void startMeasuring() {
+        measureFromNanos = System.nanoTime();
+    }
+
+    void stopMeasuring() {
+        measureUntilNanos = System.nanoTime();
+    }
+
+    void record(String endpoint, long startNanos, boolean success) {
+        long end = System.nanoTime();
+        if (startNanos < measureFromNanos || end > measureUntilNanos) {
+            return;
+        }
+        stats.computeIfAbsent(endpoint, EndpointStats::new).record(end - startNanos, success);
+    }
+
+    /**
+     * Guarda um exemplo de cada tipo de erro (status + endpoint) para o relatório.
+     */
+    void recordError(String endpoint, String detail) {
+        errorSamples.merge(endpoint + " -> " + detail, 1L, Long::sum);
+    }
+
+    List<EndpointStats.Summary> summarize() {
+        double seconds = (measureUntilNanos - measureFromNanos) / 1_000_000_000.0;
+        List<EndpointStats.Summary> summaries = new ArrayList<>();
+        stats.values().forEach(s -> summaries.add(s.summarize(seconds)));
+        return summaries;
+    }
+
+    /**
+     * Compara cada endpoint com os limites configurados e devolve as violações (vazio = passou).
+     */
+    List<String> violations(List<EndpointStats.Summary> summaries, LoadTestConfig config) {
+        List<String> violations = new ArrayList<>();
+        for (EndpointStats.Summary summary : summaries) {
+            if (summary.count() == 0) {
+                violations.add(summary.endpoint() + ": nenhuma amostra na janela de medição");
+                continue;
+            }
+            for (String metric : THRESHOLD_METRICS) {
+                config.threshold(summary.endpoint(), metric).ifPresent(limit -> {
+                    double value = summary.metric(metric);
+                    if (value > limit) {
+                        violations.add(String.format(Locale.ROOT, "%s: %s = %.3f (limite %.3f)",
+                                summary.endpoint(), metric, value, limit));
+                    }
+                });
+            }
+        }
+        return violations;
+    }
+
+    String render(List<EndpointStats.Summary> summaries) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-14s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "reqs", "erros", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)"));
+        for (EndpointStats.Summary s : summaries) {
+            sb.append(String.format(Locale.ROOT, "%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.endpoint(), s.count(), s.errors(), s.throughput(), s.p50Ms(), s.p95Ms(), s.p99Ms(), s.maxMs()));
+        }
+        if (!errorSamples.isEmpty()) {
+            sb.append(System.lineSeparator()).append("Erros:").append(System.lineSeparator());
+            errorSamples.forEach((k, v) -> sb.append("  ").append(k).append(" (").append(v).append("x)")
+                    .append(System.lineSeparator()));
+        }
+        return sb.toString();
+    }
+
+    void write(Path dir, List<EndpointStats.Summary> summaries, List<String> violations) throws IOException {
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("report.txt"), render(summaries));
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(dir.resolve("report.json").toFile(), Map.of(
+                "endpoints", summaries,
+                "errors", errorSamples,
+                "violations", violations));
+    }
+}
@@ -0,0 +1,212 @@
+package loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Os cenários de carga, cada usuário virtual em uma virtual thread:
+ * <ul>
+ *     <li>ean-scan: leitura de código de barras no caixa (GET /produtos/ean/{ean})</li>
+ *     <li>checkout: vendas de 1..N itens sorteados de um conjunto quente, para que carrinhos se sobreponham</li>
+ *     <li>dashboard: polling do painel (GET /dashboard/stats)</li>
+ *     <li>login: tempestade de logins completos (form + PKCE)</li>
+ *     <li>refresh: tempestade de renovações de token via cookie</li>
+ * </ul>
+ */
+final class Scenarios {
+
+    private final LoadTestConfig config;
+    private final LocalStack stack;
+    private final Metrics metrics;
+
+    private final List<Long> produtoIds = new ArrayList<>();
+    private final List<String> eans = new ArrayList<>();
+
+    private volatile long deadlineNanos;
+
+    Scenarios(LoadTestConfig config, LocalStack stack, Metrics metrics) {
+        this.config = config;
+        this.stack = stack;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Catálogo direto no banco do inv-service: estoque alto o bastante para
+     * que a carga meça o caminho da venda, não a regra de estoque insuficiente.
+     */
+    void seed() throws SQLException {
+        int produtos = config.getInt("loadtest.catalog.products");
+        try (Connection connection = stack.invConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("""
+                    INSERT INTO produtos (codigo_barras, nome, estoque_minimo, unidade_medida, quantidade_estoque, preco_venda, version)
+                    SELECT '789' || lpad(g::text, 10, '0'), 'Produto ' || g, 10, 'UN', 1000000,
+                           round((random() * 100 + 1)::numeric, 2), 0
+                    FROM generate_series(1, %d) AS g
+                    """.formatted(produtos));
+            statement.execute("ANALYZE produtos");
+            try (ResultSet rs = statement.executeQuery("SELECT id, codigo_barras FROM produtos ORDER BY id")) {
+                while (rs.next()) {
+                    produtoIds.add(rs.getLong("id"));
+                    eans.add(rs.getString("codigo_barras"));
+                }
+            }
+        }
+    }
+
+    void run() throws InterruptedException {
+        Duration warmup = config.warmup();
+        Duration duration = config.duration();
+        deadlineNanos = System.nanoTime() + warmup.plus(duration).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            start(executor, "ean-scan", this::eanScan);
+            start(executor, "checkout", this::checkout);
+            start(executor, "dashboard", this::dashboard);
+            start(executor, "login", this::loginStorm);
+            start(executor, "refresh", this::refreshStorm);
+
+            Thread.sleep(warmup.toMillis());
+            metrics.startMeasuring();
+            Thread.sleep(duration.toMillis());
+            metrics.stopMeasuring();
+
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void start(ExecutorService executor, String scenario, VirtualUser user) {
+        Duration thinkTime = config.thinkTime(scenario);
+        for (int i = 0; i < config.users(scenario); i++) {
+            executor.submit(() -> {
+                try {
+                    user.run(thinkTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    metrics.recordError(scenario, e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void eanScan(Duration thinkTime) throws Exception {
+        UserSession session = loggedIn();
+        while (running()) {
+            String ean = eans.get(ThreadLocalRandom.current().nextInt(eans.size()));
+            guarded("ean-scan", () -> session.call("ean-scan",
+                    HttpRequest.newBuilder(URI.create(stack.gatewayUrl() + "/produtos/ean/" + ean)).GET()));
+            pause(thinkTime);
+        }
+    }
+
+    private void checkout(Duration thinkTime) throws Exception {
+        UserSession session = loggedIn();
+        int hot = Math.min(config.getInt("loadtest.catalog.hot-products"), produtoIds.size());
+        int maxItems = config.getInt("loadtest.cart.max-items");
+        while (running()) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int items = 1 + random.nextInt(maxItems);
+            StringJoiner itens = new StringJoiner(",", "{\"itens\":[", "]}");
+            random.ints(0, hot).distinct().limit(Math.min(items, hot)).forEach(i ->
+                    itens.add("{\"produtoId\":" + produtoIds.get(i) + ",\"quantidade\":" + (1 + random.nextInt(3)) + "}"));
+
+            guarded("checkout", () -> session.call("checkout",
+                    HttpRequest.newBuilder(URI.create(stack.gatewayUrl() + "/vendas"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(itens.toString()))));
+            pause(thinkTime);
+        }
+    }
+
+    private void dashboard(Duration thinkTime) throws Exception {
+        UserSession session = loggedIn();
+        while (running()) {
+            guarded("dashboard", () -> session.call("dashboard",
+                    HttpRequest.newBuilder(URI.create(stack.gatewayUrl() + "/dashboard/stats")).GET()));
+            pause(thinkTime);
+        }
+    }
+
+    private void loginStorm(Duration thinkTime) throws Exception {
+        while (running()) {
+            guarded("login", () -> newSession().login(LocalStack.ADMIN_EMAIL, LocalStack.ADMIN_PASSWORD));
+            pause(thinkTime);
+        }
+    }
+
+    private void refreshStorm(Duration thinkTime) throws Exception {
+        UserSession session = loggedIn();
+        while (running()) {
+            // O refresh token é rotacionado: se um falhar, a sessão precisa de um novo login
+            Boolean ok = guarded("token-refresh", session::refresh);
+            if (!Boolean.TRUE.equals(ok) && running()) {
+                session = loggedIn();
+            }
+            pause(thinkTime);
+        }
+    }
+
+    private UserSession loggedIn() throws Exception {
+        UserSession session = newSession();
+        while (!session.login(LocalStack.ADMIN_EMAIL, LocalStack.ADMIN_PASSWORD)) {
+            if (!running()) {
+                throw new IllegalStateException("Não foi possível autenticar o usuário virtual");
+            }
+            Thread.sleep(500);
+        }
+        return session;
+    }
+
+    private UserSession newSession() {
+        return new UserSession(stack.authUrl(), stack.gatewayUrl(), metrics);
+    }
+
+    /**
+     * Falhas de I/O (timeout, conexão recusada) contam como erro do endpoint, sem derrubar o usuário virtual.
+     */
+    private <T> T guarded(String endpoint, Call<T> call) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            return call.execute();
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            metrics.record(endpoint, start, false);
+            metrics.recordError(endpoint, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private boolean running() {
+        return System.nanoTime() < deadlineNanos;
+    }
+
+    private static void pause(Duration thinkTime) throws InterruptedException {
+        if (!thinkTime.isZero()) {
+            Thread.sleep(thinkTime.toMillis());
+        }
+    }
+
+    @FunctionalInterface
+    private interface VirtualUser {
+        void run(Duration thinkTime) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        T execute() throws Exception;
+    }
+}
@@ -0,0 +1,42 @@
+package loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Teste de carga ponta a ponta: sobe a stack, aplica os cenários e falha
+ * se algum endpoint passar dos limites de loadtest.properties.
+ * <p>
+ * Só roda no perfil 'load-test' (mvn -Pload-test verify), nunca no build normal.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StackLoadTest {
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.MINUTES)
+    void stackSuportaACargaDentroDosLimites() throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        Metrics metrics = new Metrics();
+
+        try (LocalStack stack = new LocalStack(config)) {
+            stack.start();
+
+            Scenarios scenarios = new Scenarios(config, stack, metrics);
+            scenarios.seed();
+            scenarios.run();
+        }
+
+        List<EndpointStats.Summary> summaries = metrics.summarize();
+        List<String> violations = metrics.violations(summaries, config);
+        metrics.write(config.reportDir(), summaries, violations);
+
+        System.out.println(metrics.render(summaries));
+        assertTrue(violations.isEmpty(), () -> "Limites ultrapassados:\n  " + String.join("\n  ", violations));
+    }
+}
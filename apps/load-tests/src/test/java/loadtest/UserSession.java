@@ -0,0 +1,209 @@
+package loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Um "navegador" de um usuário virtual: cookies próprios (JSESSIONID, XSRF-TOKEN, refresh_token)
+ * e o mesmo fluxo do front-end, Authorization Code + PKCE.
+ * <p>
+ * Redirects não são seguidos automaticamente: o redirect final aponta para o front
+ * (localhost:5173/authorized?code=...), que não existe no teste.
+ */
+final class UserSession {
+
+    static final String CLIENT_ID = "petshop-client";
+    static final String REDIRECT_URI = LocalStack.FRONTEND_URL + "/authorized";
+
+    private static final Pattern CSRF_FIELD = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"|value=\"([^\"]+)\"\\s+name=\"_csrf\"");
+    private static final Pattern CODE_PARAM = Pattern.compile("[?&]code=([^&]+)");
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String authUrl;
+    private final String gatewayUrl;
+    private final Metrics metrics;
+    private final HttpClient client;
+
+    private String accessToken;
+
+    UserSession(String authUrl, String gatewayUrl, Metrics metrics) {
+        this.authUrl = authUrl;
+        this.gatewayUrl = gatewayUrl;
+        this.metrics = metrics;
+        CookieManager cookies = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(cookies)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    String accessToken() {
+        return accessToken;
+    }
+
+    HttpClient client() {
+        return client;
+    }
+
+    /**
+     * Login completo. Mede o POST /login (BCrypt) e a troca do code por token separadamente.
+     */
+    boolean login(String email, String senha) throws IOException, InterruptedException {
+        String verifier = base64Url(randomBytes(32));
+        String challenge = base64Url(sha256(verifier));
+        String authorize = authUrl + "/oauth2/authorize?" + form(Map.of(
+                "response_type", "code",
+                "client_id", CLIENT_ID,
+                "redirect_uri", REDIRECT_URI,
+                "scope", "openid profile",
+                "code_challenge", challenge,
+                "code_challenge_method", "S256"));
+
+        // 1. authorize sem sessão -> redirect para /login (e request salva na sessão)
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(authorize))
+                .header("Accept", "text/html").GET().build());
+        if (response.statusCode() != 302) {
+            return fail("login", "authorize " + response.statusCode());
+        }
+
+        // 2. página de login, só para pegar o token CSRF do formulário
+        response = send(HttpRequest.newBuilder(URI.create(authUrl + "/login"))
+                .header("Accept", "text/html").GET().build());
+        Matcher csrf = CSRF_FIELD.matcher(response.body());
+        if (!csrf.find()) {
+            return fail("login", "csrf ausente no formulário");
+        }
+        String csrfToken = csrf.group(1) != null ? csrf.group(1) : csrf.group(2);
+
+        // 3. POST /login -> redirect de volta para o authorize salvo
+        long start = System.nanoTime();
+        response = send(HttpRequest.newBuilder(URI.create(authUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form(Map.of(
+                        "username", email, "password", senha, "_csrf", csrfToken))))
+                .build());
+        String location = response.headers().firstValue("Location").orElse("");
+        boolean loggedIn = response.statusCode() == 302 && !location.contains("error");
+        metrics.record("login", start, loggedIn);
+        if (!loggedIn) {
+            return fail("login", response.statusCode() + " " + location);
+        }
+
+        // 4. authorize autenticado -> redirect para o front com o code
+        response = send(HttpRequest.newBuilder(URI.create(location)).header("Accept", "text/html").GET().build());
+        Matcher code = CODE_PARAM.matcher(response.headers().firstValue("Location").orElse(""));
+        if (!code.find()) {
+            return fail("login", "authorize sem code (" + response.statusCode() + ")");
+        }
+
+        // 5. troca do code pelo token, pelo gateway (como o front faz)
+        start = System.nanoTime();
+        response = send(HttpRequest.newBuilder(URI.create(gatewayUrl + "/oauth2/token"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Origin", LocalStack.FRONTEND_URL)
+                .POST(HttpRequest.BodyPublishers.ofString(form(Map.of(
+                        "grant_type", "authorization_code",
+                        "client_id", CLIENT_ID,
+                        "redirect_uri", REDIRECT_URI,
+                        "code", URLDecoder.decode(code.group(1), StandardCharsets.UTF_8),
+                        "code_verifier", verifier))))
+                .build());
+        return readToken("token-code", start, response);
+    }
+
+    /**
+     * Renova o access token usando o cookie HttpOnly de refresh (rotacionado a cada uso).
+     */
+    boolean refresh() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(gatewayUrl + "/oauth2/token"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Origin", LocalStack.FRONTEND_URL)
+                .POST(HttpRequest.BodyPublishers.ofString(form(Map.of(
+                        "grant_type", "refresh_token",
+                        "client_id", CLIENT_ID))))
+                .build());
+        return readToken("token-refresh", start, response);
+    }
+
+    /**
+     * Chamada autenticada ao gateway, medida sob o nome do endpoint.
+     */
+    HttpResponse<String> call(String endpoint, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(request.header("Authorization", "Bearer " + accessToken).build());
+        boolean success = response.statusCode() < 400;
+        metrics.record(endpoint, start, success);
+        if (!success) {
+            metrics.recordError(endpoint, String.valueOf(response.statusCode()));
+        }
+        return response;
+    }
+
+    private boolean readToken(String endpoint, long start, HttpResponse<String> response) throws IOException {
+        boolean success = response.statusCode() == 200;
+        metrics.record(endpoint, start, success);
+        if (!success) {
+            return fail(endpoint, String.valueOf(response.statusCode()));
+        }
+        JsonNode json = MAPPER.readTree(response.body());
+        accessToken = json.path("access_token").asText(null);
+        return accessToken != null;
+    }
+
+    private boolean fail(String endpoint, String detail) {
+        metrics.recordError(endpoint, detail);
+        return false;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String form(Map<String, String> params) {
+        return params.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Contenção no produto mais vendido: a mesma venda (venda_produto_quente.sql) com o estoque
+# do produto 1 em 0 (sem faixas), 1, 4, 16 e 64 faixas.
+#
+# Uso: ./contencao.sh [clientes] [segundos] ["faixas ..."]
+# Conexão via variáveis padrão do libpq (PGHOST, PGPORT, PGDATABASE, PGUSER, PGPASSWORD).
+# O schema precisa estar migrado até a V7.
+set -euo pipefail
+
+CLIENTS="${1:-32}"
+DURATION="${2:-30}"
+FAIXAS="${3:-0 1 4 16 64}"
+DIR="$(cd "$(dirname "$0")" && pwd)"
+RESUMO="${DIR}/resultado-contencao.txt"
+
+: > "${RESUMO}"
+for faixas in ${FAIXAS}; do
+  echo "==> Preparando massa com ${faixas} faixa(s) no produto 1"
+  psql -q -v ON_ERROR_STOP=1 -f "${DIR}/seed.sql"
+  psql -q -v ON_ERROR_STOP=1 -c "SELECT configurar_faixas_estoque(1, ${faixas})" > /dev/null
+
+  echo "==> ${CLIENTS} clientes por ${DURATION}s"
+  tps=$(pgbench -n -M prepared -c "${CLIENTS}" -j "${CLIENTS}" -T "${DURATION}" \
+    -f "${DIR}/venda_produto_quente.sql" | awk '/^tps/ { print $3; exit }')
+  echo "faixas=${faixas} tps=${tps}" | tee -a "${RESUMO}"
+done
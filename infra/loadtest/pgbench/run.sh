@@ -0,0 +1,20 @@
+#!/usr/bin/env bash
+# Benchmark do checkout: fluxo JPA (comando a comando) x função registrar_venda.
+#
+# Uso: ./run.sh [clientes] [segundos]
+# Conexão via variáveis padrão do libpq (PGHOST, PGPORT, PGDATABASE, PGUSER, PGPASSWORD).
+# O schema precisa estar migrado (suba o inv-service uma vez ou rode o Flyway).
+set -euo pipefail
+
+CLIENTS="${1:-16}"
+DURATION="${2:-60}"
+DIR="$(cd "$(dirname "$0")" && pwd)"
+
+for script in venda_jpa venda_procedure; do
+  echo "==> Preparando massa para ${script}"
+  psql -q -v ON_ERROR_STOP=1 -f "${DIR}/seed.sql"
+
+  echo "==> ${script}: ${CLIENTS} clientes por ${DURATION}s (protocolo prepared)"
+  pgbench -n -M prepared -c "${CLIENTS}" -j "${CLIENTS}" -T "${DURATION}" -r \
+    -f "${DIR}/${script}.sql" | tee "${DIR}/resultado-${script}.txt"
+done
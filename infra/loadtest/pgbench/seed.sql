@@ -0,0 +1,15 @@
+-- Massa para o benchmark de checkout: 1000 produtos com estoque "infinito"
+-- (o objetivo é medir o caminho de escrita, não a regra de estoque insuficiente).
+TRUNCATE movimentacoes_estoque, itens_venda, vendas, produtos RESTART IDENTITY CASCADE;
+
+INSERT INTO produtos (codigo_barras, nome, estoque_minimo, unidade_medida, quantidade_estoque, preco_venda, version)
+SELECT 'BENCH-' || g,
+       'Produto ' || g,
+       10,
+       'UN',
+       9999999,
+       round((random() * 100 + 1)::numeric, 2),
+       0
+FROM generate_series(1, 1000) AS g;
+
+ANALYZE produtos;
@@ -0,0 +1,24 @@
+-- Reproduz, comando a comando, o que o VendaService (fluxo JPA) envia ao banco
+-- numa venda de 3 itens: 1 SELECT, 3 UPDATE ... RETURNING, INSERT da venda (IDENTITY),
+-- 3 itens, 3 movimentações e o flush do @Version dos produtos.
+\set p1 random(1, 1000)
+\set p2 random(1, 1000)
+\set p3 random(1, 1000)
+\set q random(1, 3)
+BEGIN;
+SELECT id, nome, preco_venda, estoque_minimo, quantidade_estoque, version FROM produtos WHERE id IN (:p1, :p2, :p3);
+UPDATE produtos SET quantidade_estoque = quantidade_estoque - :q WHERE id = :p1 AND quantidade_estoque >= :q RETURNING quantidade_estoque;
+UPDATE produtos SET quantidade_estoque = quantidade_estoque - :q WHERE id = :p2 AND quantidade_estoque >= :q RETURNING quantidade_estoque;
+UPDATE produtos SET quantidade_estoque = quantidade_estoque - :q WHERE id = :p3 AND quantidade_estoque >= :q RETURNING quantidade_estoque;
+INSERT INTO vendas (data_hora, valor_total) VALUES (LOCALTIMESTAMP, 0) RETURNING id AS venda_id \gset
+INSERT INTO itens_venda (venda_id, produto_id, nome_produto_snapshot, preco_unitario_snapshot, quantidade) VALUES (:venda_id, :p1, 'Produto', 10.00, :q);
+INSERT INTO itens_venda (venda_id, produto_id, nome_produto_snapshot, preco_unitario_snapshot, quantidade) VALUES (:venda_id, :p2, 'Produto', 10.00, :q);
+INSERT INTO itens_venda (venda_id, produto_id, nome_produto_snapshot, preco_unitario_snapshot, quantidade) VALUES (:venda_id, :p3, 'Produto', 10.00, :q);
+INSERT INTO movimentacoes_estoque (produto_id, venda_id, tipo, quantidade, data_hora, observacao) VALUES (:p1, :venda_id, 'SAIDA', :q, LOCALTIMESTAMP, 'Venda automatizada');
+INSERT INTO movimentacoes_estoque (produto_id, venda_id, tipo, quantidade, data_hora, observacao) VALUES (:p2, :venda_id, 'SAIDA', :q, LOCALTIMESTAMP, 'Venda automatizada');
+INSERT INTO movimentacoes_estoque (produto_id, venda_id, tipo, quantidade, data_hora, observacao) VALUES (:p3, :venda_id, 'SAIDA', :q, LOCALTIMESTAMP, 'Venda automatizada');
+UPDATE produtos SET quantidade_estoque = quantidade_estoque, version = version + 1 WHERE id = :p1;
+UPDATE produtos SET quantidade_estoque = quantidade_estoque, version = version + 1 WHERE id = :p2;
+UPDATE produtos SET quantidade_estoque = quantidade_estoque, version = version + 1 WHERE id = :p3;
+UPDATE vendas SET valor_total = 30.00 WHERE id = :venda_id;
+END;
@@ -0,0 +1,6 @@
+-- A mesma venda de 3 itens via função 'registrar_venda' (V4): um único comando.
+\set p1 random(1, 1000)
+\set p2 random(1, 1000)
+\set p3 random(1, 1000)
+\set q random(1, 3)
+SELECT * FROM registrar_venda(ARRAY[:p1, :p2, :p3]::bigint[], ARRAY[:q, :q, :q]::numeric[]);
@@ -0,0 +1,21 @@
+-- Venda de 1 unidade do mesmo produto (id 1) por todos os clientes: o caso do produto mais vendido.
+-- Reproduz o fluxo JPA do EstoqueService nos dois modos:
+--   sem faixas -> UPDATE ... RETURNING e o flush do @Version na linha do produto (a venda segura o lock
+--                 da linha até o commit, então os clientes andam em fila);
+--   com faixas -> 'baixar_estoque_faixas' (V7) numa faixa livre, sem escrever na linha do produto.
+BEGIN;
+SELECT faixas_estoque FROM produtos WHERE id = 1 \gset
+\if :faixas_estoque
+SELECT baixar_estoque_faixas(1, 1);
+\else
+UPDATE produtos SET quantidade_estoque = quantidade_estoque - 1 WHERE id = 1 AND quantidade_estoque >= 1 RETURNING quantidade_estoque;
+\endif
+INSERT INTO vendas (data_hora, valor_total) VALUES (LOCALTIMESTAMP, 0) RETURNING id AS venda_id \gset
+INSERT INTO itens_venda (venda_id, produto_id, nome_produto_snapshot, preco_unitario_snapshot, quantidade) VALUES (:venda_id, 1, 'Produto', 10.00, 1);
+INSERT INTO movimentacoes_estoque (produto_id, venda_id, tipo, quantidade, data_hora, observacao) VALUES (1, :venda_id, 'SAIDA', 1, LOCALTIMESTAMP, 'Venda automatizada');
+\if :faixas_estoque
+\else
+UPDATE produtos SET quantidade_estoque = quantidade_estoque, version = version + 1 WHERE id = 1;
+\endif
+UPDATE vendas SET valor_total = 10.00 WHERE id = :venda_id;
+END;
@@ -0,0 +1,10 @@
+#!/bin/sh
+# Roda uma vez, na criação do volume do postgres-inv (docker-entrypoint-initdb.d).
+# Volume já existente: rodar o CREATE ROLE e a linha do pg_hba.conf à mão e recarregar o Postgres.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-SQL
+    CREATE ROLE ${REPLICATION_USER} WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD}';
+SQL
+
+echo "host replication ${REPLICATION_USER} all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,20 @@
+#!/bin/sh
+# Réplica em streaming do postgres-inv: na primeira subida clona o primário (pg_basebackup -R
+# grava o primary_conninfo e o standby.signal) e depois sobe em hot standby (só leitura).
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_isready -h "$PRIMARY_HOST" -p 5432 -q; do
+        echo "Aguardando o primário $PRIMARY_HOST..."
+        sleep 2
+    done
+
+    mkdir -p "$PGDATA"
+    chown postgres:postgres "$PGDATA"
+    chmod 700 "$PGDATA"
+
+    export PGPASSWORD="$REPLICATION_PASSWORD"
+    su-exec postgres pg_basebackup -h "$PRIMARY_HOST" -U "$REPLICATION_USER" -D "$PGDATA" -X stream -R
+fi
+
+exec su-exec postgres postgres -c hot_standby=on